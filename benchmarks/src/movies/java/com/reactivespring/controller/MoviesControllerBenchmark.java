@@ -0,0 +1,111 @@
+package com.reactivespring.controller;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.reactivespring.cache.RestClientCacheProperties;
+import com.reactivespring.client.MoviesInfoRestClient;
+import com.reactivespring.client.ReviewsRestClient;
+import com.reactivespring.domain.Movie;
+import com.reactivespring.hedging.RestClientHedgingProperties;
+import com.reactivespring.logging.SignalLogger;
+import com.reactivespring.logging.SignalLoggingProperties;
+import com.reactivespring.resilience.RestClientResilienceProperties;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link MoviesController#getMovieById(String)} with the real rest clients, each on a WebClient whose exchange answers
+ * from memory: single flight, resilience, signal logging and decoding are measured, the network is not. With
+ * {@code cacheEnabled} every call after the first one is answered from the client caches instead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+// the WebClient, Reactor and resilience4j call paths take close to 20 seconds to be fully compiled
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoviesControllerBenchmark {
+
+    private static final String MOVIE_ID = "6151d2cba0fd4f1a2ad7d3a1";
+
+    private static final String MOVIE_INFO_JSON = "{\"movieInfoId\": \"" + MOVIE_ID + "\", \"name\": \"The Dark Knight\", \"year\": 2008, "
+                                                  + "\"cast\": [\"Christian Bale\", \"Heath Ledger\", \"Aaron Eckhart\", \"Michael Caine\"], "
+                                                  + "\"release_date\": \"2008-07-18\"}";
+
+    private static final String REVIEWS_JSON = "[{\"reviewId\": \"1\", \"movieInfoId\": 1, \"comment\": \"Awesome Movie\", \"rating\": 9.0}, "
+                                               + "{\"reviewId\": \"2\", \"movieInfoId\": 1, \"comment\": \"Excellent Movie\", \"rating\": 8.0}, "
+                                               + "{\"reviewId\": \"3\", \"movieInfoId\": 1, \"comment\": \"Good Movie\", \"rating\": 7.0}]";
+
+    @Param({"false", "true"})
+    private boolean cacheEnabled;
+
+    private MoviesController moviesController;
+
+    @Setup
+    public void setUp() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SignalLogger signalLogger = new SignalLogger(new SignalLoggingProperties());
+
+        RestClientCacheProperties cacheProperties = new RestClientCacheProperties();
+        cacheProperties.getMoviesInfo().setEnabled(cacheEnabled);
+        cacheProperties.getReviews().setEnabled(cacheEnabled);
+
+        MoviesInfoRestClient moviesInfoRestClient = new MoviesInfoRestClient(inMemoryWebClient(MOVIE_INFO_JSON), cacheProperties,
+                                                                             new RestClientHedgingProperties(),
+                                                                             new RestClientResilienceProperties(),
+                                                                             meterRegistry, signalLogger);
+        ReflectionTestUtils.setField(moviesInfoRestClient, "moviesInfoUrl", "http://localhost:8082/v1/movieinfos");
+
+        ReviewsRestClient reviewsRestClient = new ReviewsRestClient(inMemoryWebClient(REVIEWS_JSON), cacheProperties,
+                                                                    new RestClientHedgingProperties(),
+                                                                    new RestClientResilienceProperties(),
+                                                                    meterRegistry, signalLogger);
+        ReflectionTestUtils.setField(reviewsRestClient, "reviewsUrl", "http://localhost:8081/v1/reviews");
+
+        // the defaults of the controller
+        moviesController = new MoviesController(moviesInfoRestClient, reviewsRestClient, Duration.ofSeconds(5),
+                                                false, Duration.ofSeconds(1),
+                                                50, Duration.ofMillis(100), 4, 32);
+    }
+
+    @Benchmark
+    public Movie getMovieById() {
+        return moviesController.getMovieById(MOVIE_ID)
+                               .block();
+    }
+
+    private static WebClient inMemoryWebClient(String json) {
+        ExchangeStrategies exchangeStrategies = ExchangeStrategies.withDefaults();
+
+        return WebClient.builder()
+                        .exchangeStrategies(exchangeStrategies)
+                        .exchangeFunction(request -> Mono.fromSupplier(() -> ClientResponse.create(HttpStatus.OK, exchangeStrategies)
+                                                                                           .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                                                                           .body(json)
+                                                                                           .build()))
+                        .build();
+    }
+}
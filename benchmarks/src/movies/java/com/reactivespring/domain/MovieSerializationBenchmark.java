@@ -0,0 +1,93 @@
+package com.reactivespring.domain;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Jackson encoding and decoding of the movies-service domain, as JSON and as Smile (see {@code CodecConfig}): the
+ * {@link MovieInfo} and {@link Review} read from the downstreams and the {@link Movie} with {@value #REVIEWS}
+ * reviews answered to the callers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovieSerializationBenchmark {
+
+    private static final int REVIEWS = 10;
+
+    @Param({"movieInfo", "review", "movie"})
+    private String type;
+
+    @Param({"json", "smile"})
+    private String format;
+
+    private Object value;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        // WRITE_DATES_AS_TIMESTAMPS is the one default Spring Boot changes on top of the builder
+        Jackson2ObjectMapperBuilder objectMapperBuilder = format.equals("smile")
+                                                          ? Jackson2ObjectMapperBuilder.smile()
+                                                          : Jackson2ObjectMapperBuilder.json();
+        objectMapperBuilder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        MovieInfo movieInfo = new MovieInfo("6151d2cba0fd4f1a2ad7d3a1", "The Dark Knight", 2008,
+                                            List.of("Christian Bale", "Heath Ledger", "Aaron Eckhart", "Michael Caine"),
+                                            LocalDate.parse("2008-07-18"));
+        List<Review> reviews = IntStream.range(0, REVIEWS)
+                                        .mapToObj(i -> new Review("6151d2cba0fd4f1a2ad7d3b" + i, 1L, "Awesome Movie " + i, 9.0))
+                                        .collect(Collectors.toList());
+
+        switch (type) {
+            case "movieInfo":
+                value = movieInfo;
+                break;
+            case "review":
+                value = reviews.get(0);
+                break;
+            default:
+                value = new Movie(movieInfo, reviews);
+        }
+
+        writer = objectMapperBuilder.build().writerFor(value.getClass());
+        reader = objectMapperBuilder.build().readerFor(value.getClass());
+        encoded = writer.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return writer.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        return reader.readValue(encoded);
+    }
+}
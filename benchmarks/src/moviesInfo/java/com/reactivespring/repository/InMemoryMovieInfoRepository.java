@@ -0,0 +1,155 @@
+package com.reactivespring.repository;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import org.bson.types.ObjectId;
+
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.RatingDelta;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Movie infos in a map in id order, so the benchmarks measure the service pipelines and not Mongo. Implements the
+ * custom fragments of {@link MovieInfoRepository} and the derived queries {@code MovieInfoService} uses,
+ * {@link #asRepository()} exposes them as a {@link MovieInfoRepository} on which any other method throws.
+ */
+public class InMemoryMovieInfoRepository implements MovieInfoPageOperations, MovieInfoBulkOperations, MovieInfoUpdateOperations {
+
+    private final NavigableMap<String, MovieInfo> movieInfos = new ConcurrentSkipListMap<>();
+
+    /**
+     * A {@link MovieInfoRepository} calling the method of this class with the same name and compatible parameters,
+     * e.g. {@code findById(Object)} calls {@link #findById(String)}.
+     */
+    public MovieInfoRepository asRepository() {
+        Map<Method, Method> implementations = new HashMap<>();
+        for (Method method : MovieInfoRepository.class.getMethods()) {
+            Arrays.stream(InMemoryMovieInfoRepository.class.getMethods())
+                  .filter(implementation -> isImplementation(implementation, method))
+                  .findFirst()
+                  .ifPresent(implementation -> implementations.put(method, implementation));
+        }
+
+        return (MovieInfoRepository) Proxy.newProxyInstance(MovieInfoRepository.class.getClassLoader(),
+                                                            new Class<?>[]{MovieInfoRepository.class},
+                                                            (proxy, method, args) -> {
+                                                                Method implementation = method.getDeclaringClass() == Object.class
+                                                                                        ? method
+                                                                                        : implementations.get(method);
+                                                                if (implementation == null) {
+                                                                    throw new UnsupportedOperationException(method.getName() + " is not used by the benchmarks");
+                                                                }
+                                                                try {
+                                                                    return implementation.invoke(this, args);
+                                                                } catch (InvocationTargetException e) {
+                                                                    throw e.getCause();
+                                                                }
+                                                            });
+    }
+
+    public Mono<MovieInfo> save(MovieInfo movieInfo) {
+        return Mono.fromSupplier(() -> {
+            if (movieInfo.getId() == null) {
+                movieInfo.setId(new ObjectId().toHexString());
+            }
+            movieInfos.put(movieInfo.getId(), movieInfo);
+            return movieInfo;
+        });
+    }
+
+    public Flux<MovieInfo> saveAll(Iterable<MovieInfo> movieInfos) {
+        return Flux.fromIterable(movieInfos)
+                   .concatMap(this::save);
+    }
+
+    @Override
+    public Mono<Map<Integer, String>> saveAllUnordered(List<MovieInfo> movieInfos) {
+        return Flux.fromIterable(movieInfos)
+                   .concatMap(this::save)
+                   .then(Mono.fromSupplier(HashMap::new));
+    }
+
+    @Override
+    public Mono<MovieInfo> updateDetails(String id, MovieInfo details) {
+        return Mono.fromSupplier(() -> movieInfos.computeIfPresent(id, (key, movieInfo) -> {
+            movieInfo.setName(details.getName());
+            movieInfo.setYear(details.getYear());
+            movieInfo.setCast(details.getCast());
+            movieInfo.setReleaseDate(details.getReleaseDate());
+            return movieInfo;
+        }));
+    }
+
+    // the rating versions are not kept, every movie info reads as having none and every delta applies
+    @Override
+    public Mono<Map<String, Long>> findRatingVersions(Collection<String> ids) {
+        return Flux.fromIterable(ids)
+                   .filter(movieInfos::containsKey)
+                   .collectMap(Function.identity(), id -> 0L);
+    }
+
+    @Override
+    public Mono<Long> addRatings(Collection<RatingDelta> ratingDeltas) {
+        return Flux.fromIterable(ratingDeltas)
+                   .filter(delta -> movieInfos.computeIfPresent(delta.getMovieInfoId(), (key, movieInfo) -> {
+                       movieInfo.setReviewCount(movieInfo.getReviewCount() + delta.getReviewCount());
+                       movieInfo.setRatingCount(movieInfo.getRatingCount() + delta.getRatingCount());
+                       movieInfo.setRatingSum(movieInfo.getRatingSum() + delta.getRatingSum());
+                       return movieInfo;
+                   }) != null)
+                   .count();
+    }
+
+    public Mono<MovieInfo> findById(String id) {
+        return Mono.fromSupplier(() -> movieInfos.get(id));
+    }
+
+    @Override
+    public Flux<MovieInfo> findPageAfter(String lastId, int limit) {
+        return Flux.defer(() -> Flux.fromIterable(lastId == null
+                                                  ? movieInfos.values()
+                                                  : movieInfos.tailMap(lastId, false).values()))
+                   .take(limit);
+    }
+
+    public Flux<MovieInfo> findByYear(Integer year) {
+        return streamAll(0).filter(movieInfo -> year.equals(movieInfo.getYear()));
+    }
+
+    public Flux<MovieInfo> findByIdIn(Collection<String> ids) {
+        return Flux.fromIterable(ids)
+                   .concatMap(this::findById);
+    }
+
+    @Override
+    public Flux<MovieInfo> streamAll(int cursorBatchSize) {
+        return Flux.defer(() -> Flux.fromIterable(movieInfos.values()));
+    }
+
+    public Mono<Void> deleteById(String id) {
+        return Mono.fromRunnable(() -> movieInfos.remove(id));
+    }
+
+    private static boolean isImplementation(Method implementation, Method method) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        Class<?>[] implementationParameterTypes = implementation.getParameterTypes();
+
+        return implementation.getName().equals(method.getName())
+               && implementationParameterTypes.length == parameterTypes.length
+               && IntStream.range(0, parameterTypes.length)
+                           .allMatch(i -> parameterTypes[i].isAssignableFrom(implementationParameterTypes[i]));
+    }
+}
@@ -0,0 +1,133 @@
+package com.reactivespring.search;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.MovieInfoSuggestion;
+
+/**
+ * {@link MovieInfoSuggester} lookups and rating updates on catalogs of generated names, sampled so that the p99 is
+ * reported next to the average. The setup prints the heap the suggester retains, per movie info, measured after a
+ * full collection before and after loading it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovieInfoSuggesterBenchmark {
+
+    private static final String[] SYLLABLES = {"ka", "ro", "mi", "den", "sha", "tor", "lu", "vek", "an", "ber",
+                                               "ci", "do", "el", "fay", "gor", "hin", "is", "jun", "kel", "mar",
+                                               "nos", "ob", "pra", "qui", "ras", "sel", "tan", "ur", "vin", "wes"};
+    private static final int PREFIXES = 1 << 12;
+
+    @Param({"10000", "100000", "1000000"})
+    private int movieInfos;
+
+    private MovieInfoSuggester movieInfoSuggester;
+
+    private String[] prefixes;
+    private int nextPrefix;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        random = new Random(42);
+
+        long heapBefore = usedHeap();
+        movieInfoSuggester = new MovieInfoSuggester(null, 1_000, 10);
+        for (int i = 0; i < movieInfos; i++) {
+            movieInfoSuggester.index(movieInfo(i));
+        }
+        long retained = usedHeap() - heapBefore;
+        System.out.printf("%n%d movie infos retain %d MB, %d bytes per movie info%n", movieInfos, retained >> 20,
+                          retained / movieInfos);
+
+        // what is typed in a search box: the first letters of a word, sometimes after a whole first word
+        prefixes = new String[PREFIXES];
+        for (int i = 0; i < PREFIXES; i++) {
+            String word = word();
+            String prefix = word.substring(0, 1 + random.nextInt(word.length()));
+            prefixes[i] = random.nextInt(4) == 0 ? word() + " " + prefix : prefix;
+        }
+    }
+
+    @Benchmark
+    public List<MovieInfoSuggestion> suggest() {
+        return movieInfoSuggester.suggest(prefixes[nextPrefix++ & (PREFIXES - 1)], 10);
+    }
+
+    /**
+     * A rating update of a random movie info, its name and so its keys are unchanged.
+     */
+    @Benchmark
+    public void index() {
+        int i = random.nextInt(movieInfos);
+        MovieInfo movieInfo = movieInfo(i);
+        movieInfo.setReviewCount(movieInfo.getReviewCount() + 1);
+        movieInfoSuggester.index(movieInfo);
+    }
+
+    /**
+     * The same name and review count for the same {@code i}, so that a rating update finds the keys it was added
+     * under.
+     */
+    private static MovieInfo movieInfo(int i) {
+        Random names = new Random(i);
+        StringBuilder name = new StringBuilder();
+        int words = 1 + names.nextInt(4);
+        for (int word = 0; word < words; word++) {
+            if (word > 0) {
+                name.append(' ');
+            }
+            String syllables = syllables(names);
+            name.append(Character.toUpperCase(syllables.charAt(0)))
+                .append(syllables, 1, syllables.length());
+        }
+
+        long reviewCount = names.nextInt(1_000);
+        return new MovieInfo(String.valueOf(i), name.toString(), 1950 + i % 70, List.of(), LocalDate.of(1950 + i % 70, 1, 1),
+                             reviewCount, reviewCount, reviewCount * (1 + names.nextInt(10)));
+    }
+
+    private String word() {
+        return syllables(random);
+    }
+
+    private static String syllables(Random random) {
+        StringBuilder word = new StringBuilder();
+        int syllables = 1 + random.nextInt(3);
+        for (int i = 0; i < syllables; i++) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    private static long usedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
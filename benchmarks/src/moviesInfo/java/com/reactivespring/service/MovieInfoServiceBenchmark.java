@@ -0,0 +1,164 @@
+package com.reactivespring.service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.MovieInfoImportResult;
+import com.reactivespring.domain.MovieInfoSuggestion;
+import com.reactivespring.repository.InMemoryMovieInfoRepository;
+import com.reactivespring.repository.MovieInfoRepository;
+import com.reactivespring.search.MovieInfoSearchIndex;
+import com.reactivespring.search.MovieInfoSuggester;
+import com.reactivespring.util.CursorPage;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * The {@link MovieInfoService} pipelines on top of an {@link InMemoryMovieInfoRepository} holding
+ * {@value #MOVIE_INFOS} movie infos: what is left is Reactor assembly and subscription, validation, paging, the
+ * search index and the suggestion trie.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovieInfoServiceBenchmark {
+
+    private static final int MOVIE_INFOS = 1_000;
+    private static final int PAGE_SIZE = 100;
+
+    private LocalValidatorFactoryBean validator;
+    private MovieInfoService movieInfoService;
+
+    private String movieInfoId;
+    private MovieInfo updatedMovieInfo;
+    private List<String> importedLines;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        validator = new LocalValidatorFactoryBean();
+        validator.afterPropertiesSet();
+
+        InMemoryMovieInfoRepository inMemoryMovieInfos = new InMemoryMovieInfoRepository();
+        MovieInfoRepository movieInfoRepository = inMemoryMovieInfos.asRepository();
+        MovieInfoSearchIndex movieInfoSearchIndex = new MovieInfoSearchIndex(movieInfoRepository, 1_000, 16);
+        MovieInfoSuggester movieInfoSuggester = new MovieInfoSuggester(movieInfoRepository, 1_000, 10);
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        movieInfoService = new MovieInfoService(movieInfoRepository, validator, movieInfoSearchIndex, movieInfoSuggester, objectMapper);
+        // the defaults of the service
+        ReflectionTestUtils.setField(movieInfoService, "importBatchSize", 500);
+        ReflectionTestUtils.setField(movieInfoService, "exportCursorBatchSize", 1_000);
+
+        inMemoryMovieInfos.saveAll(movieInfos(MOVIE_INFOS)).blockLast();
+        movieInfoSearchIndex.load();
+        movieInfoSuggester.load();
+
+        movieInfoId = movieInfoRepository.findPageAfter(null, MOVIE_INFOS / 2)
+                                         .blockLast()
+                                         .getId();
+        updatedMovieInfo = movieInfo(MOVIE_INFOS / 2);
+        // every 100th movie info has no name and is rejected
+        importedLines = IntStream.range(0, MOVIE_INFOS)
+                                 .mapToObj(i -> i % 100 == 0
+                                                ? new MovieInfo(null, "", 2000, List.of("Cast " + i), LocalDate.parse("2000-01-01"))
+                                                : movieInfo(i))
+                                 .map(movieInfo -> toJson(objectMapper, movieInfo))
+                                 .collect(Collectors.toList());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        validator.close();
+    }
+
+    @Benchmark
+    public MovieInfo getMovieInfoById() {
+        return movieInfoService.getMovieInfoById(movieInfoId)
+                               .block();
+    }
+
+    @Benchmark
+    public CursorPage<MovieInfo> getMovieInfosPage() {
+        return movieInfoService.getMovieInfosPage(movieInfoId, PAGE_SIZE)
+                               .block();
+    }
+
+    @Benchmark
+    public MovieInfo updateMovieInfo() {
+        return movieInfoService.updateMovieInfo(movieInfoId, updatedMovieInfo)
+                               .block();
+    }
+
+    /**
+     * Every movie info matches "movie", the rarer terms decide the ranking.
+     */
+    @Benchmark
+    public List<MovieInfo> searchMovieInfos() {
+        return movieInfoService.searchMovieInfos("movie 500 actor 42", 20)
+                               .collectList()
+                               .block();
+    }
+
+    /**
+     * One keystroke of the search box, every movie info has a word starting with "mov".
+     */
+    @Benchmark
+    public List<MovieInfoSuggestion> suggestMovieInfos() {
+        return movieInfoService.suggestMovieInfos("mov", 10)
+                               .collectList()
+                               .block();
+    }
+
+    /**
+     * Parsing, validation and batching of a {@value #MOVIE_INFOS} line import. Rejected movie infos are never written,
+     * the valid ones overwrite themselves from the second invocation on, so the repository does not grow.
+     */
+    @Benchmark
+    public MovieInfoImportResult importMovieInfos() {
+        return movieInfoService.importMovieInfos(Flux.fromIterable(importedLines))
+                               .block();
+    }
+
+    private static String toJson(ObjectMapper objectMapper, MovieInfo movieInfo) {
+        try {
+            return objectMapper.writeValueAsString(movieInfo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<MovieInfo> movieInfos(int count) {
+        return IntStream.range(0, count)
+                        .mapToObj(MovieInfoServiceBenchmark::movieInfo)
+                        .collect(Collectors.toList());
+    }
+
+    private static MovieInfo movieInfo(int i) {
+        return new MovieInfo(null, "Movie " + i, 1950 + i % 70, List.of("Actor " + i, "Actress " + i),
+                             LocalDate.of(1950 + i % 70, 1 + i % 12, 1 + i % 28));
+    }
+}
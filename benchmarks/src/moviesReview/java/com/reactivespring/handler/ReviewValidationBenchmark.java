@@ -0,0 +1,100 @@
+package com.reactivespring.handler;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.reactive.function.server.MockServerRequest;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.reactivespring.domain.Review;
+import com.reactivespring.exception.ReviewDataException;
+import com.reactivespring.repository.ReviewReactiveRepository;
+import com.reactivespring.repository.ReviewStatsRepository;
+import com.reactivespring.util.EventReplayBuffer;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * {@link ReviewHandler#addReview} with the validator Spring Boot configures, for a valid review and for one that is
+ * rejected with a {@link ReviewDataException}. The repositories answer right away, what is measured is the
+ * validation and the handler pipeline up to the response, which is not written.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReviewValidationBenchmark {
+
+    private LocalValidatorFactoryBean validator;
+    private ReviewHandler reviewHandler;
+
+    private ServerRequest validReview;
+    private ServerRequest invalidReview;
+
+    @Setup
+    public void setUp() {
+        validator = new LocalValidatorFactoryBean();
+        validator.afterPropertiesSet();
+
+        ReviewReactiveRepository reviewReactiveRepository = stub(ReviewReactiveRepository.class, "save", args -> Mono.just(args[0]));
+        ReviewStatsRepository reviewStatsRepository = stub(ReviewStatsRepository.class, "reviewAdded", args -> Mono.empty());
+        // adding a review does not touch the object mapper, the streams nor the signal logger
+        reviewHandler = new ReviewHandler(validator, reviewReactiveRepository, reviewStatsRepository, null,
+                                          new EventReplayBuffer<>(1_000, Duration.ofMinutes(10)), null, null, null);
+
+        // built once, the builder registers all the default codecs
+        validReview = MockServerRequest.builder().body(Mono.just(new Review(null, 1L, "Awesome Movie", 9.0)));
+        invalidReview = MockServerRequest.builder().body(Mono.just(new Review(null, null, "Awful Movie", -1.0)));
+    }
+
+    @TearDown
+    public void tearDown() {
+        validator.close();
+    }
+
+    @Benchmark
+    public ServerResponse validReview() {
+        return reviewHandler.addReview(validReview)
+                            .block();
+    }
+
+    @Benchmark
+    public Throwable invalidReview() {
+        // resumed rather than thrown by block(), which would add a stack trace of its own to every rejection
+        return reviewHandler.addReview(invalidReview)
+                            .flatMap(response -> Mono.<Throwable>error(new IllegalStateException("review should have been rejected")))
+                            .onErrorResume(ReviewDataException.class, Mono::just)
+                            .block();
+    }
+
+    /**
+     * A repository answering {@code method} only, the handler calls nothing else while adding a review.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> repositoryType, String method, Function<Object[], Object> answer) {
+        return (T) Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[]{repositoryType},
+                                          (proxy, invoked, args) -> {
+                                              if (!invoked.getName().equals(method)) {
+                                                  throw new UnsupportedOperationException(invoked.getName() + " is not used by the benchmarks");
+                                              }
+                                              return answer.apply(args);
+                                          });
+    }
+}
@@ -0,0 +1,35 @@
+package com.reactivespring.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.reactivespring.loadtest.LoadTestProperties;
+
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+@Configuration
+@EnableConfigurationProperties(LoadTestProperties.class)
+public class LoadTestConfig {
+
+    /**
+     * One connection per outstanding request: requests must never wait for a connection on the load generator side,
+     * or its own queueing would end up in the measured latencies.
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider loadTestConnectionProvider(LoadTestProperties properties) {
+        return ConnectionProvider.builder("load-test")
+                                 .maxConnections(properties.getMaxInFlight())
+                                 .pendingAcquireMaxCount(-1)
+                                 .build();
+    }
+
+    @Bean
+    public WebClient loadTestWebClient(WebClient.Builder webClientBuilder, ConnectionProvider loadTestConnectionProvider) {
+        return webClientBuilder.clientConnector(new ReactorClientHttpConnector(HttpClient.create(loadTestConnectionProvider)))
+                               .build();
+    }
+}
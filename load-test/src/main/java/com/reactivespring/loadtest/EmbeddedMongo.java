@@ -0,0 +1,61 @@
+package com.reactivespring.loadtest;
+
+import java.io.IOException;
+
+import de.flapdoodle.embed.mongo.MongodExecutable;
+import de.flapdoodle.embed.mongo.MongodStarter;
+import de.flapdoodle.embed.mongo.config.MongodConfig;
+import de.flapdoodle.embed.mongo.config.Net;
+import de.flapdoodle.embed.mongo.distribution.IFeatureAwareVersion;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.distribution.Versions;
+import de.flapdoodle.embed.process.runtime.Network;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A single mongod shared by the services, each in a database of its own, started the way the integration tests do
+ * through Spring Boot's embedded Mongo support.
+ */
+@Slf4j
+public class EmbeddedMongo implements AutoCloseable {
+
+    private final MongodExecutable mongodExecutable;
+    private final int port;
+
+    private EmbeddedMongo(MongodExecutable mongodExecutable, int port) {
+        this.mongodExecutable = mongodExecutable;
+        this.port = port;
+    }
+
+    public static EmbeddedMongo start(String version) throws IOException {
+        int port = Network.getFreeServerPort();
+        MongodConfig mongodConfig = MongodConfig.builder()
+                                                .version(featureAwareVersion(version))
+                                                .net(new Net(port, Network.localhostIsIPv6()))
+                                                .build();
+
+        MongodExecutable mongodExecutable = MongodStarter.getDefaultInstance().prepare(mongodConfig);
+        mongodExecutable.start();
+        log.info("Embedded Mongo {} listening on port {}", version, port);
+
+        return new EmbeddedMongo(mongodExecutable, port);
+    }
+
+    public String uri(String database) {
+        return "mongodb://localhost:" + port + "/" + database;
+    }
+
+    @Override
+    public void close() {
+        mongodExecutable.stop();
+    }
+
+    private static IFeatureAwareVersion featureAwareVersion(String version) {
+        for (Version candidate : Version.values()) {
+            if (candidate.asInDownloadPath().equals(version)) {
+                return candidate;
+            }
+        }
+        return Versions.withFeatures(de.flapdoodle.embed.process.distribution.Version.of(version));
+    }
+}
@@ -0,0 +1,19 @@
+package com.reactivespring.loadtest;
+
+import lombok.Data;
+
+@Data
+public class EndpointSpec {
+
+    private Service service;
+
+    /**
+     * Path and query of the request, {@code {id}} is replaced by the id of a random seeded movie.
+     */
+    private String path;
+
+    /**
+     * Share of the arrival rate, relative to the weights of the other endpoints.
+     */
+    private int weight = 1;
+}
@@ -0,0 +1,61 @@
+package com.reactivespring.loadtest;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import lombok.Getter;
+
+/**
+ * Latencies of one endpoint in microseconds, recorded from the event loops.
+ * <p>
+ * {@link #getResponseTimes()} are measured from the time the request was due, not from the time it was sent: when the
+ * system falls behind, the requests that were held up count with the time they waited. This is the coordinated
+ * omission correction, without it a stall shows up as a single slow request. {@link #getServiceTimes()}, measured
+ * from the time the request was sent, are kept to show how much the correction weighs.
+ * <p>
+ * Requests that got no answer are in the response times too, or the worst requests of a stall would be left out
+ * again: a timed out request counts as at least as slow as the request timeout, a dropped request as the time it was
+ * already late plus the request timeout. Other failures got an answer, an error, and count with the time it took.
+ * Timed out and failed requests are both counted as errors.
+ */
+@Getter
+public class EndpointStats {
+
+    private final Histogram responseTimes = new ConcurrentHistogram(3);
+    private final Histogram serviceTimes = new ConcurrentHistogram(3);
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private final long requestTimeoutMicros;
+
+    public EndpointStats(Duration requestTimeout) {
+        this.requestTimeoutMicros = TimeUnit.NANOSECONDS.toMicros(requestTimeout.toNanos());
+    }
+
+    public void completed(long dueNanos, long sentNanos, long completedNanos) {
+        completed.increment();
+        responseTimes.recordValue(TimeUnit.NANOSECONDS.toMicros(completedNanos - dueNanos));
+        serviceTimes.recordValue(TimeUnit.NANOSECONDS.toMicros(completedNanos - sentNanos));
+    }
+
+    public void failed(long dueNanos, long failedNanos) {
+        errors.increment();
+        responseTimes.recordValue(TimeUnit.NANOSECONDS.toMicros(failedNanos - dueNanos));
+    }
+
+    public void timedOut(long dueNanos, long timedOutNanos) {
+        errors.increment();
+        responseTimes.recordValue(Math.max(TimeUnit.NANOSECONDS.toMicros(timedOutNanos - dueNanos), requestTimeoutMicros));
+    }
+
+    public void dropped(long dueNanos, long droppedNanos) {
+        dropped.increment();
+        responseTimes.recordValue(TimeUnit.NANOSECONDS.toMicros(Math.max(0, droppedNanos - dueNanos)) + requestTimeoutMicros);
+    }
+}
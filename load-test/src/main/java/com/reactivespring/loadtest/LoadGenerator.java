@@ -0,0 +1,108 @@
+package com.reactivespring.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Open model load: requests go out at a constant arrival rate, each one at its due time whether or not the earlier
+ * ones were answered, the way independent users hit a service. A closed loop of clients waiting for their responses
+ * would slow down with the system under test and hide its stalls.
+ * <p>
+ * Requests are sent from a single thread and answered on the WebClient event loops, nothing blocks on a response.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class LoadGenerator {
+
+    private final WebClient loadTestWebClient;
+    private final LoadTestProperties properties;
+
+    /**
+     * Sends {@code loadTest.rate} requests per second for {@code duration}, spread over the endpoints by weight, then
+     * waits up to {@code loadTest.requestTimeout} for the outstanding ones.
+     *
+     * @param baseUrls the base URL of every service
+     * @return the stats of every endpoint by name, and how long the run took
+     */
+    public LoadResult run(Map<Service, String> baseUrls, Duration duration) {
+        Map<String, EndpointStats> statsByEndpoint = new LinkedHashMap<>();
+        List<Target> schedule = new ArrayList<>();
+        properties.getEndpoints().forEach((name, spec) -> {
+            EndpointStats stats = new EndpointStats(properties.getRequestTimeout());
+            statsByEndpoint.put(name, stats);
+            for (int i = 0; i < spec.getWeight(); i++) {
+                schedule.add(new Target(baseUrls.get(spec.getService()) + spec.getPath(), stats));
+            }
+        });
+
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / properties.getRate();
+        long requests = duration.toNanos() / intervalNanos;
+        AtomicInteger inFlight = new AtomicInteger();
+
+        long startNanos = System.nanoTime();
+        for (long i = 0; i < requests; i++) {
+            long dueNanos = startNanos + i * intervalNanos;
+            long waitNanos;
+            while ((waitNanos = dueNanos - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+
+            Target target = schedule.get((int) (i % schedule.size()));
+            if (inFlight.get() >= properties.getMaxInFlight()) {
+                target.stats.dropped(dueNanos, System.nanoTime());
+                continue;
+            }
+
+            inFlight.incrementAndGet();
+            long sentNanos = System.nanoTime();
+            loadTestWebClient.get()
+                             .uri(target.uriTemplate, ThreadLocalRandom.current().nextInt(1, properties.getMovies() + 1))
+                             .retrieve()
+                             .toBodilessEntity()
+                             .timeout(properties.getRequestTimeout())
+                             .doFinally(signalType -> inFlight.decrementAndGet())
+                             .subscribe(response -> target.stats.completed(dueNanos, sentNanos, System.nanoTime()),
+                                        error -> {
+                                            if (error instanceof TimeoutException) {
+                                                target.stats.timedOut(dueNanos, System.nanoTime());
+                                            } else {
+                                                target.stats.failed(dueNanos, System.nanoTime());
+                                            }
+                                        });
+        }
+
+        long drainDeadline = System.nanoTime() + properties.getRequestTimeout().toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        if (inFlight.get() > 0) {
+            log.warn("{} requests still outstanding after the request timeout", inFlight.get());
+        }
+
+        return new LoadResult(statsByEndpoint, Duration.ofNanos(elapsedNanos));
+    }
+
+    @RequiredArgsConstructor
+    private static final class Target {
+
+        private final String uriTemplate;
+        private final EndpointStats stats;
+    }
+}
@@ -0,0 +1,17 @@
+package com.reactivespring.loadtest;
+
+import java.time.Duration;
+import java.util.Map;
+
+import lombok.Value;
+
+@Value
+public class LoadResult {
+
+    Map<String, EndpointStats> statsByEndpoint;
+
+    /**
+     * From the first request sent to the last one answered.
+     */
+    Duration elapsed;
+}
@@ -0,0 +1,57 @@
+package com.reactivespring.loadtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "load-test")
+public class LoadTestProperties {
+
+    /**
+     * Requests sent per second over all endpoints, whether or not the previous ones were answered.
+     */
+    private int rate = 200;
+
+    /**
+     * Load sent before the measurement starts, for the JIT, the connection pools and the caches.
+     */
+    private Duration warmup = Duration.ofSeconds(10);
+
+    private Duration duration = Duration.ofSeconds(60);
+
+    private Duration requestTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Requests due while this many are still outstanding are not sent and count as dropped, with the request timeout
+     * as their response time.
+     */
+    private int maxInFlight = 5_000;
+
+    private int movies = 100;
+
+    private int reviewsPerMovie = 5;
+
+    private String mongoVersion = "4.0.21";
+
+    private Path reportDir = Paths.get("build", "reports", "load-test");
+
+    /**
+     * How every service is started, by service.
+     */
+    private Map<Service, ServiceSpec> services = new EnumMap<>(Map.of(Service.MOVIES_INFO, new ServiceSpec(),
+                                                                      Service.MOVIES_REVIEW, new ServiceSpec(),
+                                                                      Service.MOVIES, new ServiceSpec()));
+
+    /**
+     * The endpoints the load is spread over, by name.
+     */
+    private Map<String, EndpointSpec> endpoints = new LinkedHashMap<>();
+}
@@ -0,0 +1,86 @@
+package com.reactivespring.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.HdrHistogram.Histogram;
+
+/**
+ * One line per endpoint with its throughput and its coordinated omission corrected latency percentiles, plus the
+ * p99 without the correction:
+ * <pre>
+ * endpoint       requests  errors  dropped  throughput/s   p50 ms   p99 ms  p99.9 ms   max ms  p99 sent ms
+ * movie              9600       0        0         159.9     2.41    11.73     25.17    31.02         9.80
+ * </pre>
+ * Failed and dropped requests are in the latency percentiles, see {@link EndpointStats}, and a run that dropped
+ * requests ends with a warning line, its percentiles are then lower bounds.
+ * <p>
+ * The table goes to {@code report.txt} in the report directory, next to the full corrected percentile distribution of
+ * every endpoint as {@code <endpoint>.hgrm}, in milliseconds, which the HdrHistogram plotter reads.
+ */
+public class LoadTestReport {
+
+    private static final String HEADER = String.format("%-14s %9s %7s %8s %13s %8s %8s %9s %8s %12s",
+                                                       "endpoint", "requests", "errors", "dropped", "throughput/s",
+                                                       "p50 ms", "p99 ms", "p99.9 ms", "max ms", "p99 sent ms");
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final LoadResult result;
+
+    public LoadTestReport(LoadResult result) {
+        this.result = result;
+    }
+
+    public List<String> lines() {
+        double elapsedSeconds = result.getElapsed().toNanos() / 1e9;
+
+        List<String> lines = new ArrayList<>();
+        lines.add(HEADER);
+        for (Map.Entry<String, EndpointStats> entry : result.getStatsByEndpoint().entrySet()) {
+            EndpointStats stats = entry.getValue();
+            Histogram responseTimes = stats.getResponseTimes();
+
+            long errors = stats.getErrors().sum();
+            long dropped = stats.getDropped().sum();
+            long completed = stats.getCompleted().sum();
+
+            lines.add(String.format("%-14s %9d %7d %8d %13.1f %8.2f %8.2f %9.2f %8.2f %12.2f",
+                                    entry.getKey(), completed + errors + dropped, errors, dropped,
+                                    completed / elapsedSeconds,
+                                    millis(responseTimes.getValueAtPercentile(50)),
+                                    millis(responseTimes.getValueAtPercentile(99)),
+                                    millis(responseTimes.getValueAtPercentile(99.9)),
+                                    millis(responseTimes.getMaxValue()),
+                                    millis(stats.getServiceTimes().getValueAtPercentile(99))));
+        }
+
+        long dropped = result.getStatsByEndpoint().values().stream()
+                             .mapToLong(stats -> stats.getDropped().sum())
+                             .sum();
+        if (dropped > 0) {
+            lines.add(String.format("WARNING: %d requests dropped at loadTest.maxInFlight, the system under test did not keep up "
+                                    + "with the rate and the percentiles are lower bounds", dropped));
+        }
+        return lines;
+    }
+
+    public void write(Path reportDir) throws IOException {
+        Files.write(reportDir.resolve("report.txt"), lines());
+
+        for (Map.Entry<String, EndpointStats> entry : result.getStatsByEndpoint().entrySet()) {
+            try (PrintStream out = new PrintStream(Files.newOutputStream(reportDir.resolve(entry.getKey() + ".hgrm")))) {
+                entry.getValue().getResponseTimes().outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+    }
+
+    private static double millis(long micros) {
+        return micros / MICROS_PER_MILLI;
+    }
+}
@@ -0,0 +1,106 @@
+package com.reactivespring.loadtest;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Boots movies-review-service and movies-info-service on an embedded Mongo, the latter with its rating updater
+ * following the review stream of the former, and movies-service in front of them, seeds
+ * {@code loadTest.movies} movies with their reviews, then warms up and measures with the {@link LoadGenerator}.
+ * Everything runs on the local machine, nothing but the JDK and the Mongo binaries is needed.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class LoadTestRunner implements CommandLineRunner {
+
+    private final LoadTestProperties properties;
+    private final LoadGenerator loadGenerator;
+    private final WebClient loadTestWebClient;
+
+    @Override
+    public void run(String... args) throws Exception {
+        Files.createDirectories(properties.getReportDir());
+
+        try (EmbeddedMongo mongo = EmbeddedMongo.start(properties.getMongoVersion());
+             ServiceProcess moviesReview = start(Service.MOVIES_REVIEW, "movies-review-service",
+                                                 "--spring.data.mongodb.uri=" + mongo.uri("movies-review"));
+             ServiceProcess moviesInfo = start(Service.MOVIES_INFO, "movies-info-service",
+                                               "--spring.data.mongodb.uri=" + mongo.uri("movies-info"),
+                                               "--movieInfos.ratings.enabled=true",
+                                               "--movieInfos.ratings.reviewsStreamUrl=" + moviesReview.url("/v1/reviews/stream"));
+             ServiceProcess movies = start(Service.MOVIES, "movies-service",
+                                           "--restClient.moviesInfoUrl=" + moviesInfo.url("/v1/movieinfos"),
+                                           "--restClient.reviewsUrl=" + moviesReview.url("/v1/reviews"))) {
+
+            moviesInfo.awaitHealthy(loadTestWebClient, properties.getServices().get(Service.MOVIES_INFO).getStartupTimeout());
+            moviesReview.awaitHealthy(loadTestWebClient, properties.getServices().get(Service.MOVIES_REVIEW).getStartupTimeout());
+            movies.awaitHealthy(loadTestWebClient, properties.getServices().get(Service.MOVIES).getStartupTimeout());
+
+            seed(moviesInfo, moviesReview);
+
+            Map<Service, String> baseUrls = new EnumMap<>(Service.class);
+            baseUrls.put(Service.MOVIES_INFO, moviesInfo.url(""));
+            baseUrls.put(Service.MOVIES_REVIEW, moviesReview.url(""));
+            baseUrls.put(Service.MOVIES, movies.url(""));
+
+            log.info("Warming up for {} at {} requests/s", properties.getWarmup(), properties.getRate());
+            loadGenerator.run(baseUrls, properties.getWarmup());
+
+            log.info("Measuring for {} at {} requests/s", properties.getDuration(), properties.getRate());
+            LoadTestReport report = new LoadTestReport(loadGenerator.run(baseUrls, properties.getDuration()));
+
+            report.lines().forEach(log::info);
+            report.write(properties.getReportDir());
+            log.info("Report written to {}", properties.getReportDir().toAbsolutePath());
+        }
+    }
+
+    private ServiceProcess start(Service service, String name, String... args) throws Exception {
+        return ServiceProcess.start(name, properties.getServices().get(service), properties.getReportDir(), args);
+    }
+
+    /**
+     * Movie infos with the ids 1 to {@code loadTest.movies}, so the same ids work as movie info ids and as the numeric
+     * movie info ids of the reviews.
+     */
+    private void seed(ServiceProcess moviesInfo, ServiceProcess moviesReview) {
+        String movieInfos = IntStream.rangeClosed(1, properties.getMovies())
+                                     .mapToObj(id -> String.format("{\"id\": \"%d\", \"name\": \"Movie %d\", \"year\": %d, "
+                                                                   + "\"cast\": [\"Actor %d\", \"Actress %d\"], \"releaseDate\": \"2005-06-15\"}",
+                                                                   id, id, 1950 + id % 70, id, id))
+                                     .collect(Collectors.joining("\n"));
+        String reviews = IntStream.rangeClosed(1, properties.getMovies())
+                                  .boxed()
+                                  .flatMap(id -> IntStream.range(0, properties.getReviewsPerMovie())
+                                                          .mapToObj(i -> String.format("{\"movieInfoId\": %d, \"comment\": \"Review %d of movie %d\", \"rating\": %d.0}",
+                                                                                       id, i, id, 1 + (id + i) % 10)))
+                                  .collect(Collectors.joining("\n"));
+
+        post(moviesInfo.url("/v1/movieinfos/import"), movieInfos);
+        post(moviesReview.url("/v1/reviews/bulk"), reviews);
+        log.info("Seeded {} movies with {} reviews each", properties.getMovies(), properties.getReviewsPerMovie());
+    }
+
+    private void post(String url, String ndjson) {
+        loadTestWebClient.post()
+                         .uri(url)
+                         .contentType(MediaType.APPLICATION_NDJSON)
+                         .bodyValue(ndjson.getBytes(StandardCharsets.UTF_8))
+                         .retrieve()
+                         .toBodilessEntity()
+                         .block(properties.getRequestTimeout());
+    }
+}
@@ -0,0 +1,7 @@
+package com.reactivespring.loadtest;
+
+public enum Service {
+    MOVIES_INFO,
+    MOVIES_REVIEW,
+    MOVIES
+}
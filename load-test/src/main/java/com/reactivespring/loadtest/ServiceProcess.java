@@ -0,0 +1,84 @@
+package com.reactivespring.loadtest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.web.reactive.function.client.WebClient;
+
+import de.flapdoodle.embed.process.runtime.Network;
+import lombok.extern.slf4j.Slf4j;
+import reactor.util.retry.Retry;
+
+/**
+ * A service running from its boot jar in a JVM of its own, on a free port. The services share the
+ * {@code com.reactivespring} package and class names, they cannot be booted side by side in the load test's JVM.
+ */
+@Slf4j
+public class ServiceProcess implements AutoCloseable {
+
+    private final String name;
+    private final Process process;
+    private final int port;
+
+    private ServiceProcess(String name, Process process, int port) {
+        this.name = name;
+        this.process = process;
+        this.port = port;
+    }
+
+    /**
+     * Starts the service with the given Spring Boot arguments, its output goes to {@code <logDir>/<name>.log}.
+     */
+    public static ServiceProcess start(String name, ServiceSpec spec, Path logDir, String... args) throws IOException {
+        if (spec.getJar() == null) {
+            throw new IllegalStateException(String.format("No jar configured for %s, run the load test through the loadTest Gradle task", name));
+        }
+
+        int port = Network.getFreeServerPort();
+
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(spec.getJvmArgs());
+        command.add("-jar");
+        command.add(spec.getJar().toString());
+        command.add("--server.port=" + port);
+        command.addAll(List.of(args));
+
+        Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                                                     .redirectOutput(logDir.resolve(name + ".log").toFile())
+                                                     .start();
+        log.info("Started {} on port {}", name, port);
+
+        return new ServiceProcess(name, process, port);
+    }
+
+    public String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+
+    public void awaitHealthy(WebClient webClient, Duration timeout) {
+        webClient.get()
+                 .uri(url("/actuator/health"))
+                 .retrieve()
+                 .toBodilessEntity()
+                 .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, Duration.ofMillis(500))
+                                 .filter(error -> process.isAlive()))
+                 .onErrorMap(error -> !process.isAlive(),
+                             error -> new IllegalStateException(String.format("%s exited, see %s.log", name, name), error))
+                 .block(timeout);
+        log.info("{} is up", name);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly();
+        }
+    }
+}
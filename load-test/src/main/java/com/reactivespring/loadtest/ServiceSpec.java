@@ -0,0 +1,24 @@
+package com.reactivespring.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class ServiceSpec {
+
+    /**
+     * The boot jar of the service, passed in by the {@code loadTest} Gradle task.
+     */
+    private Path jar;
+
+    private List<String> jvmArgs = new ArrayList<>(List.of("-Xmx512m"));
+
+    /**
+     * How long the service has to report itself healthy on {@code /actuator/health}.
+     */
+    private Duration startupTimeout = Duration.ofMinutes(2);
+}
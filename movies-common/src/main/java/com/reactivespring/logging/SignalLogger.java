@@ -0,0 +1,101 @@
+package com.reactivespring.logging;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Replaces {@code .log()}, which logs every signal of every subscription. This logs one line per subscription,
+ * when it terminates, and only for a sample of the subscriptions that were slow or failed:
+ * <pre>
+ * moviesInfo.getMovieInfo onComplete after 734 ms, 1 elements
+ * </pre>
+ * Apply it with {@code transformDeferred}, so the sampling decision is made per subscription. Lines go through the
+ * {@code com.reactivespring.logging.SignalLogger} logger: setting it to {@code OFF} through
+ * {@code /actuator/loggers} turns signal logging off at runtime, as does {@code signal-logging.enabled=false} at
+ * startup. See {@code logback-spring.xml} for the asynchronous appender the lines are written to.
+ */
+@Slf4j
+public class SignalLogger {
+
+    private final SignalLoggingProperties properties;
+
+    public SignalLogger(SignalLoggingProperties properties) {
+        this.properties = properties;
+    }
+
+    public <T> Function<Mono<T>, Mono<T>> mono(String route) {
+        return mono -> {
+            Trace trace = trace(route);
+
+            return trace == null
+                   ? mono
+                   : mono.doOnNext(value -> trace.elements.incrementAndGet())
+                         .doOnError(trace::failed)
+                         .doFinally(trace::finished);
+        };
+    }
+
+    public <T> Function<Flux<T>, Flux<T>> flux(String route) {
+        return flux -> {
+            Trace trace = trace(route);
+
+            return trace == null
+                   ? flux
+                   : flux.doOnNext(value -> trace.elements.incrementAndGet())
+                         .doOnError(trace::failed)
+                         .doFinally(trace::finished);
+        };
+    }
+
+    private Trace trace(String route) {
+        if (!properties.isEnabled() || !log.isInfoEnabled()) {
+            return null;
+        }
+
+        SignalLoggingSpec spec = properties.getRoutes().getOrDefault(route, properties.getDefaults());
+        if (spec.getSampleRate() < 1.0 && ThreadLocalRandom.current().nextDouble() >= spec.getSampleRate()) {
+            return null;
+        }
+
+        return new Trace(route, spec.getLatencyThreshold().toNanos());
+    }
+
+    private static final class Trace {
+
+        private final String route;
+        private final long thresholdNanos;
+        private final long startNanos = System.nanoTime();
+        private final AtomicLong elements = new AtomicLong();
+
+        private volatile Throwable error;
+
+        private Trace(String route, long thresholdNanos) {
+            this.route = route;
+            this.thresholdNanos = thresholdNanos;
+        }
+
+        private void failed(Throwable error) {
+            this.error = error;
+        }
+
+        private void finished(SignalType signalType) {
+            long elapsedNanos = System.nanoTime() - startNanos;
+            if (error == null && elapsedNanos < thresholdNanos) {
+                return;
+            }
+
+            if (error == null) {
+                log.info("{} {} after {} ms, {} elements", route, signalType, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), elements.get());
+            } else {
+                log.info("{} {} after {} ms, {} elements: {}", route, signalType, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), elements.get(), error.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.reactivespring.logging;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "signal-logging")
+public class SignalLoggingProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Applies to every route without an entry in {@link #routes}.
+     */
+    private SignalLoggingSpec defaults = new SignalLoggingSpec();
+
+    /**
+     * Per route overrides, keyed by the route name passed to {@link SignalLogger}.
+     */
+    private Map<String, SignalLoggingSpec> routes = new HashMap<>();
+}
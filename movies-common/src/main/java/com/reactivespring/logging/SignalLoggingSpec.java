@@ -0,0 +1,19 @@
+package com.reactivespring.logging;
+
+import java.time.Duration;
+
+import lombok.Data;
+
+@Data
+public class SignalLoggingSpec {
+
+    /**
+     * Share of the subscriptions that are logged at all, between 0 and 1.
+     */
+    private double sampleRate = 1.0;
+
+    /**
+     * Sampled subscriptions are only logged when they take at least this long or fail.
+     */
+    private Duration latencyThreshold = Duration.ofMillis(500);
+}
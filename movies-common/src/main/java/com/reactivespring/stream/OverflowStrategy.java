@@ -0,0 +1,27 @@
+package com.reactivespring.stream;
+
+/**
+ * What a streaming endpoint does with the events a subscriber is too slow to take.
+ */
+public enum OverflowStrategy {
+
+    /**
+     * Buffer up to {@code bufferSize} events, disconnect the subscriber once the buffer is full.
+     */
+    BUFFER,
+
+    /**
+     * Buffer up to {@code bufferSize} events, drop the oldest buffered event to make room for a new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Only keep the latest event, every event the subscriber did not take in time is dropped.
+     */
+    KEEP_LATEST,
+
+    /**
+     * Like {@link #DROP_OLDEST}, but disconnect the subscriber after {@code maxDroppedEvents} dropped events.
+     */
+    DISCONNECT
+}
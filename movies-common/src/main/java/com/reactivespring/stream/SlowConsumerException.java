@@ -0,0 +1,8 @@
+package com.reactivespring.stream;
+
+public class SlowConsumerException extends RuntimeException {
+
+    public SlowConsumerException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package com.reactivespring.stream;
+
+import lombok.Data;
+
+@Data
+public class SlowConsumerSpec {
+
+    private OverflowStrategy overflowStrategy = OverflowStrategy.BUFFER;
+
+    /**
+     * Events held per subscriber while it is not keeping up, ignored by {@link OverflowStrategy#KEEP_LATEST}.
+     */
+    private int bufferSize = 1024;
+
+    /**
+     * Dropped events after which a subscriber is disconnected, only used by {@link OverflowStrategy#DISCONNECT}.
+     */
+    private long maxDroppedEvents = 1000;
+}
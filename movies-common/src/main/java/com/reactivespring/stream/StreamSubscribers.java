@@ -0,0 +1,144 @@
+package com.reactivespring.stream;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Applies the slow consumer policy of one streaming endpoint to each of its subscribers and exports their metrics.
+ * <p>
+ * Every subscriber gets its own bounded buffer between the shared event source and the connection, so a subscriber
+ * that does not keep up can no longer make the source hold events for it. Each subscriber tracks its lag (events
+ * buffered but not yet written) and the events dropped for it. Exported, tagged with the endpoint:
+ * {@code stream.subscribers} and {@code stream.subscribers.lag.max} gauges, {@code stream.events.emitted},
+ * {@code stream.events.dropped} and {@code stream.subscribers.disconnected} counters, and
+ * {@code stream.subscriber.dropped.events}, the events dropped per subscriber once it goes away.
+ */
+@Slf4j
+public class StreamSubscribers {
+
+    private final String endpoint;
+    private final SlowConsumerSpec spec;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final Counter emittedEvents;
+    private final Counter droppedEvents;
+    private final Counter disconnectedSubscribers;
+    private final DistributionSummary droppedEventsPerSubscriber;
+
+    public StreamSubscribers(String endpoint, SlowConsumerSpec spec, MeterRegistry meterRegistry) {
+        this.endpoint = endpoint;
+        this.spec = spec;
+
+        Gauge.builder("stream.subscribers", subscribers, Set::size)
+             .description("Live subscribers")
+             .tag("endpoint", endpoint)
+             .register(meterRegistry);
+        Gauge.builder("stream.subscribers.lag.max", this, StreamSubscribers::maxLag)
+             .description("Events buffered for the subscriber that is furthest behind")
+             .tag("endpoint", endpoint)
+             .register(meterRegistry);
+        this.emittedEvents = Counter.builder("stream.events.emitted")
+                                    .description("Events written to subscribers")
+                                    .tag("endpoint", endpoint)
+                                    .register(meterRegistry);
+        this.droppedEvents = Counter.builder("stream.events.dropped")
+                                    .description("Events dropped because a subscriber did not keep up")
+                                    .tag("endpoint", endpoint)
+                                    .register(meterRegistry);
+        this.disconnectedSubscribers = Counter.builder("stream.subscribers.disconnected")
+                                              .description("Subscribers disconnected because they did not keep up")
+                                              .tag("endpoint", endpoint)
+                                              .register(meterRegistry);
+        this.droppedEventsPerSubscriber = DistributionSummary.builder("stream.subscriber.dropped.events")
+                                                             .description("Events dropped per subscriber over its lifetime")
+                                                             .tag("endpoint", endpoint)
+                                                             .register(meterRegistry);
+    }
+
+    public <T> Flux<T> subscribe(Flux<T> events) {
+        return Flux.defer(() -> {
+            Subscriber subscriber = new Subscriber();
+            subscribers.add(subscriber);
+
+            return withOverflowStrategy(events.doOnNext(event -> subscriber.lag.incrementAndGet()), subscriber)
+                    .takeUntilOther(subscriber.disconnect.asMono())
+                    .concatWith(Mono.defer(() -> subscriber.disconnected
+                                                 ? Mono.error(new SlowConsumerException("Subscriber of " + endpoint + " did not keep up"))
+                                                 : Mono.empty()))
+                    .doOnNext(event -> {
+                        subscriber.lag.decrementAndGet();
+                        emittedEvents.increment();
+                    })
+                    .doFinally(signalType -> {
+                        subscribers.remove(subscriber);
+                        droppedEventsPerSubscriber.record(subscriber.dropped.get());
+                    });
+        });
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private <T> Flux<T> withOverflowStrategy(Flux<T> events, Subscriber subscriber) {
+        switch (spec.getOverflowStrategy()) {
+            case DROP_OLDEST:
+                return events.onBackpressureBuffer(spec.getBufferSize(), dropped -> subscriber.dropped(), BufferOverflowStrategy.DROP_OLDEST);
+            case KEEP_LATEST:
+                return events.onBackpressureBuffer(1, dropped -> subscriber.dropped(), BufferOverflowStrategy.DROP_OLDEST);
+            case DISCONNECT:
+                return events.onBackpressureBuffer(spec.getBufferSize(), dropped -> {
+                    if (subscriber.dropped() > spec.getMaxDroppedEvents()) {
+                        subscriber.disconnect();
+                    }
+                }, BufferOverflowStrategy.DROP_OLDEST);
+            default:
+                return events.onBackpressureBuffer(spec.getBufferSize(), dropped -> {
+                    subscriber.dropped();
+                    subscriber.disconnect();
+                }, BufferOverflowStrategy.DROP_LATEST);
+        }
+    }
+
+    private long maxLag() {
+        return subscribers.stream()
+                          .mapToLong(subscriber -> subscriber.lag.get())
+                          .max()
+                          .orElse(0);
+    }
+
+    private final class Subscriber {
+
+        private final AtomicLong lag = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private final Sinks.Empty<Void> disconnect = Sinks.empty();
+
+        private volatile boolean disconnected;
+
+        private long dropped() {
+            lag.decrementAndGet();
+            droppedEvents.increment();
+            return dropped.incrementAndGet();
+        }
+
+        private void disconnect() {
+            if (!disconnected) {
+                disconnected = true;
+                disconnectedSubscribers.increment();
+                log.warn("Disconnecting a subscriber of {}: {} events behind, {} dropped", endpoint, lag.get(), dropped.get());
+                disconnect.tryEmitEmpty();
+            }
+        }
+    }
+}
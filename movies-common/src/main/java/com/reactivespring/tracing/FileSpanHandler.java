@@ -0,0 +1,23 @@
+package com.reactivespring.tracing;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Exports finished spans without a tracing backend: one Zipkin v2 JSON span per line through this class's logger,
+ * which {@code logback-spring.xml} writes to {@code tracing.spans.file} from a background thread. Only sampled spans
+ * get here, setting the logger to {@code OFF} through {@code /actuator/loggers} stops the export at runtime.
+ */
+@Slf4j
+public class FileSpanHandler extends SpanHandler {
+
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (cause != Cause.ABANDONED && log.isInfoEnabled()) {
+            log.info(span.toString());
+        }
+        return true;
+    }
+}
@@ -0,0 +1,129 @@
+package com.reactivespring.util;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Optional;
+
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.ChangeStreamEvent;
+import org.springframework.data.mongodb.core.ChangeStreamOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Feeds an {@link EventReplayBuffer} from a MongoDB change stream, so every instance sees the inserts made by all
+ * instances and not only its own. Needs a replica set.
+ * <p>
+ * Each instance opens a single change stream per collection, the buffer multicasts it to all local subscribers.
+ * The resume token of the last event is saved at most every {@code resumeTokenSaveInterval}, a restarted or
+ * reconnected feed continues from there (at least once, the events after the last saved token are published again).
+ * When the token is too old for the oplog it is dropped and the feed starts over from the current time.
+ * <p>
+ * The token is saved under the {@code feedName}, which must be unique per instance: a token saved by another
+ * instance may be past events this one never published.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ChangeStreamFeed<T> {
+
+    static final String RESUME_TOKEN_COLLECTION = "changeStreamResumeToken";
+
+    // ChangeStreamHistoryLost, the resume token is no longer in the oplog
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final String collectionName;
+    private final String feedName;
+    private final Class<T> type;
+    private final EventReplayBuffer<T> eventReplayBuffer;
+    private final Duration resumeTokenSaveInterval;
+
+    private Disposable subscription;
+
+    public void start() {
+        subscription = Flux.defer(() -> resumeToken().map(Optional::of)
+                                                     .defaultIfEmpty(Optional.empty())
+                                                     .flatMapMany(this::changes))
+                           .doOnNext(event -> eventReplayBuffer.publish(event.getBody()))
+                           .map(ChangeStreamEvent::getResumeToken)
+                           .sample(resumeTokenSaveInterval)
+                           .concatMap(resumeToken -> saveResumeToken(resumeToken).thenReturn(resumeToken))
+                           .onErrorResume(ChangeStreamFeed::isHistoryLost,
+                                          e -> {
+                                              log.warn("Resume token of the {} change stream is too old, starting over", feedName);
+                                              return deleteResumeToken().then(Mono.error(e));
+                                          })
+                           .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                                           .maxBackoff(Duration.ofSeconds(30))
+                                           // back to the shortest backoff once a resume token was saved again
+                                           .transientErrors(true)
+                                           .doBeforeRetry(retry -> log.warn("{} change stream failed, reconnecting", feedName, retry.failure())))
+                           .subscribe();
+    }
+
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    /**
+     * The last saved resume token, empty before the first event was saved.
+     */
+    public Mono<BsonDocument> resumeToken() {
+        return reactiveMongoTemplate.getCollection(RESUME_TOKEN_COLLECTION)
+                                    .flatMap(collection -> Mono.from(collection.find(Filters.eq("_id", feedName)).first()))
+                                    .map(document -> document.get("token", Document.class)
+                                                             .toBsonDocument(BsonDocument.class, MongoClientSettings.getDefaultCodecRegistry()));
+    }
+
+    private Flux<ChangeStreamEvent<T>> changes(Optional<BsonDocument> resumeToken) {
+        ChangeStreamOptions.ChangeStreamOptionsBuilder options = ChangeStreamOptions.builder()
+                                                                                    .filter(Aggregation.newAggregation(Aggregation.match(where("operationType").is("insert"))));
+        resumeToken.ifPresent(options::resumeAfter);
+
+        return reactiveMongoTemplate.changeStream(collectionName, options.build(), type);
+    }
+
+    private Mono<Void> saveResumeToken(BsonValue resumeToken) {
+        Document document = new Document("_id", feedName).append("collection", collectionName)
+                                                         .append("token", resumeToken)
+                                                         .append("updatedAt", new Date());
+
+        return reactiveMongoTemplate.getCollection(RESUME_TOKEN_COLLECTION)
+                                    .flatMap(collection -> Mono.from(collection.replaceOne(Filters.eq("_id", feedName), document,
+                                                                                           new ReplaceOptions().upsert(true))))
+                                    .then();
+    }
+
+    private Mono<Void> deleteResumeToken() {
+        return reactiveMongoTemplate.getCollection(RESUME_TOKEN_COLLECTION)
+                                    .flatMap(collection -> Mono.from(collection.deleteOne(Filters.eq("_id", feedName))))
+                                    .then();
+    }
+
+    private static boolean isHistoryLost(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoCommandException && ((MongoCommandException) cause).getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,86 @@
+package com.reactivespring.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.http.HttpHeaders;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * One page of a keyset (seek) paginated query over {@code _id}.
+ * <p>
+ * The next page starts right after the last returned id instead of skipping the previous pages, so any page costs
+ * the same single index range scan. The id is handed to the client as an opaque cursor in the
+ * {@value #NEXT_CURSOR_HEADER} response header, which is absent on the last page.
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class CursorPage<T> {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final List<T> items;
+
+    private final String nextCursor;
+
+    /**
+     * @param fetched up to {@code pageSize + 1} items in id order, the extra item only tells whether a next page exists
+     */
+    public static <T> CursorPage<T> of(List<T> fetched, int pageSize, Function<T, String> idFunction) {
+        if (fetched.size() <= pageSize) {
+            return new CursorPage<>(fetched, null);
+        }
+
+        List<T> items = fetched.subList(0, pageSize);
+        return new CursorPage<>(items, encodeCursor(idFunction.apply(items.get(pageSize - 1))));
+    }
+
+    public HttpHeaders headers() {
+        HttpHeaders headers = new HttpHeaders();
+        if (nextCursor != null) {
+            headers.set(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return headers;
+    }
+
+    public static int pageSize(Integer requested, int defaultPageSize, int maxPageSize) {
+        return requested == null || requested <= 0
+               ? defaultPageSize
+               : Math.min(requested, maxPageSize);
+    }
+
+    public static String encodeCursor(String id) {
+        return Base64.getUrlEncoder()
+                     .withoutPadding()
+                     .encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encodeCursor(String)}
+     */
+    public static String decodeCursor(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Matches the ids sorting after {@code lastId}. Ids that are valid ObjectId hex strings are stored as ObjectIds,
+     * which sort after every string id, and Mongo only compares values of the same type, so string ids need both
+     * branches.
+     */
+    public static Criteria idAfter(String lastId) {
+        return ObjectId.isValid(lastId)
+               ? where("_id").gt(new ObjectId(lastId))
+               : new Criteria().orOperator(where("_id").gt(lastId),
+                                           where("_id").type(JsonSchemaObject.Type.objectIdType()));
+    }
+}
@@ -0,0 +1,179 @@
+package com.reactivespring.util;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.codec.ServerSentEvent;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.Value;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Bounded replay of published values as server-sent events, so clients can resume with {@code Last-Event-ID}.
+ * <p>
+ * Every value gets the next number of a monotonically increasing sequence, its id is {@code <run>-<sequence>}, see
+ * {@link EventId}. The run is the time the buffer was created, so an id issued before a restart or by another instance
+ * is never taken for one of this buffer, however far the sequence has gone since. The last {@code maxEvents} events
+ * that are younger than {@code retention} are kept, older ones are dropped. A client resuming from an id that is no
+ * longer retained, or from an id of another run, first gets a {@value #RESYNC_EVENT} event without data: the events
+ * in between are lost, the client has to reload the full state and then apply the events that follow. The resync
+ * event carries an id too, so resuming right after it does not resync again. Whether a resync is needed is decided
+ * when the client subscribes, from the publish times of the retained events, so it is sent right away and not only
+ * with the next published event.
+ */
+public class EventReplayBuffer<T> {
+
+    public static final String RESYNC_EVENT = "resync";
+
+    private final Sinks.Many<Event<T>> events;
+
+    // the sink evicts by the clock of its scheduler, the publish times are taken from the same one
+    private final Scheduler clock = Schedulers.parallel();
+
+    private final long retentionMillis;
+
+    private final long run = System.currentTimeMillis();
+
+    // publish time of the event with id n at n % maxEvents, covers every event the sink can still retain
+    private final long[] publishedAt;
+
+    private long lastSequence;
+
+    public EventReplayBuffer(int maxEvents, Duration retention) {
+        this.events = Sinks.many().replay().limit(maxEvents, retention, clock);
+        this.retentionMillis = retention.toMillis();
+        this.publishedAt = new long[maxEvents];
+    }
+
+    public synchronized void publish(T value) {
+        // sequence numbers are assigned and emitted under the same lock, so subscribers always see them in increasing order
+        long sequence = ++lastSequence;
+        publishedAt[(int) (sequence % publishedAt.length)] = clock.now(TimeUnit.MILLISECONDS);
+        events.tryEmitNext(new Event<>(new EventId(run, sequence), value));
+    }
+
+    /**
+     * The id of the last published event, sequence 0 before the first one.
+     */
+    public synchronized EventId lastEventId() {
+        return new EventId(run, lastSequence);
+    }
+
+    /**
+     * @param lastEventId the id of the last event the client got, or null to start from the latest retained event
+     * @throws IllegalArgumentException when {@code lastEventId} is not an event id
+     */
+    public Flux<ServerSentEvent<T>> events(String lastEventId) {
+        EventId resumeFrom = lastEventId != null ? EventId.parse(lastEventId) : null;
+
+        return Flux.defer(() -> {
+            long currentSequence = lastEventId().getSequence();
+
+            if (resumeFrom == null) {
+                return events.asFlux()
+                             .filter(event -> event.getSequence() >= currentSequence)
+                             .map(Event::toServerSentEvent);
+            }
+
+            if (resumeFrom.getRun() != run || resumeFrom.getSequence() > currentSequence) {
+                return events.asFlux()
+                             .filter(event -> event.getSequence() > currentSequence)
+                             .map(Event::toServerSentEvent)
+                             .startWith(resync(currentSequence));
+            }
+
+            // resyncs right away when the events after lastEventId are gone already
+            long resumeAfter = Math.max(resumeFrom.getSequence(), oldestSequence() - 1);
+            Flux<ServerSentEvent<T>> resumed = events.asFlux()
+                                                     .filter(event -> event.getSequence() > resumeAfter)
+                                                     .switchOnFirst((first, replayed) -> {
+                                                         Flux<ServerSentEvent<T>> serverSentEvents = replayed.map(Event::toServerSentEvent);
+
+                                                         // more events may be evicted before the replay reaches the client
+                                                         return first.hasValue() && first.get().getSequence() > resumeAfter + 1
+                                                                ? serverSentEvents.startWith(resync(first.get().getSequence() - 1))
+                                                                : serverSentEvents;
+                                                     });
+
+            return resumeAfter > resumeFrom.getSequence() ? resumed.startWith(resync(resumeAfter)) : resumed;
+        });
+    }
+
+    /**
+     * Only the values, for clients that do not resume. A resync never happens without a {@code lastEventId}.
+     */
+    public Flux<T> values() {
+        return events(null).map(ServerSentEvent::data);
+    }
+
+    // the sequence number of the oldest event still retained, lastSequence + 1 when there is none
+    private synchronized long oldestSequence() {
+        long oldestSequence = Math.max(1, lastSequence - publishedAt.length + 1);
+        long expiredBefore = clock.now(TimeUnit.MILLISECONDS) - retentionMillis;
+        while (oldestSequence <= lastSequence && publishedAt[(int) (oldestSequence % publishedAt.length)] < expiredBefore) {
+            oldestSequence++;
+        }
+        return oldestSequence;
+    }
+
+    private ServerSentEvent<T> resync(long sequence) {
+        return ServerSentEvent.<T>builder()
+                              .id(new EventId(run, sequence).toString())
+                              .event(RESYNC_EVENT)
+                              .build();
+    }
+
+    /**
+     * An event id, {@code <run>-<sequence>}. Ids without a run, as issued before the ids had one, parse with run 0.
+     */
+    @Value
+    public static class EventId {
+
+        long run;
+
+        long sequence;
+
+        public static EventId parse(String eventId) {
+            int separator = eventId.indexOf('-');
+            return separator < 0
+                   ? new EventId(0, Long.parseLong(eventId))
+                   : new EventId(Long.parseLong(eventId.substring(0, separator)), Long.parseLong(eventId.substring(separator + 1)));
+        }
+
+        /**
+         * The id of the event {@code count} events before this one in the same run.
+         */
+        public EventId minus(long count) {
+            return new EventId(run, sequence - count);
+        }
+
+        @Override
+        public String toString() {
+            return run + "-" + sequence;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Event<T> {
+
+        private final EventId id;
+
+        private final T value;
+
+        long getSequence() {
+            return id.getSequence();
+        }
+
+        ServerSentEvent<T> toServerSentEvent() {
+            return ServerSentEvent.builder(value)
+                                  .id(id.toString())
+                                  .build();
+        }
+    }
+}
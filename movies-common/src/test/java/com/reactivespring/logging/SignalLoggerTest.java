@@ -0,0 +1,99 @@
+package com.reactivespring.logging;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class SignalLoggerTest {
+
+    private final Logger logger = (Logger) LoggerFactory.getLogger(SignalLogger.class);
+
+    private SignalLoggingProperties properties;
+    private SignalLogger signalLogger;
+    private ListAppender<ILoggingEvent> appender;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SignalLoggingProperties();
+        properties.getDefaults().setLatencyThreshold(Duration.ofMillis(50));
+        signalLogger = new SignalLogger(properties);
+
+        appender = new ListAppender<>();
+        appender.start();
+        logger.addAppender(appender);
+        logger.setLevel(Level.INFO);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logger.detachAppender(appender);
+        logger.setLevel(null);
+    }
+
+    @Test
+    void fastSubscriptions_areNotLogged() {
+        StepVerifier.create(Flux.just(1, 2, 3).transformDeferred(signalLogger.flux("test")))
+                    .expectNext(1, 2, 3)
+                    .verifyComplete();
+
+        assertEquals(0, appender.list.size());
+    }
+
+    @Test
+    void slowSubscriptions_areLoggedOnce() {
+        StepVerifier.create(Mono.just(1).delayElement(Duration.ofMillis(100)).transformDeferred(signalLogger.mono("test")))
+                    .expectNext(1)
+                    .verifyComplete();
+
+        List<ILoggingEvent> events = appender.list;
+        assertEquals(1, events.size());
+        assertTrue(events.get(0).getFormattedMessage().startsWith("test onComplete after "));
+        assertTrue(events.get(0).getFormattedMessage().endsWith(", 1 elements"));
+    }
+
+    @Test
+    void errors_areLoggedRegardlessOfLatency() {
+        StepVerifier.create(Mono.error(new IllegalStateException("boom")).transformDeferred(signalLogger.mono("test")))
+                    .verifyError(IllegalStateException.class);
+
+        assertEquals(1, appender.list.size());
+        assertTrue(appender.list.get(0).getFormattedMessage().endsWith("java.lang.IllegalStateException: boom"));
+    }
+
+    @Test
+    void routeSampleRate_overridesTheDefault() {
+        SignalLoggingSpec unsampled = new SignalLoggingSpec();
+        unsampled.setSampleRate(0);
+        properties.getRoutes().put("unsampled", unsampled);
+
+        StepVerifier.create(Mono.error(new IllegalStateException("boom")).transformDeferred(signalLogger.mono("unsampled")))
+                    .verifyError(IllegalStateException.class);
+
+        assertEquals(0, appender.list.size());
+    }
+
+    @Test
+    void loggerTurnedOff_disablesSignalLogging() {
+        logger.setLevel(Level.OFF);
+
+        StepVerifier.create(Mono.error(new IllegalStateException("boom")).transformDeferred(signalLogger.mono("test")))
+                    .verifyError(IllegalStateException.class);
+
+        assertEquals(0, appender.list.size());
+    }
+}
@@ -0,0 +1,112 @@
+package com.reactivespring.stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class StreamSubscribersTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SlowConsumerSpec spec;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        spec = new SlowConsumerSpec();
+        spec.setBufferSize(3);
+        spec.setMaxDroppedEvents(2);
+    }
+
+    @Test
+    void buffer_disconnectsWhenFull() {
+        spec.setOverflowStrategy(OverflowStrategy.BUFFER);
+
+        StepVerifier.create(subscribers().subscribe(Flux.range(1, 10)), 1)
+                    .expectNext(1)
+                    .expectError(SlowConsumerException.class)
+                    .verify();
+
+        assertEquals(1, counter("stream.events.dropped"));
+        assertEquals(1, counter("stream.subscribers.disconnected"));
+    }
+
+    @Test
+    void dropOldest_keepsTheNewestEvents() {
+        spec.setOverflowStrategy(OverflowStrategy.DROP_OLDEST);
+
+        Sinks.Many<Integer> events = Sinks.many().unicast().onBackpressureBuffer();
+
+        StepVerifier.create(subscribers().subscribe(events.asFlux()), 0)
+                    .then(() -> publish(events, 10))
+                    .thenRequest(Long.MAX_VALUE)
+                    .expectNext(8, 9, 10)
+                    .thenCancel()
+                    .verify();
+
+        assertEquals(7, counter("stream.events.dropped"));
+        assertEquals(3, counter("stream.events.emitted"));
+        assertEquals(0, counter("stream.subscribers.disconnected"));
+    }
+
+    @Test
+    void keepLatest_keepsOnlyTheLatestEvent() {
+        spec.setOverflowStrategy(OverflowStrategy.KEEP_LATEST);
+
+        Sinks.Many<Integer> events = Sinks.many().unicast().onBackpressureBuffer();
+
+        StepVerifier.create(subscribers().subscribe(events.asFlux()), 0)
+                    .then(() -> publish(events, 10))
+                    .thenRequest(Long.MAX_VALUE)
+                    .expectNext(10)
+                    .thenCancel()
+                    .verify();
+
+        assertEquals(9, counter("stream.events.dropped"));
+    }
+
+    @Test
+    void disconnect_afterTooManyDroppedEvents() {
+        spec.setOverflowStrategy(OverflowStrategy.DISCONNECT);
+
+        StepVerifier.create(subscribers().subscribe(Flux.range(1, 10)), 1)
+                    .expectNext(1)
+                    .expectError(SlowConsumerException.class)
+                    .verify();
+
+        assertEquals(3, counter("stream.events.dropped"));
+        assertEquals(1, counter("stream.subscribers.disconnected"));
+    }
+
+    @Test
+    void subscriberCount_followsSubscriptions() {
+        StreamSubscribers subscribers = subscribers();
+
+        StepVerifier.create(subscribers.subscribe(Flux.never()))
+                    .then(() -> assertEquals(1, subscribers.subscriberCount()))
+                    .thenCancel()
+                    .verify();
+
+        assertEquals(0, subscribers.subscriberCount());
+        assertEquals(0, meterRegistry.get("stream.subscribers").gauge().value());
+    }
+
+    private StreamSubscribers subscribers() {
+        return new StreamSubscribers("test", spec, meterRegistry);
+    }
+
+    private void publish(Sinks.Many<Integer> events, int count) {
+        for (int event = 1; event <= count; event++) {
+            events.tryEmitNext(event);
+        }
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).counter().count();
+    }
+}
@@ -0,0 +1,123 @@
+package com.reactivespring.util;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import com.reactivespring.util.EventReplayBuffer.EventId;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import reactor.test.StepVerifier;
+
+class EventReplayBufferTest {
+
+    @Test
+    void events_resumesAfterLastEventId() {
+        EventReplayBuffer<String> buffer = new EventReplayBuffer<>(10, Duration.ofMinutes(10));
+        buffer.publish("a");
+        buffer.publish("b");
+        EventId lastEventId = buffer.lastEventId();
+
+        StepVerifier.create(buffer.events(lastEventId.minus(1).toString()))
+                    .assertNext(event -> {
+                        assertEquals(lastEventId.toString(), event.id());
+                        assertEquals("b", event.data());
+                    })
+                    .thenCancel()
+                    .verify();
+    }
+
+    @Test
+    void events_evictedEvents_resyncsBeforeTheRetainedOnes() {
+        EventReplayBuffer<String> buffer = new EventReplayBuffer<>(2, Duration.ofMinutes(10));
+        buffer.publish("a");
+        buffer.publish("b");
+        buffer.publish("c");
+        EventId lastEventId = buffer.lastEventId();
+
+        StepVerifier.create(buffer.events(lastEventId.minus(3).toString()))
+                    .assertNext(event -> {
+                        assertEquals(EventReplayBuffer.RESYNC_EVENT, event.event());
+                        assertEquals(lastEventId.minus(2).toString(), event.id());
+                    })
+                    .assertNext(event -> assertEquals("b", event.data()))
+                    .assertNext(event -> assertEquals("c", event.data()))
+                    .thenCancel()
+                    .verify();
+    }
+
+    @Test
+    void events_expiredEvents_resyncsWithoutWaitingForTheNextEvent() throws InterruptedException {
+        EventReplayBuffer<String> buffer = new EventReplayBuffer<>(10, Duration.ofMillis(50));
+        buffer.publish("a");
+        buffer.publish("b");
+        EventId lastEventId = buffer.lastEventId();
+        Thread.sleep(100);
+
+        StepVerifier.create(buffer.events(lastEventId.minus(1).toString()))
+                    .assertNext(event -> {
+                        assertEquals(EventReplayBuffer.RESYNC_EVENT, event.event());
+                        assertEquals(lastEventId.toString(), event.id());
+                    })
+                    .thenCancel()
+                    .verify(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void events_unknownEventId_resyncsToTheLastEvent() {
+        EventReplayBuffer<String> buffer = new EventReplayBuffer<>(10, Duration.ofMinutes(10));
+        buffer.publish("a");
+        EventId lastEventId = buffer.lastEventId();
+
+        StepVerifier.create(buffer.events(lastEventId.minus(-5).toString()))
+                    .assertNext(event -> {
+                        assertEquals(EventReplayBuffer.RESYNC_EVENT, event.event());
+                        assertEquals(lastEventId.toString(), event.id());
+                    })
+                    .thenCancel()
+                    .verify(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void events_restartedAndOvertookTheClientsId_resyncsToTheLastEvent() {
+        EventReplayBuffer<String> buffer = new EventReplayBuffer<>(1_000, Duration.ofMinutes(10));
+        for (int i = 0; i < 200; i++) {
+            buffer.publish("event " + i);
+        }
+        EventId lastEventId = buffer.lastEventId();
+        // the client got up to event 50 of the run before the restart
+        EventId previousRunEventId = new EventId(lastEventId.getRun() - 1, 50);
+
+        StepVerifier.create(buffer.events(previousRunEventId.toString()))
+                    .assertNext(event -> {
+                        assertEquals(EventReplayBuffer.RESYNC_EVENT, event.event());
+                        assertEquals(lastEventId.toString(), event.id());
+                    })
+                    .then(() -> buffer.publish("after the resync"))
+                    .assertNext(event -> assertEquals("after the resync", event.data()))
+                    .thenCancel()
+                    .verify(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void events_eventIdWithoutRun_resyncsToTheLastEvent() {
+        EventReplayBuffer<String> buffer = new EventReplayBuffer<>(10, Duration.ofMinutes(10));
+        buffer.publish("a");
+
+        StepVerifier.create(buffer.events("1"))
+                    .assertNext(event -> {
+                        assertEquals(EventReplayBuffer.RESYNC_EVENT, event.event());
+                        assertEquals(buffer.lastEventId().toString(), event.id());
+                    })
+                    .thenCancel()
+                    .verify(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void events_malformedEventId_throws() {
+        EventReplayBuffer<String> buffer = new EventReplayBuffer<>(10, Duration.ofMinutes(10));
+
+        assertThrows(IllegalArgumentException.class, () -> buffer.events("abc"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.reactivespring.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+
+/**
+ * Records the find commands sent to Mongo, so their query plans can be checked with {@code explain} afterwards.
+ */
+public class QueryPlanRecorder implements CommandListener {
+
+    private static final List<String> QUERY_FIELDS = List.of("filter", "sort", "projection", "skip", "limit");
+
+    private final List<String> findCommands = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (!"find".equals(event.getCommandName())) {
+            return;
+        }
+
+        BsonDocument command = event.getCommand();
+        BsonDocument findCommand = new BsonDocument("find", command.get("find"));
+        QUERY_FIELDS.stream()
+                    .filter(command::containsKey)
+                    .forEach(field -> findCommand.append(field, command.get(field)));
+
+        // the event document is only valid while the listener runs
+        findCommands.add(findCommand.toJson());
+    }
+
+    public void clear() {
+        findCommands.clear();
+    }
+
+    /**
+     * @return the recorded queries whose winning plan scans the whole collection, unfiltered and unsorted queries
+     * aside since reading everything is what they ask for
+     */
+    public List<String> collectionScans(ReactiveMongoTemplate reactiveMongoTemplate) {
+        List<String> collectionScans = new ArrayList<>();
+
+        for (String findCommand : findCommands) {
+            BsonDocument find = BsonDocument.parse(findCommand);
+            if (find.getDocument("filter", new BsonDocument()).isEmpty() && !find.containsKey("sort")) {
+                continue;
+            }
+
+            BsonDocument explain = new BsonDocument("explain", find).append("verbosity", new BsonString("queryPlanner"));
+            Document queryPlan = reactiveMongoTemplate.executeCommand(explain.toJson())
+                                                      .block();
+
+            Document winningPlan = queryPlan.get("queryPlanner", Document.class)
+                                            .get("winningPlan", Document.class);
+            if (hasStage(winningPlan, "COLLSCAN")) {
+                collectionScans.add(findCommand);
+            }
+        }
+
+        return collectionScans;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean hasStage(Document plan, String stage) {
+        if (stage.equals(plan.getString("stage"))) {
+            return true;
+        }
+
+        Document inputStage = plan.get("inputStage", Document.class);
+        if (inputStage != null && hasStage(inputStage, stage)) {
+            return true;
+        }
+
+        List<Document> inputStages = plan.get("inputStages", List.class);
+        return inputStages != null && inputStages.stream().anyMatch(input -> hasStage(input, stage));
+    }
+}
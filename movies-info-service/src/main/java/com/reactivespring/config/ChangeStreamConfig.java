@@ -0,0 +1,34 @@
+package com.reactivespring.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.util.ChangeStreamFeed;
+import com.reactivespring.util.EventReplayBuffer;
+
+/**
+ * With {@code movieInfos.stream.changeStream.enabled} the movie info stream is fed from the change stream of the
+ * movie info collection instead of this instance's own writes, so it carries the movie infos added through any
+ * instance. Every instance saves its resume token under {@code movieInfos.stream.changeStream.instanceId}, the host
+ * name by default.
+ */
+@Configuration
+@ConditionalOnProperty(name = "movieInfos.stream.changeStream.enabled", havingValue = "true")
+public class ChangeStreamConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public ChangeStreamFeed<MovieInfo> movieInfoChangeStreamFeed(ReactiveMongoTemplate reactiveMongoTemplate,
+                                                                 EventReplayBuffer<MovieInfo> movieInfoEvents,
+                                                                 @Value("${movieInfos.stream.changeStream.resumeTokenSaveInterval:1s}") Duration resumeTokenSaveInterval,
+                                                                 @Value("${movieInfos.stream.changeStream.instanceId:${HOSTNAME:local}}") String instanceId) {
+        String collectionName = reactiveMongoTemplate.getCollectionName(MovieInfo.class);
+        return new ChangeStreamFeed<>(reactiveMongoTemplate, collectionName, collectionName + "@" + instanceId, MovieInfo.class,
+                                      movieInfoEvents, resumeTokenSaveInterval);
+    }
+}
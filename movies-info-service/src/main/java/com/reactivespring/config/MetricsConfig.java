@@ -0,0 +1,22 @@
+package com.reactivespring.config;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.context.annotation.Configuration;
+
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Server timers ({@code http.server.requests}) and Mongo driver command timers ({@code mongodb.driver.commands}) come
+ * from the actuator, their percentiles, histogram and SLO buckets are configured under
+ * {@code management.metrics.distribution}. Everything is scraped from {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @PostConstruct
+    public void enableSchedulerMetrics() {
+        // Reactor registers its executors in the global registry, which the actuator registries are added to
+        Schedulers.enableMetrics();
+    }
+}
@@ -0,0 +1,32 @@
+package com.reactivespring.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.reactivespring.service.MovieInfoService;
+import com.reactivespring.service.MovieRatingUpdater;
+
+/**
+ * With {@code movieInfos.ratings.enabled} the rating summary of the movie infos follows the review stream of
+ * movies-review-service, see {@link MovieRatingUpdater}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "movieInfos.ratings.enabled", havingValue = "true")
+public class MovieRatingConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public MovieRatingUpdater movieRatingUpdater(WebClient.Builder webClientBuilder,
+                                                 ReactiveMongoTemplate reactiveMongoTemplate,
+                                                 MovieInfoService movieInfoService,
+                                                 @Value("${movieInfos.ratings.reviewsStreamUrl:http://localhost:8081/v1/reviews/stream}") String reviewsStreamUrl,
+                                                 @Value("${movieInfos.ratings.window:1s}") Duration window,
+                                                 @Value("${movieInfos.ratings.maxBatchSize:1000}") int maxBatchSize) {
+        return new MovieRatingUpdater(webClientBuilder.build(), reactiveMongoTemplate, movieInfoService, reviewsStreamUrl, window, maxBatchSize);
+    }
+}
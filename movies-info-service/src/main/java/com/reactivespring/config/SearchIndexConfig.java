@@ -0,0 +1,33 @@
+package com.reactivespring.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.reactivespring.repository.MovieInfoRepository;
+import com.reactivespring.search.MovieInfoSearchIndex;
+import com.reactivespring.search.MovieInfoSuggester;
+
+/**
+ * The in-memory search index and suggester, they grow with the catalog: without {@code movieInfos.search.enabled}
+ * neither is kept and searches and suggestions find nothing.
+ */
+@Configuration
+@ConditionalOnProperty(name = "movieInfos.search.enabled", havingValue = "true", matchIfMissing = true)
+public class SearchIndexConfig {
+
+    @Bean(initMethod = "load")
+    public MovieInfoSearchIndex movieInfoSearchIndex(MovieInfoRepository movieInfoRepository,
+                                                     @Value("${movieInfos.search.scanBatchSize:1000}") int scanBatchSize,
+                                                     @Value("${movieInfos.search.maxTerms:16}") int maxTerms) {
+        return new MovieInfoSearchIndex(movieInfoRepository, scanBatchSize, maxTerms);
+    }
+
+    @Bean(initMethod = "load")
+    public MovieInfoSuggester movieInfoSuggester(MovieInfoRepository movieInfoRepository,
+                                                 @Value("${movieInfos.search.scanBatchSize:1000}") int scanBatchSize,
+                                                 @Value("${movieInfos.suggest.topK:10}") int topK) {
+        return new MovieInfoSuggester(movieInfoRepository, scanBatchSize, topK);
+    }
+}
@@ -0,0 +1,20 @@
+package com.reactivespring.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.util.EventReplayBuffer;
+
+@Configuration
+public class StreamReplayConfig {
+
+    @Bean
+    public EventReplayBuffer<MovieInfo> movieInfoEvents(@Value("${movieInfos.stream.replay.maxEvents:1000}") int maxEvents,
+                                                        @Value("${movieInfos.stream.replay.retention:10m}") Duration retention) {
+        return new EventReplayBuffer<>(maxEvents, retention);
+    }
+}
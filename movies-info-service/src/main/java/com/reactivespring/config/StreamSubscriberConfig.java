@@ -0,0 +1,25 @@
+package com.reactivespring.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.reactivespring.stream.MovieInfoStreamProperties;
+import com.reactivespring.stream.StreamSubscribers;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@EnableConfigurationProperties(MovieInfoStreamProperties.class)
+public class StreamSubscriberConfig {
+
+    @Bean
+    public StreamSubscribers movieInfoNdjsonSubscribers(MovieInfoStreamProperties streamProperties, MeterRegistry meterRegistry) {
+        return new StreamSubscribers("movieInfos.ndjson", streamProperties.getNdjson(), meterRegistry);
+    }
+
+    @Bean
+    public StreamSubscribers movieInfoEventSubscribers(MovieInfoStreamProperties streamProperties, MeterRegistry meterRegistry) {
+        return new StreamSubscribers("movieInfos.events", streamProperties.getEvents(), meterRegistry);
+    }
+}
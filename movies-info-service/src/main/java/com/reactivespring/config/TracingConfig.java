@@ -0,0 +1,46 @@
+package com.reactivespring.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import com.reactivespring.tracing.FileSpanHandler;
+import com.reactivespring.tracing.RepositorySpans;
+
+import brave.handler.SpanHandler;
+
+/**
+ * Spans come from Spring Cloud Sleuth: a server span per request, continued from the W3C {@code traceparent} header
+ * of the caller, and a span per repository call (see {@link RepositorySpans}). Sleuth is set up in
+ * {@code application.yml} to keep the current span in the Reactor Context only, a request without a
+ * {@code traceparent} header is sampled with {@code spring.sleuth.sampler.probability}.
+ * <p>
+ * movies-info-service and movies-review-service trace their repositories with this same configuration.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    public SpanHandler fileSpanHandler() {
+        return new FileSpanHandler();
+    }
+
+    @Bean
+    public static BeanPostProcessor repositorySpansPostProcessor(ObjectProvider<Tracer> tracer) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport) {
+                    ((RepositoryFactoryBeanSupport<?, ?, ?>) bean).addRepositoryFactoryCustomizer(
+                            repositoryFactory -> repositoryFactory.addRepositoryProxyPostProcessor(
+                                    (proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(
+                                            new RepositorySpans(repositoryInformation.getRepositoryInterface().getSimpleName(), tracer))));
+                }
+                return bean;
+            }
+        };
+    }
+}
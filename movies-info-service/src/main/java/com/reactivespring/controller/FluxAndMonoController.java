@@ -8,27 +8,33 @@ import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.reactivespring.logging.SignalLogger;
+
+import lombok.RequiredArgsConstructor;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
+@RequiredArgsConstructor
 public class FluxAndMonoController {
 
+    private final SignalLogger signalLogger;
+
     @GetMapping("/flux")
     public Flux<Integer> flux(){
         return Flux.just(1, 2, 3)
-                .log();
+                .transformDeferred(signalLogger.flux("flux"));
     }
 
     @GetMapping("/mono")
     public Mono<String> helloWorldMono(){
         return Mono.just("Hello World")
-                   .log();
+                   .transformDeferred(signalLogger.mono("mono"));
     }
 
     @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     public Flux<Long> stream(){
         return Flux.interval(Duration.ofSeconds(1))
-                .log();
+                .transformDeferred(signalLogger.flux("stream"));
     }
 }
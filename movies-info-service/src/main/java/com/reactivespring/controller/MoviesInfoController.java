@@ -1,57 +1,229 @@
 package com.reactivespring.controller;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 import javax.validation.Valid;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebInputException;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.MovieInfoImportResult;
+import com.reactivespring.domain.MovieInfoSuggestion;
+import com.reactivespring.logging.SignalLogger;
 import com.reactivespring.service.MovieInfoService;
+import com.reactivespring.stream.StreamSubscribers;
+import com.reactivespring.util.CursorPage;
+import com.reactivespring.util.EventReplayBuffer;
 
 import lombok.RequiredArgsConstructor;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.publisher.Sinks;
 
 @RestController
 @RequestMapping("/v1")
 @RequiredArgsConstructor
 public class MoviesInfoController {
 
+    private static final byte[] NEWLINE = {'\n'};
+
     private final MovieInfoService movieInfoService;
+    private final ObjectMapper objectMapper;
+    private final EventReplayBuffer<MovieInfo> movieInfoEvents;
+    private final SignalLogger signalLogger;
+
+    // resolved by name, one per streaming endpoint
+    private final StreamSubscribers movieInfoNdjsonSubscribers;
+    private final StreamSubscribers movieInfoEventSubscribers;
+
+    @Value("${movieInfos.page.defaultSize:100}")
+    private int defaultPageSize;
+
+    @Value("${movieInfos.page.maxSize:1000}")
+    private int maxPageSize;
+
+    @Value("${movieInfos.ids.maxSize:100}")
+    private int maxIds;
+
+    @Value("${movieInfos.search.defaultLimit:20}")
+    private int defaultSearchLimit;
+
+    @Value("${movieInfos.search.maxLimit:100}")
+    private int maxSearchLimit;
+
+    @Value("${movieInfos.suggest.defaultLimit:10}")
+    private int defaultSuggestLimit;
 
-    private Sinks.Many<MovieInfo> movieInfoSink = Sinks.many().replay().latest();
+    @Value("${movieInfos.suggest.topK:10}")
+    private int maxSuggestLimit;
+
+    @Value("${movieInfos.export.chunkSize:100}")
+    private int exportChunkSize;
+
+    @Value("${movieInfos.stream.changeStream.enabled:false}")
+    private boolean changeStreamEnabled;
 
     @PostMapping("/movieinfos")
     @ResponseStatus(HttpStatus.CREATED)
     public Mono<MovieInfo> addMovieInfo(@RequestBody @Valid MovieInfo movieInfo) {
         return movieInfoService.addMovie(movieInfo)
-                               .doOnNext(addedMovieInfo -> movieInfoSink.tryEmitNext(addedMovieInfo))
-                               .log();
+                               .doOnNext(this::publishAdded)
+                               .transformDeferred(signalLogger.mono("movieInfos.add"));
+    }
+
+    private void publishAdded(MovieInfo movieInfo) {
+        // the change stream feed publishes the movie infos added through every instance, this one included
+        if (!changeStreamEnabled) {
+            movieInfoEvents.publish(movieInfo);
+        }
     }
 
     @GetMapping(value = "/movieinfos/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
     public Flux<MovieInfo> replayAllAddedMovies() {
-        return movieInfoSink.asFlux();
+        return movieInfoNdjsonSubscribers.subscribe(movieInfoEvents.values());
+    }
+
+    /**
+     * Added movie infos as server-sent events. A client reconnecting with the {@code Last-Event-ID} header resumes
+     * right after that event, see {@link EventReplayBuffer} for when it gets a
+     * {@value EventReplayBuffer#RESYNC_EVENT} event instead.
+     */
+    @GetMapping(value = "/movieinfos/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<MovieInfo>> streamAddedMovieInfoEvents(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        Flux<ServerSentEvent<MovieInfo>> events;
+        try {
+            events = movieInfoEvents.events(lastEventId);
+        } catch (IllegalArgumentException e) {
+            throw new ServerWebInputException("Invalid Last-Event-ID");
+        }
+        return movieInfoEventSubscribers.subscribe(events);
     }
 
 
+    /**
+     * Pages through all movie infos in id order, pass the {@value CursorPage#NEXT_CURSOR_HEADER} header of a response
+     * as {@code cursor} to get the next page.
+     */
     @GetMapping("/movieinfos")
-    public Flux<MovieInfo> getAllMovieInfos(@RequestParam(value = "year", required = false) Integer year) {
-        return year != null
-               ? movieInfoService.getMovieInfosByYear(year).log()
-               : movieInfoService.getAllMovieInfos().log();
+    public Mono<ResponseEntity<List<MovieInfo>>> getAllMovieInfos(@RequestParam(value = "limit", required = false) Integer limit,
+                                                                  @RequestParam(value = "cursor", required = false) String cursor) {
+        int pageSize = CursorPage.pageSize(limit, defaultPageSize, maxPageSize);
+        String lastId = cursor != null ? decodeCursor(cursor) : null;
+
+        return movieInfoService.getMovieInfosPage(lastId, pageSize)
+                               .map(page -> ResponseEntity.ok()
+                                                          .headers(page.headers())
+                                                          .body(page.getItems()))
+                               .transformDeferred(signalLogger.mono("movieInfos.getPage"));
+    }
+
+    private String decodeCursor(String cursor) {
+        try {
+            return CursorPage.decodeCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ServerWebInputException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Loads a catalog streamed as NDJSON, one movie info per line. Movie infos with an id replace the details of the
+     * stored ones, fields left out included, and keep their rating summary. Malformed and invalid lines are reported as
+     * rejected with their line number.
+     */
+    @PostMapping(value = "/movieinfos/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Mono<MovieInfoImportResult> importMovieInfos(@RequestBody Flux<String> lines) {
+        return movieInfoService.importMovieInfos(lines)
+                               .transformDeferred(signalLogger.mono("movieInfos.import"));
+    }
+
+    /**
+     * Dumps the whole catalog as NDJSON. Lines are written {@code movieInfos.export.chunkSize} at a time into one
+     * buffer, so the response is flushed per chunk instead of per movie info.
+     */
+    @GetMapping(value = "/movieinfos/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<DataBuffer> exportMovieInfos(ServerHttpResponse response) {
+        return movieInfoService.exportMovieInfos()
+                               .buffer(exportChunkSize)
+                               .map(movieInfos -> toNdjsonChunk(response.bufferFactory(), movieInfos));
+    }
+
+    private DataBuffer toNdjsonChunk(DataBufferFactory bufferFactory, List<MovieInfo> movieInfos) {
+        DataBuffer chunk = bufferFactory.allocateBuffer();
+        try {
+            for (MovieInfo movieInfo : movieInfos) {
+                chunk.write(objectMapper.writeValueAsBytes(movieInfo))
+                     .write(NEWLINE);
+            }
+            return chunk;
+        } catch (JsonProcessingException e) {
+            DataBufferUtils.release(chunk);
+            throw new IllegalStateException("Could not serialize movie info", e);
+        }
+    }
+
+    /**
+     * Full-text search over the name and cast, best matches first. Terms are matched whole, ignoring case and accents.
+     */
+    @GetMapping("/movieinfos/search")
+    public Flux<MovieInfo> searchMovieInfos(@RequestParam("q") String query,
+                                            @RequestParam(value = "limit", required = false) Integer limit) {
+        return movieInfoService.searchMovieInfos(query, CursorPage.pageSize(limit, defaultSearchLimit, maxSearchLimit))
+                               .transformDeferred(signalLogger.flux("movieInfos.search"));
+    }
+
+    /**
+     * Autocomplete for the search box, one request per keystroke. Answered from memory, at most
+     * {@code movieInfos.suggest.topK} suggestions.
+     */
+    @GetMapping("/movieinfos/suggest")
+    public Flux<MovieInfoSuggestion> suggestMovieInfos(@RequestParam("prefix") String prefix,
+                                                       @RequestParam(value = "limit", required = false) Integer limit) {
+        return movieInfoService.suggestMovieInfos(prefix, CursorPage.pageSize(limit, defaultSuggestLimit, maxSuggestLimit))
+                               .transformDeferred(signalLogger.flux("movieInfos.suggest"));
+    }
+
+    @GetMapping(value = "/movieinfos", params = "year")
+    public Flux<MovieInfo> getMovieInfosByYear(@RequestParam("year") Integer year) {
+        return movieInfoService.getMovieInfosByYear(year)
+                               .transformDeferred(signalLogger.flux("movieInfos.getByYear"));
+    }
+
+    /**
+     * The movie infos with the given ids, at most {@code movieInfos.ids.maxSize} distinct ones per request.
+     */
+    @GetMapping(value = "/movieinfos", params = "ids")
+    public Flux<MovieInfo> getMovieInfosByIds(@RequestParam("ids") List<String> ids) {
+        List<String> distinctIds = ids.stream()
+                                      .distinct()
+                                      .collect(Collectors.toList());
+        if (distinctIds.size() > maxIds) {
+            throw new ServerWebInputException(String.format("At most %d ids are allowed", maxIds));
+        }
+
+        return movieInfoService.getMovieInfosByIds(distinctIds)
+                               .transformDeferred(signalLogger.flux("movieInfos.getByIds"));
     }
 
     @GetMapping("/movieinfos/{id}")
@@ -59,7 +231,7 @@ public class MoviesInfoController {
         return movieInfoService.getMovieInfoById(id)
                                .map(ResponseEntity.ok()::body)
                                .switchIfEmpty(Mono.just(ResponseEntity.notFound().build()))
-                               .log();
+                               .transformDeferred(signalLogger.mono("movieInfos.getById"));
     }
 
     @PutMapping("/movieinfos/{id}")
@@ -67,13 +239,13 @@ public class MoviesInfoController {
         return movieInfoService.updateMovieInfo(id, updatedMovieInfo)
                                .map(ResponseEntity.ok()::body)
                                .switchIfEmpty(Mono.just(ResponseEntity.notFound().build()))
-                               .log();
+                               .transformDeferred(signalLogger.mono("movieInfos.update"));
     }
 
     @DeleteMapping("/movieinfos/{id}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public Mono<Void> deleteMovieInfo(@PathVariable String id) {
         return movieInfoService.deleteMovieInfo(id)
-                               .log();
+                               .transformDeferred(signalLogger.mono("movieInfos.delete"));
     }
 }
@@ -8,8 +8,13 @@ import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -18,12 +23,15 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document
+// year lookups, kept in _id order so they can be paged the same way as the full listing
+@CompoundIndex(name = "year_id", def = "{'year': 1, '_id': 1}")
 public class MovieInfo {
 
     @Id
     private String id;
 
     @NotBlank(message = "movieInfo.name must be present")
+    @Indexed
     private String name;
 
     @NotNull(message = "movieInfo.year must be present")
@@ -34,4 +42,26 @@ public class MovieInfo {
 
     private LocalDate releaseDate;
 
+    /**
+     * Rating summary of the movie's reviews, only ever changed by the {@code $inc} updates of
+     * {@link com.reactivespring.service.MovieRatingUpdater}: read only through the API and left alone by every other
+     * write, as adding a movie info only inserts and updates and imports only replace the details. Reviews
+     * without a rating are counted in {@link #reviewCount} but left out of the average.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long reviewCount;
+
+    @JsonIgnore
+    private long ratingCount;
+
+    @JsonIgnore
+    private double ratingSum;
+
+    public MovieInfo(String id, String name, Integer year, List<String> cast, LocalDate releaseDate) {
+        this(id, name, year, cast, releaseDate, 0, 0, 0);
+    }
+
+    public Double getAverageRating() {
+        return ratingCount == 0 ? null : ratingSum / ratingCount;
+    }
 }
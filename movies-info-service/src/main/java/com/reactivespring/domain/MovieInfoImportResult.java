@@ -0,0 +1,49 @@
+package com.reactivespring.domain;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Summary of a movie info import. Only the first {@value #MAX_REPORTED_ERRORS} errors are kept so the summary stays
+ * small whatever the size of the import.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieInfoImportResult {
+
+    public static final int MAX_REPORTED_ERRORS = 100;
+
+    private long imported;
+
+    private long rejected;
+
+    private List<String> errors = new ArrayList<>();
+
+    public void imported() {
+        imported++;
+    }
+
+    /**
+     * @param line 1-based line of the movie info in the import
+     */
+    public void rejected(long line, String error) {
+        rejected++;
+        if (errors.size() < MAX_REPORTED_ERRORS) {
+            errors.add(String.format("line %d: %s", line, error));
+        }
+    }
+
+    public MovieInfoImportResult add(MovieInfoImportResult other) {
+        imported += other.imported;
+        rejected += other.rejected;
+        other.errors.stream()
+                    .limit(MAX_REPORTED_ERRORS - errors.size())
+                    .forEach(errors::add);
+        return this;
+    }
+}
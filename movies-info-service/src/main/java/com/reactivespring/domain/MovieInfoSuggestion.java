@@ -0,0 +1,30 @@
+package com.reactivespring.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * What the search box shows of a movie info while the user types, small enough to be kept in memory for the whole
+ * catalog.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MovieInfoSuggestion {
+
+    private String id;
+
+    private String name;
+
+    private Integer year;
+
+    private long reviewCount;
+
+    private Double averageRating;
+
+    public static MovieInfoSuggestion of(MovieInfo movieInfo) {
+        return new MovieInfoSuggestion(movieInfo.getId(), movieInfo.getName(), movieInfo.getYear(), movieInfo.getReviewCount(),
+                                       movieInfo.getAverageRating());
+    }
+}
@@ -0,0 +1,34 @@
+package com.reactivespring.domain;
+
+import lombok.Value;
+
+/**
+ * What a batch of reviews adds to the rating summary of one movie info, together with the rating version the summary
+ * must still be at for the delta to apply and the version it moves to.
+ */
+@Value
+public class RatingDelta {
+
+    String movieInfoId;
+
+    long reviewCount;
+
+    long ratingCount;
+
+    double ratingSum;
+
+    long fromVersion;
+
+    long toVersion;
+
+    public static RatingDelta of(String movieInfoId, Double rating, long fromVersion, long version) {
+        return rating == null
+               ? new RatingDelta(movieInfoId, 1, 0, 0, fromVersion, version)
+               : new RatingDelta(movieInfoId, 1, 1, rating, fromVersion, version);
+    }
+
+    public RatingDelta plus(RatingDelta other) {
+        return new RatingDelta(movieInfoId, reviewCount + other.reviewCount, ratingCount + other.ratingCount, ratingSum + other.ratingSum,
+                               fromVersion, Math.max(toVersion, other.toVersion));
+    }
+}
@@ -0,0 +1,18 @@
+package com.reactivespring.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The part of a movies-review-service review the rating summaries are made of.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReviewRating {
+
+    private Long movieInfoId;
+
+    private Double rating;
+}
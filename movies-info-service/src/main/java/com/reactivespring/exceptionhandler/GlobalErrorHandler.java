@@ -3,6 +3,7 @@ package com.reactivespring.exceptionhandler;
 import java.util.stream.Collectors;
 
 import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -30,4 +31,11 @@ public class GlobalErrorHandler {
 
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errors);
     }
+
+    @ExceptionHandler(DuplicateKeyException.class)
+    public ResponseEntity<String> handleDuplicateKey(DuplicateKeyException exception) {
+        log.error("Caught DuplicateKeyException: ", exception);
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body("movieInfo already exists, update it with PUT");
+    }
 }
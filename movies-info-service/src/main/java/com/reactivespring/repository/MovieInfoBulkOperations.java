@@ -0,0 +1,26 @@
+package com.reactivespring.repository;
+
+import java.util.List;
+import java.util.Map;
+
+import com.reactivespring.domain.MovieInfo;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface MovieInfoBulkOperations {
+
+    /**
+     * Inserts all movie infos or replaces the details of the existing ones with a single unordered bulk write, a movie
+     * info that cannot be written does not stop the others. Movie infos without an id get one assigned. Details without
+     * a value are removed from an existing movie info, its rating summary is left as it is.
+     *
+     * @return the error of every movie info that was not written, by its index in {@code movieInfos}
+     */
+    Mono<Map<Integer, String>> saveAllUnordered(List<MovieInfo> movieInfos);
+
+    /**
+     * All movie infos, read from a single cursor that fetches {@code cursorBatchSize} documents per round trip.
+     */
+    Flux<MovieInfo> streamAll(int cursorBatchSize);
+}
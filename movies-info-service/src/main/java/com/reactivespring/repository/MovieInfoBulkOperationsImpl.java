@@ -0,0 +1,93 @@
+package com.reactivespring.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mapping.PropertyHandler;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
+import com.reactivespring.domain.MovieInfo;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+public class MovieInfoBulkOperationsImpl implements MovieInfoBulkOperations {
+
+    // only ever changed with $inc, see MovieInfoUpdateOperations
+    private static final Set<String> RATING_FIELDS = Set.of("reviewCount", "ratingCount", "ratingSum");
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Mono<Map<Integer, String>> saveAllUnordered(List<MovieInfo> movieInfos) {
+        if (movieInfos.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+
+        List<WriteModel<Document>> upserts = movieInfos.stream()
+                                                       .map(this::toDocument)
+                                                       .map(document -> new UpdateOneModel<Document>(Filters.eq("_id", document.remove("_id")),
+                                                                                                     replaceDetails(document),
+                                                                                                     new UpdateOptions().upsert(true)))
+                                                       .collect(Collectors.toList());
+
+        return reactiveMongoTemplate.getCollection(reactiveMongoTemplate.getCollectionName(MovieInfo.class))
+                                    .flatMap(collection -> Mono.from(collection.bulkWrite(upserts, new BulkWriteOptions().ordered(false))))
+                                    .map(result -> Map.<Integer, String>of())
+                                    .onErrorResume(MongoBulkWriteException.class,
+                                                   e -> Mono.just(e.getWriteErrors()
+                                                                   .stream()
+                                                                   .collect(Collectors.toMap(BulkWriteError::getIndex, BulkWriteError::getMessage))));
+    }
+
+    private Document toDocument(MovieInfo movieInfo) {
+        if (movieInfo.getId() == null) {
+            movieInfo.setId(new ObjectId().toHexString());
+        }
+
+        Document document = new Document();
+        reactiveMongoTemplate.getConverter().write(movieInfo, document);
+        RATING_FIELDS.forEach(document::remove);
+        return document;
+    }
+
+    /**
+     * Sets the details of the document and unsets the ones it has no value for, the converter leaves null fields out:
+     * the stored details are replaced as a whole, the rating summary is kept.
+     */
+    private Document replaceDetails(Document document) {
+        Document unset = new Document();
+        reactiveMongoTemplate.getConverter()
+                             .getMappingContext()
+                             .getRequiredPersistentEntity(MovieInfo.class)
+                             .doWithProperties((PropertyHandler<MongoPersistentProperty>) property -> {
+                                 String field = property.getFieldName();
+                                 if (!property.isIdProperty() && !RATING_FIELDS.contains(field) && !document.containsKey(field)) {
+                                     unset.put(field, "");
+                                 }
+                             });
+
+        Document update = new Document("$set", document);
+        return unset.isEmpty() ? update : update.append("$unset", unset);
+    }
+
+    @Override
+    public Flux<MovieInfo> streamAll(int cursorBatchSize) {
+        return reactiveMongoTemplate.find(new Query().cursorBatchSize(cursorBatchSize), MovieInfo.class);
+    }
+}
@@ -0,0 +1,13 @@
+package com.reactivespring.repository;
+
+import com.reactivespring.domain.MovieInfo;
+
+import reactor.core.publisher.Flux;
+
+public interface MovieInfoPageOperations {
+
+    /**
+     * Up to {@code limit} movie infos in id order, starting right after {@code lastId} or from the first one if null.
+     */
+    Flux<MovieInfo> findPageAfter(String lastId, int limit);
+}
@@ -0,0 +1,28 @@
+package com.reactivespring.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.util.CursorPage;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+
+@RequiredArgsConstructor
+public class MovieInfoPageOperationsImpl implements MovieInfoPageOperations {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Flux<MovieInfo> findPageAfter(String lastId, int limit) {
+        Query query = new Query().with(Sort.by("_id"))
+                                 .limit(limit);
+        if (lastId != null) {
+            query.addCriteria(CursorPage.idAfter(lastId));
+        }
+
+        return reactiveMongoTemplate.find(query, MovieInfo.class);
+    }
+}
@@ -1,5 +1,7 @@
 package com.reactivespring.repository;
 
+import java.util.Collection;
+
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 
 import com.reactivespring.domain.MovieInfo;
@@ -7,9 +9,12 @@ import com.reactivespring.domain.MovieInfo;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-public interface MovieInfoRepository extends ReactiveMongoRepository<MovieInfo, String> {
+public interface MovieInfoRepository extends ReactiveMongoRepository<MovieInfo, String>, MovieInfoPageOperations, MovieInfoBulkOperations,
+                                             MovieInfoUpdateOperations {
 
     Flux<MovieInfo> findByYear(Integer year);
 
     Mono<MovieInfo> findFirstByName(String name);
+
+    Flux<MovieInfo> findByIdIn(Collection<String> ids);
 }
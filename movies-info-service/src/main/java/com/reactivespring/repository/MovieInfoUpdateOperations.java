@@ -0,0 +1,37 @@
+package com.reactivespring.repository;
+
+import java.util.Collection;
+import java.util.Map;
+
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.RatingDelta;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Partial updates, each one touching only its own fields so the details and the rating summary of a movie info can
+ * change concurrently without overwriting each other.
+ */
+public interface MovieInfoUpdateOperations {
+
+    /**
+     * Sets the name, year, cast and release date of the movie info with a single {@code $set}.
+     *
+     * @return the updated movie info, empty if there is none with that id
+     */
+    Mono<MovieInfo> updateDetails(String id, MovieInfo details);
+
+    /**
+     * The rating version of each of the movie infos that exist, {@code 0} for the ones no rating was added to yet.
+     */
+    Mono<Map<String, Long>> findRatingVersions(Collection<String> ids);
+
+    /**
+     * Adds every delta to the rating summary of its movie info, with one unordered bulk of {@code $inc} updates that
+     * also set the rating version. A delta only applies while the movie info is still at its {@link RatingDelta#getFromVersion()},
+     * so a batch that is written again changes nothing.
+     *
+     * @return the number of movie infos updated, deltas of movie infos that do not exist or moved on are dropped
+     */
+    Mono<Long> addRatings(Collection<RatingDelta> ratingDeltas);
+}
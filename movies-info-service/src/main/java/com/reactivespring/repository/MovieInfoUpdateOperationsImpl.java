@@ -0,0 +1,92 @@
+package com.reactivespring.repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.RatingDelta;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@RequiredArgsConstructor
+public class MovieInfoUpdateOperationsImpl implements MovieInfoUpdateOperations {
+
+    // not mapped on MovieInfo, only the rating updates read and write it
+    private static final String RATINGS_VERSION = "ratingsVersion";
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Mono<MovieInfo> updateDetails(String id, MovieInfo details) {
+        Update update = new Update().set("name", details.getName())
+                                    .set("year", details.getYear())
+                                    .set("cast", details.getCast())
+                                    .set("releaseDate", details.getReleaseDate());
+
+        return reactiveMongoTemplate.findAndModify(query(where("_id").is(id)), update, FindAndModifyOptions.options().returnNew(true),
+                                                   MovieInfo.class);
+    }
+
+    @Override
+    public Mono<Map<String, Long>> findRatingVersions(Collection<String> ids) {
+        List<Object> mongoIds = ids.stream()
+                                   .map(this::mongoId)
+                                   .collect(Collectors.toList());
+
+        return reactiveMongoTemplate.getCollection(reactiveMongoTemplate.getCollectionName(MovieInfo.class))
+                                    .flatMapMany(collection -> Flux.from(collection.find(Filters.in("_id", mongoIds))
+                                                                                   .projection(Projections.include(RATINGS_VERSION))))
+                                    .<Map<String, Long>>collect(HashMap::new, (versions, document) -> versions.put(String.valueOf(document.get("_id")),
+                                                                                                document.get(RATINGS_VERSION, 0L)));
+    }
+
+    @Override
+    public Mono<Long> addRatings(Collection<RatingDelta> ratingDeltas) {
+        if (ratingDeltas.isEmpty()) {
+            return Mono.just(0L);
+        }
+
+        List<WriteModel<Document>> increments = ratingDeltas.stream()
+                                                            .map(delta -> new UpdateOneModel<Document>(Filters.and(Filters.eq("_id", mongoId(delta.getMovieInfoId())),
+                                                                                                                   atRatingsVersion(delta.getFromVersion())),
+                                                                                                       Updates.combine(Updates.inc("reviewCount", delta.getReviewCount()),
+                                                                                                                       Updates.inc("ratingCount", delta.getRatingCount()),
+                                                                                                                       Updates.inc("ratingSum", delta.getRatingSum()),
+                                                                                                                       Updates.set(RATINGS_VERSION, delta.getToVersion()))))
+                                                            .collect(Collectors.toList());
+
+        return reactiveMongoTemplate.getCollection(reactiveMongoTemplate.getCollectionName(MovieInfo.class))
+                                    .flatMap(collection -> Mono.from(collection.bulkWrite(increments, new BulkWriteOptions().ordered(false))))
+                                    .map(result -> (long) result.getMatchedCount());
+    }
+
+    private static Bson atRatingsVersion(long version) {
+        return version == 0 ? Filters.exists(RATINGS_VERSION, false) : Filters.eq(RATINGS_VERSION, version);
+    }
+
+    // the raw driver does not map ids, store them the way the repository does
+    private Object mongoId(String id) {
+        return reactiveMongoTemplate.getConverter().convertId(id, ObjectId.class);
+    }
+}
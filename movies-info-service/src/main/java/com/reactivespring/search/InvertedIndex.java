@@ -0,0 +1,149 @@
+package com.reactivespring.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.Collectors;
+
+/**
+ * Term to {@link PostingList} map over documents identified by a string key. Each key gets an int ordinal on its
+ * first {@link #put}, the posting lists only hold ordinals. Not thread safe.
+ * <p>
+ * A query matches the documents containing any of its terms. They are ranked by the sum over the matched terms of
+ * the term weight in the document times the inverse document frequency of the term, so rare terms count more than
+ * common ones. The posting lists of the query terms are merged in ordinal order, scoring one document at a time and
+ * keeping only the best {@code limit} in a heap.
+ */
+class InvertedIndex {
+
+    private static final Comparator<Hit> WORST_FIRST = Comparator.comparingDouble((Hit hit) -> hit.score)
+                                                                 .thenComparing(Comparator.comparingInt((Hit hit) -> hit.ordinal).reversed());
+
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    // by ordinal, null once removed: ordinals are not reused so posting lists stay appendable
+    private final List<String> keys = new ArrayList<>();
+    private final List<String[]> documentTerms = new ArrayList<>();
+
+    int size() {
+        return ordinals.size();
+    }
+
+    int termCount() {
+        return postings.size();
+    }
+
+    /**
+     * Indexes the document under the given terms and weights, replacing the terms it was indexed under before.
+     */
+    void put(String key, Map<String, Integer> termWeights) {
+        Integer ordinal = ordinals.get(key);
+        if (ordinal == null) {
+            ordinal = keys.size();
+            ordinals.put(key, ordinal);
+            keys.add(key);
+            documentTerms.add(null);
+        } else {
+            unlink(ordinal);
+        }
+
+        for (Map.Entry<String, Integer> termWeight : termWeights.entrySet()) {
+            postings.computeIfAbsent(termWeight.getKey(), term -> new PostingList())
+                    .put(ordinal, termWeight.getValue());
+        }
+        documentTerms.set(ordinal, termWeights.keySet().toArray(String[]::new));
+    }
+
+    void remove(String key) {
+        Integer ordinal = ordinals.remove(key);
+        if (ordinal != null) {
+            unlink(ordinal);
+            keys.set(ordinal, null);
+            documentTerms.set(ordinal, null);
+        }
+    }
+
+    private void unlink(int ordinal) {
+        for (String term : documentTerms.get(ordinal)) {
+            PostingList postingList = postings.get(term);
+            postingList.remove(ordinal);
+            if (postingList.size() == 0) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    /**
+     * @return the keys of the best {@code limit} matches, best first, ties in indexing order
+     */
+    List<String> search(Collection<String> terms, int limit) {
+        List<PostingList> postingLists = new ArrayList<>();
+        List<Double> idfs = new ArrayList<>();
+        for (String term : new LinkedHashSet<>(terms)) {
+            PostingList postingList = postings.get(term);
+            if (postingList != null) {
+                postingLists.add(postingList);
+                idfs.add(idf(postingList.size()));
+            }
+        }
+        if (postingLists.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        int[] cursors = new int[postingLists.size()];
+        PriorityQueue<Hit> best = new PriorityQueue<>(limit, WORST_FIRST);
+        while (true) {
+            int ordinal = Integer.MAX_VALUE;
+            for (int i = 0; i < cursors.length; i++) {
+                if (cursors[i] < postingLists.get(i).size()) {
+                    ordinal = Math.min(ordinal, postingLists.get(i).ordinal(cursors[i]));
+                }
+            }
+            if (ordinal == Integer.MAX_VALUE) {
+                break;
+            }
+
+            double score = 0;
+            for (int i = 0; i < cursors.length; i++) {
+                PostingList postingList = postingLists.get(i);
+                if (cursors[i] < postingList.size() && postingList.ordinal(cursors[i]) == ordinal) {
+                    score += idfs.get(i) * postingList.weight(cursors[i]);
+                    cursors[i]++;
+                }
+            }
+
+            if (best.size() < limit) {
+                best.add(new Hit(ordinal, score));
+            } else if (score > best.peek().score) {
+                best.poll();
+                best.add(new Hit(ordinal, score));
+            }
+        }
+
+        return best.stream()
+                   .sorted(WORST_FIRST.reversed())
+                   .map(hit -> keys.get(hit.ordinal))
+                   .collect(Collectors.toList());
+    }
+
+    // BM25 flavour, always positive
+    private double idf(int documentFrequency) {
+        return Math.log(1 + (size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static final class Hit {
+
+        private final int ordinal;
+        private final double score;
+
+        private Hit(int ordinal, double score) {
+            this.ordinal = ordinal;
+            this.score = score;
+        }
+    }
+}
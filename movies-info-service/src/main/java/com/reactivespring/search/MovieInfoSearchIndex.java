@@ -0,0 +1,105 @@
+package com.reactivespring.search;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.repository.MovieInfoRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process full-text index over the name and cast of the movie infos, a term in the name weighs
+ * {@value #NAME_WEIGHT} times a term in the cast. See {@link InvertedIndex} for the ranking.
+ * <p>
+ * {@link #load()} fills it with a streaming scan of the collection before the application takes requests, from then
+ * on {@link com.reactivespring.service.MovieInfoService} keeps it up to date. Like the movie info stream without the
+ * change stream feed, it only follows the writes made through this instance.
+ * <p>
+ * A search merges the posting lists of its terms under the read lock, holding off the writers for as long as it
+ * runs, so only the first {@code maxTerms} distinct terms of a query are searched.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class MovieInfoSearchIndex {
+
+    static final int NAME_WEIGHT = 3;
+    static final int CAST_WEIGHT = 1;
+
+    private final MovieInfoRepository movieInfoRepository;
+    private final int scanBatchSize;
+    private final int maxTerms;
+
+    private final InvertedIndex index = new InvertedIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void load() {
+        long start = System.nanoTime();
+        movieInfoRepository.streamAll(scanBatchSize)
+                           .doOnNext(this::index)
+                           .blockLast();
+
+        lock.readLock().lock();
+        try {
+            log.info("Indexed {} movie infos, {} terms, in {} ms", index.size(), index.termCount(),
+                     TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void index(MovieInfo movieInfo) {
+        Map<String, Integer> termWeights = new HashMap<>();
+        SearchTerms.of(movieInfo.getName())
+                   .forEach(term -> termWeights.merge(term, NAME_WEIGHT, Integer::sum));
+        if (movieInfo.getCast() != null) {
+            movieInfo.getCast()
+                     .forEach(member -> SearchTerms.of(member)
+                                                   .forEach(term -> termWeights.merge(term, CAST_WEIGHT, Integer::sum)));
+        }
+
+        lock.writeLock().lock();
+        try {
+            index.put(movieInfo.getId(), termWeights);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            index.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the ids of the best {@code limit} movie infos matching any of the first {@code maxTerms} distinct terms
+     * of the query, best first
+     */
+    public List<String> search(String query, int limit) {
+        List<String> terms = SearchTerms.of(query)
+                                        .stream()
+                                        .distinct()
+                                        .limit(maxTerms)
+                                        .collect(Collectors.toList());
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            return index.search(terms, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.reactivespring.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.MovieInfoSuggestion;
+import com.reactivespring.repository.MovieInfoRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Prefix autocomplete over the movie names, served from memory by a {@link SuggestionTrie}. A name is suggested for a
+ * prefix of any of its word starts, "knig" suggests "The Dark Knight". The most reviewed movie infos come first, then
+ * the best rated ones. Prefixes are normalized like the search terms, see {@link SearchTerms}.
+ * <p>
+ * {@link #load()} fills it with a streaming scan of the collection before the application takes requests, from then
+ * on {@link com.reactivespring.service.MovieInfoService} keeps it up to date, rating updates included. It only
+ * follows the writes made through this instance.
+ * <p>
+ * Memory grows with the number of words per name and with {@code topK}: with the default of 10, about 500 bytes per
+ * movie info of one to four words, so 500 MB of heap per million movie infos, as measured by
+ * {@code MovieInfoSuggesterBenchmark}. {@link #load()} logs the trie size.
+ */
+@Slf4j
+public class MovieInfoSuggester {
+
+    static final Comparator<MovieInfoSuggestion> BY_POPULARITY = Comparator.comparingLong(MovieInfoSuggestion::getReviewCount)
+                                                                           .reversed()
+                                                                           .thenComparing(MovieInfoSuggestion::getAverageRating,
+                                                                                          Comparator.nullsLast(Comparator.reverseOrder()))
+                                                                           .thenComparing(MovieInfoSuggestion::getName,
+                                                                                          Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final MovieInfoRepository movieInfoRepository;
+    private final int scanBatchSize;
+
+    private final SuggestionTrie trie;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public MovieInfoSuggester(MovieInfoRepository movieInfoRepository, int scanBatchSize, int topK) {
+        this.movieInfoRepository = movieInfoRepository;
+        this.scanBatchSize = scanBatchSize;
+        this.trie = new SuggestionTrie(topK, BY_POPULARITY, suggestion -> keys(suggestion.getName()));
+    }
+
+    public void load() {
+        long start = System.nanoTime();
+        movieInfoRepository.streamAll(scanBatchSize)
+                           .doOnNext(this::index)
+                           .blockLast();
+
+        lock.readLock().lock();
+        try {
+            log.info("Loaded {} movie infos into the suggestion trie, {} nodes, in {} ms", trie.size(), trie.nodeCount(),
+                     TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void index(MovieInfo movieInfo) {
+        MovieInfoSuggestion suggestion = MovieInfoSuggestion.of(movieInfo);
+
+        lock.writeLock().lock();
+        try {
+            trie.put(suggestion);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            trie.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the best {@code limit} movie infos with a word start matching the prefix, at most {@code topK}
+     */
+    public List<MovieInfoSuggestion> suggest(String prefix, int limit) {
+        String key = String.join(" ", SearchTerms.of(prefix));
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        // keys end with a space, so "dark " matches the word "dark" wherever it is in the name, not "darkness"
+        if (!Character.isLetterOrDigit(prefix.charAt(prefix.length() - 1))) {
+            key += " ";
+        }
+
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(trie.suggest(key, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The word starts of the name, each ended with a space so that its last word can be matched as a whole word.
+     */
+    private static String[] keys(String name) {
+        List<String> terms = SearchTerms.of(name);
+        Set<String> keys = new LinkedHashSet<>();
+        for (int i = 0; i < terms.size(); i++) {
+            keys.add(String.join(" ", terms.subList(i, terms.size())) + " ");
+        }
+        return keys.toArray(String[]::new);
+    }
+}
@@ -0,0 +1,76 @@
+package com.reactivespring.search;
+
+import java.util.Arrays;
+
+/**
+ * The documents containing one term, as (ordinal, weight) pairs packed into a single int array in ascending ordinal
+ * order. Appending a new document is the common case and costs no search, anything else is a binary search.
+ */
+final class PostingList {
+
+    private int[] entries = new int[2];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    int ordinal(int index) {
+        return entries[2 * index];
+    }
+
+    int weight(int index) {
+        return entries[2 * index + 1];
+    }
+
+    void put(int ordinal, int weight) {
+        int index = size == 0 || ordinal > ordinal(size - 1) ? -size - 1 : find(ordinal);
+        if (index >= 0) {
+            entries[2 * index + 1] = weight;
+            return;
+        }
+
+        index = -index - 1;
+        if (2 * size == entries.length) {
+            entries = Arrays.copyOf(entries, 2 * (size + (size >> 1) + 1));
+        }
+        System.arraycopy(entries, 2 * index, entries, 2 * index + 2, 2 * (size - index));
+        entries[2 * index] = ordinal;
+        entries[2 * index + 1] = weight;
+        size++;
+    }
+
+    void remove(int ordinal) {
+        int index = find(ordinal);
+        if (index < 0) {
+            return;
+        }
+
+        System.arraycopy(entries, 2 * index + 2, entries, 2 * index, 2 * (size - index - 1));
+        size--;
+        // give back the memory of lists that shrank a lot, e.g. after a bulk delete
+        if (size > 0 && 8 * size < entries.length) {
+            entries = Arrays.copyOf(entries, 4 * size);
+        }
+    }
+
+    /**
+     * @return the index of the ordinal, or {@code -(insertion point) - 1} when absent
+     */
+    private int find(int ordinal) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midOrdinal = ordinal(mid);
+            if (midOrdinal < ordinal) {
+                low = mid + 1;
+            } else if (midOrdinal > ordinal) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -low - 1;
+    }
+}
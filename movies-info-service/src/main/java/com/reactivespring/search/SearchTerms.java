@@ -0,0 +1,34 @@
+package com.reactivespring.search;
+
+import java.text.Normalizer;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Splits text into the terms the search index stores and looks up: runs of letters and digits, lower case and without
+ * accents, so "Amélie" is found by "amelie".
+ */
+public final class SearchTerms {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private SearchTerms() {
+    }
+
+    public static List<String> of(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+
+        String normalized = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+                                           .replaceAll("")
+                                           .toLowerCase(Locale.ROOT);
+
+        return SEPARATORS.splitAsStream(normalized)
+                         .filter(term -> !term.isEmpty())
+                         .collect(Collectors.toList());
+    }
+}
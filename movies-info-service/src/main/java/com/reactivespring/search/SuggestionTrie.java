@@ -0,0 +1,399 @@
+package com.reactivespring.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.reactivespring.domain.MovieInfoSuggestion;
+
+/**
+ * Radix trie from keys to suggestions, where every node holds the best {@code topK} distinct suggestions of its
+ * subtree. A lookup walks down the prefix and returns that list as is, so it costs the length of the prefix whatever
+ * the size of the catalog. Not thread safe.
+ * <p>
+ * Edges are labelled with whole substrings and children are kept in an array sorted by first character, so there
+ * are at most two nodes per key. The suggestions ending at a node are kept in ranking order, and a write recomputes
+ * the lists of the nodes above the keys it touches, bottom-up, each by merging those suggestions with the lists of
+ * its children. It stops at the first node whose list neither changed nor holds the written suggestion, the lists
+ * above do not depend on it.
+ * <p>
+ * The suggestions are stored once, in an array indexed by ordinal, and the nodes only hold ordinals. The keys of a
+ * suggestion are not stored either: they are derived from it again when it is replaced or removed.
+ */
+class SuggestionTrie {
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final int[] NO_ORDINALS = new int[0];
+
+    private final int topK;
+    private final Comparator<MovieInfoSuggestion> ranking;
+    private final Function<MovieInfoSuggestion, String[]> keys;
+
+    private final Node root = new Node("");
+    private final Map<String, Integer> ordinalsById = new HashMap<>();
+    private MovieInfoSuggestion[] suggestionsByOrdinal = new MovieInfoSuggestion[16];
+    private int[] freeOrdinals = new int[16];
+    private int freeOrdinalCount;
+    private int nextOrdinal;
+    private int nodeCount = 1;
+
+    SuggestionTrie(int topK, Comparator<MovieInfoSuggestion> ranking, Function<MovieInfoSuggestion, String[]> keys) {
+        this.topK = topK;
+        this.ranking = ranking.thenComparing(MovieInfoSuggestion::getId);
+        this.keys = keys;
+    }
+
+    int size() {
+        return ordinalsById.size();
+    }
+
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Adds the suggestion under its keys, replacing the suggestion with the same id and the keys it was added under
+     * before.
+     */
+    void put(MovieInfoSuggestion suggestion) {
+        Integer ordinal = ordinalsById.get(suggestion.getId());
+        if (ordinal == null) {
+            ordinal = newOrdinal();
+            ordinalsById.put(suggestion.getId(), ordinal);
+            suggestionsByOrdinal[ordinal] = suggestion;
+            insert(ordinal, keys.apply(suggestion));
+            return;
+        }
+
+        String[] previousKeys = keys.apply(suggestionsByOrdinal[ordinal]);
+        String[] newKeys = keys.apply(suggestion);
+        if (Arrays.equals(previousKeys, newKeys)) {
+            // same keys, the suggestion only moves within the lists of their nodes and of the nodes above
+            List<List<Node>> paths = new ArrayList<>(newKeys.length);
+            for (String key : newKeys) {
+                List<Node> path = findPath(key);
+                Node node = path.get(path.size() - 1);
+                node.suggestions = without(node.suggestions, ordinal);
+                paths.add(path);
+            }
+            suggestionsByOrdinal[ordinal] = suggestion;
+            for (List<Node> path : paths) {
+                Node node = path.get(path.size() - 1);
+                node.suggestions = withRanked(node.suggestions, ordinal);
+                recomputeTop(path, ordinal);
+            }
+            return;
+        }
+
+        for (String key : previousKeys) {
+            remove(key, ordinal);
+        }
+        suggestionsByOrdinal[ordinal] = suggestion;
+        insert(ordinal, newKeys);
+    }
+
+    void remove(String id) {
+        Integer ordinal = ordinalsById.remove(id);
+        if (ordinal != null) {
+            for (String key : keys.apply(suggestionsByOrdinal[ordinal])) {
+                remove(key, ordinal);
+            }
+            suggestionsByOrdinal[ordinal] = null;
+            freeOrdinal(ordinal);
+        }
+    }
+
+    List<MovieInfoSuggestion> suggest(String prefix, int limit) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            int childIndex = childIndex(node, prefix.charAt(i));
+            if (childIndex < 0) {
+                return List.of();
+            }
+
+            node = node.children[childIndex];
+            int matched = commonPrefixLength(node.label, prefix, i);
+            if (matched < node.label.length() && i + matched < prefix.length()) {
+                return List.of();
+            }
+            i += matched;
+        }
+
+        int size = Math.min(limit, node.top.length);
+        List<MovieInfoSuggestion> suggestions = new ArrayList<>(size);
+        for (int j = 0; j < size; j++) {
+            suggestions.add(suggestionsByOrdinal[node.top[j]]);
+        }
+        return suggestions;
+    }
+
+    private void insert(int ordinal, String[] keys) {
+        for (String key : keys) {
+            List<Node> path = insertPath(key);
+            Node node = path.get(path.size() - 1);
+            node.suggestions = withRanked(node.suggestions, ordinal);
+            recomputeTop(path, ordinal);
+        }
+    }
+
+    private void remove(String key, int ordinal) {
+        List<Node> path = findPath(key);
+        Node node = path.get(path.size() - 1);
+        node.suggestions = without(node.suggestions, ordinal);
+
+        for (int i = path.size() - 1; i > 0; i--) {
+            node = path.get(i);
+            Node parent = path.get(i - 1);
+            if (node.suggestions.length > 0 || node.children.length > 1) {
+                recomputeTop(node);
+            } else if (node.children.length == 0) {
+                parent.children = withoutChild(parent.children, node);
+                nodeCount--;
+            } else {
+                // a node without suggestions and a single child is folded into the child
+                Node child = node.children[0];
+                child.label = node.label + child.label;
+                parent.children[childIndex(parent, child.label.charAt(0))] = child;
+                nodeCount--;
+            }
+        }
+        recomputeTop(root);
+    }
+
+    /**
+     * The nodes from the root to the node of the key, creating or splitting nodes where needed.
+     */
+    private List<Node> insertPath(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+
+        int i = 0;
+        while (i < key.length()) {
+            int childIndex = childIndex(node, key.charAt(i));
+            if (childIndex < 0) {
+                Node leaf = new Node(key.substring(i));
+                node.children = withChild(node.children, -childIndex - 1, leaf);
+                nodeCount++;
+                path.add(leaf);
+                return path;
+            }
+
+            Node child = node.children[childIndex];
+            int matched = commonPrefixLength(child.label, key, i);
+            if (matched < child.label.length()) {
+                Node middle = new Node(child.label.substring(0, matched));
+                child.label = child.label.substring(matched);
+                middle.children = new Node[]{child};
+                middle.top = child.top;
+                node.children[childIndex] = middle;
+                nodeCount++;
+                child = middle;
+            }
+
+            node = child;
+            path.add(node);
+            i += matched;
+        }
+        return path;
+    }
+
+    /**
+     * The nodes from the root to the node of a key that was put before.
+     */
+    private List<Node> findPath(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+
+        int i = 0;
+        while (i < key.length()) {
+            node = node.children[childIndex(node, key.charAt(i))];
+            path.add(node);
+            i += node.label.length();
+        }
+        return path;
+    }
+
+    /**
+     * Recomputes the lists of the path bottom-up after the suggestion with the ordinal was added or ranked anew.
+     */
+    private void recomputeTop(List<Node> path, int ordinal) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            int[] previousTop = node.top;
+            recomputeTop(node);
+            if (Arrays.equals(previousTop, node.top) && !contains(node.top, node.top.length, ordinal)) {
+                return;
+            }
+        }
+    }
+
+    private void recomputeTop(Node node) {
+        int[] own = node.suggestions;
+        if (node.children.length == 0) {
+            // a leaf lists its best suggestions, sharing the array when all of them fit
+            node.top = own.length <= topK ? own : Arrays.copyOf(own, topK);
+            return;
+        }
+
+        // the suggestions of the node and the lists of its children are ranked already, merge their heads
+        int[] top = new int[topK];
+        int size = 0;
+        int[] cursors = new int[node.children.length + 1];
+        while (size < topK) {
+            int bestSource = -1;
+            int best = 0;
+            for (int source = 0; source < cursors.length; source++) {
+                int[] ordinals = source == 0 ? own : node.children[source - 1].top;
+                // a suggestion reachable through several keys of the subtree is listed once
+                while (cursors[source] < ordinals.length && contains(top, size, ordinals[cursors[source]])) {
+                    cursors[source]++;
+                }
+                if (cursors[source] < ordinals.length && (bestSource < 0 || compare(ordinals[cursors[source]], best) < 0)) {
+                    bestSource = source;
+                    best = ordinals[cursors[source]];
+                }
+            }
+            if (bestSource < 0) {
+                break;
+            }
+            top[size++] = best;
+            cursors[bestSource]++;
+        }
+        node.top = size == top.length ? top : Arrays.copyOf(top, size);
+    }
+
+    private int compare(int left, int right) {
+        return ranking.compare(suggestionsByOrdinal[left], suggestionsByOrdinal[right]);
+    }
+
+    private int newOrdinal() {
+        if (freeOrdinalCount > 0) {
+            return freeOrdinals[--freeOrdinalCount];
+        }
+        if (nextOrdinal == suggestionsByOrdinal.length) {
+            suggestionsByOrdinal = Arrays.copyOf(suggestionsByOrdinal, suggestionsByOrdinal.length * 2);
+        }
+        return nextOrdinal++;
+    }
+
+    private void freeOrdinal(int ordinal) {
+        if (freeOrdinalCount == freeOrdinals.length) {
+            freeOrdinals = Arrays.copyOf(freeOrdinals, freeOrdinals.length * 2);
+        }
+        freeOrdinals[freeOrdinalCount++] = ordinal;
+    }
+
+    private static boolean contains(int[] ordinals, int size, int ordinal) {
+        for (int i = 0; i < size; i++) {
+            if (ordinals[i] == ordinal) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int childIndex(Node node, char first) {
+        int low = 0;
+        int high = node.children.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char midFirst = node.children[mid].label.charAt(0);
+            if (midFirst < first) {
+                low = mid + 1;
+            } else if (midFirst > first) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -low - 1;
+    }
+
+    private static int commonPrefixLength(String label, String key, int offset) {
+        int length = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < length && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static Node[] withChild(Node[] children, int index, Node child) {
+        Node[] result = new Node[children.length + 1];
+        System.arraycopy(children, 0, result, 0, index);
+        result[index] = child;
+        System.arraycopy(children, index, result, index + 1, children.length - index);
+        return result;
+    }
+
+    private static Node[] withoutChild(Node[] children, Node child) {
+        Node[] result = new Node[children.length - 1];
+        int i = 0;
+        for (Node existing : children) {
+            if (existing != child) {
+                result[i++] = existing;
+            }
+        }
+        return result.length == 0 ? NO_CHILDREN : result;
+    }
+
+    /**
+     * The ordinals with the ordinal inserted at its rank, the ordinals being in ranking order.
+     */
+    private int[] withRanked(int[] ordinals, int ordinal) {
+        int low = 0;
+        int high = ordinals.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(ordinals[mid], ordinal) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        int[] result = new int[ordinals.length + 1];
+        System.arraycopy(ordinals, 0, result, 0, low);
+        result[low] = ordinal;
+        System.arraycopy(ordinals, low, result, low + 1, ordinals.length - low);
+        return result;
+    }
+
+    private static int[] without(int[] ordinals, int ordinal) {
+        int index = 0;
+        while (index < ordinals.length && ordinals[index] != ordinal) {
+            index++;
+        }
+        if (index == ordinals.length) {
+            return ordinals;
+        }
+        if (ordinals.length == 1) {
+            return NO_ORDINALS;
+        }
+
+        int[] result = new int[ordinals.length - 1];
+        System.arraycopy(ordinals, 0, result, 0, index);
+        System.arraycopy(ordinals, index + 1, result, index, result.length - index);
+        return result;
+    }
+
+    private static final class Node {
+
+        private String label;
+        private Node[] children = NO_CHILDREN;
+        // the ordinals of the suggestions whose key ends here, in ranking order
+        private int[] suggestions = NO_ORDINALS;
+        private int[] top = NO_ORDINALS;
+
+        private Node(String label) {
+            this.label = label;
+        }
+    }
+}
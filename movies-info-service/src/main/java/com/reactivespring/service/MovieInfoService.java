@@ -1,10 +1,33 @@
 package com.reactivespring.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.MovieInfoImportResult;
+import com.reactivespring.domain.MovieInfoSuggestion;
+import com.reactivespring.domain.RatingDelta;
 import com.reactivespring.repository.MovieInfoRepository;
+import com.reactivespring.search.MovieInfoSearchIndex;
+import com.reactivespring.search.MovieInfoSuggester;
+import com.reactivespring.util.CursorPage;
 
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -14,36 +37,222 @@ import reactor.core.publisher.Mono;
 public class MovieInfoService {
 
     private final MovieInfoRepository movieInfoRepository;
+    private final Validator validator;
+    // both null with movieInfos.search.enabled=false, see SearchIndexConfig
+    @Nullable private final MovieInfoSearchIndex movieInfoSearchIndex;
+    @Nullable private final MovieInfoSuggester movieInfoSuggester;
+    private final ObjectMapper objectMapper;
+
+    @Value("${movieInfos.import.batchSize:500}")
+    private int importBatchSize;
 
+    @Value("${movieInfos.export.cursorBatchSize:1000}")
+    private int exportCursorBatchSize;
+
+    /**
+     * Inserts the movie info, an existing one with the same id fails with a {@link org.springframework.dao.DuplicateKeyException}
+     * instead of being replaced along with its rating summary.
+     */
     public Mono<MovieInfo> addMovie(final MovieInfo movieInfo) {
-        return movieInfoRepository.save(movieInfo);
+        return movieInfoRepository.insert(movieInfo)
+                                  .doOnNext(this::index);
     }
 
-    public Flux<MovieInfo> getAllMovieInfos() {
-        return movieInfoRepository.findAll();
+    public Mono<CursorPage<MovieInfo>> getMovieInfosPage(final String lastId, final int pageSize) {
+        return movieInfoRepository.findPageAfter(lastId, pageSize + 1)
+                                  .collectList()
+                                  .map(movieInfos -> CursorPage.of(movieInfos, pageSize, MovieInfo::getId));
     }
 
     public Mono<MovieInfo> getMovieInfoById(final String id) {
         return movieInfoRepository.findById(id);
     }
 
+    /**
+     * Sets the details of the movie info in place, without reading it first, so a rating update landing in between is
+     * not overwritten.
+     */
     public Mono<MovieInfo> updateMovieInfo(final String id, final MovieInfo updatedMovieInfo) {
-        return getMovieInfoById(id)
-                .flatMap(movieInfo -> {
-                    movieInfo.setCast(updatedMovieInfo.getCast());
-                    movieInfo.setName(updatedMovieInfo.getName());
-                    movieInfo.setReleaseDate(updatedMovieInfo.getReleaseDate());
-                    movieInfo.setYear(updatedMovieInfo.getYear());
+        return movieInfoRepository.updateDetails(id, updatedMovieInfo)
+                                  .doOnNext(this::index);
+    }
 
-                    return movieInfoRepository.save(movieInfo);
-                });
+    public Mono<Map<String, Long>> getRatingVersions(final Collection<String> ids) {
+        return movieInfoRepository.findRatingVersions(ids);
+    }
+
+    /**
+     * Adds the rating deltas with one bulk of {@code $inc} updates, then reads the updated movie infos back for the
+     * suggestion ranking.
+     *
+     * @return the number of movie infos updated
+     */
+    public Mono<Long> addRatings(final Collection<RatingDelta> ratingDeltas) {
+        List<String> ids = ratingDeltas.stream()
+                                       .map(RatingDelta::getMovieInfoId)
+                                       .collect(Collectors.toList());
+
+        return movieInfoRepository.addRatings(ratingDeltas)
+                                  .flatMap(updated -> movieInfoSuggester == null
+                                                      ? Mono.just(updated)
+                                                      : movieInfoRepository.findByIdIn(ids)
+                                                                           .doOnNext(movieInfoSuggester::index)
+                                                                           .then(Mono.just(updated)));
     }
 
     public Mono<Void> deleteMovieInfo(final String id) {
-        return movieInfoRepository.deleteById(id);
+        return movieInfoRepository.deleteById(id)
+                                  .doOnSuccess(ignored -> {
+                                      if (movieInfoSearchIndex != null) {
+                                          movieInfoSearchIndex.remove(id);
+                                          movieInfoSuggester.remove(id);
+                                      }
+                                  });
     }
 
     public Flux<MovieInfo> getMovieInfosByYear(final Integer year) {
         return movieInfoRepository.findByYear(year);
     }
+
+    public Flux<MovieInfo> getMovieInfosByIds(final List<String> ids) {
+        return movieInfoRepository.findByIdIn(ids);
+    }
+
+    /**
+     * The best {@code limit} movie infos whose name or cast contain any term of the query, best first. Ranked by the
+     * search index, then read from Mongo by id. Finds nothing without the search index.
+     */
+    public Flux<MovieInfo> searchMovieInfos(final String query, final int limit) {
+        // the index is searched on subscription, not when the pipeline is assembled
+        return Flux.defer(() -> {
+            List<String> ids = movieInfoSearchIndex != null ? movieInfoSearchIndex.search(query, limit) : List.of();
+            if (ids.isEmpty()) {
+                return Flux.empty();
+            }
+
+            return movieInfoRepository.findByIdIn(ids)
+                                      .collectMap(MovieInfo::getId)
+                                      .flatMapIterable(movieInfosById -> ids.stream()
+                                                                            .map(movieInfosById::get)
+                                                                            .filter(Objects::nonNull)
+                                                                            .collect(Collectors.toList()));
+        });
+    }
+
+    /**
+     * The best {@code limit} movie infos with a word of the name starting with the prefix, most reviewed first.
+     * Served from memory, Mongo is not read. Finds nothing without the suggester.
+     */
+    public Flux<MovieInfoSuggestion> suggestMovieInfos(final String prefix, final int limit) {
+        return Flux.defer(() -> Flux.fromIterable(movieInfoSuggester != null
+                                                  ? movieInfoSuggester.suggest(prefix, limit)
+                                                  : List.<MovieInfoSuggestion>of()));
+    }
+
+    /**
+     * Parses, validates and writes NDJSON lines of movie infos in batches of {@code movieInfos.import.batchSize}, one
+     * unordered bulk upsert per batch, then reads the written movie infos back for the search index and the suggestion
+     * ranking. Each line is parsed on its own, so a malformed line is rejected with its line number instead of failing
+     * the import. A batch is only requested once the previous one is written, so at most two batches are held in memory
+     * whatever the size of the import. The search index and the suggester do grow with every movie info imported, the
+     * suggester alone by about 500 bytes each; {@code movieInfos.search.enabled=false} leaves both out.
+     */
+    public Mono<MovieInfoImportResult> importMovieInfos(final Flux<String> lines) {
+        return lines.index()
+                    .filter(line -> !line.getT2().isBlank())
+                    .map(line -> parseImportLine(line.getT1() + 1, line.getT2()))
+                    .buffer(importBatchSize)
+                    .concatMap(this::importBatch, 1)
+                    .reduceWith(MovieInfoImportResult::new, MovieInfoImportResult::add);
+    }
+
+    private ImportLine parseImportLine(final long line, final String json) {
+        MovieInfo movieInfo;
+        try {
+            movieInfo = objectMapper.readValue(json, MovieInfo.class);
+        } catch (JsonProcessingException e) {
+            return new ImportLine(line, null, "malformed movie info: " + e.getOriginalMessage());
+        }
+
+        return new ImportLine(line, movieInfo, validationError(movieInfo));
+    }
+
+    private Mono<MovieInfoImportResult> importBatch(final List<ImportLine> batch) {
+        MovieInfoImportResult result = new MovieInfoImportResult();
+        List<ImportLine> validLines = new ArrayList<>();
+
+        for (ImportLine importLine : batch) {
+            if (importLine.isValid()) {
+                validLines.add(importLine);
+            } else {
+                result.rejected(importLine.getLine(), importLine.getError());
+            }
+        }
+
+        List<MovieInfo> movieInfos = validLines.stream()
+                                               .map(ImportLine::getMovieInfo)
+                                               .collect(Collectors.toList());
+
+        return movieInfoRepository.saveAllUnordered(movieInfos)
+                                  .flatMap(errorsByIndex -> {
+                                      List<String> writtenIds = new ArrayList<>();
+                                      for (int i = 0; i < validLines.size(); i++) {
+                                          String writeError = errorsByIndex.get(i);
+                                          if (writeError == null) {
+                                              writtenIds.add(validLines.get(i).getMovieInfo().getId());
+                                              result.imported();
+                                          } else {
+                                              result.rejected(validLines.get(i).getLine(), writeError);
+                                          }
+                                      }
+
+                                      // the payload has no rating summary, the stored one of an existing movie info ranks its suggestions
+                                      return writtenIds.isEmpty() || movieInfoSearchIndex == null
+                                             ? Mono.just(result)
+                                             : movieInfoRepository.findByIdIn(writtenIds)
+                                                                  .doOnNext(this::index)
+                                                                  .then(Mono.just(result));
+                                  });
+    }
+
+    private void index(final MovieInfo movieInfo) {
+        if (movieInfoSearchIndex != null) {
+            movieInfoSearchIndex.index(movieInfo);
+            movieInfoSuggester.index(movieInfo);
+        }
+    }
+
+    private String validationError(final MovieInfo movieInfo) {
+        Set<ConstraintViolation<MovieInfo>> constraintViolations = validator.validate(movieInfo);
+
+        return constraintViolations.isEmpty()
+               ? null
+               : constraintViolations.stream()
+                                     .map(ConstraintViolation::getMessage)
+                                     .sorted()
+                                     .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * All movie infos, read from Mongo {@code movieInfos.export.cursorBatchSize} documents at a time and only as fast
+     * as the caller consumes them.
+     */
+    public Flux<MovieInfo> exportMovieInfos() {
+        return movieInfoRepository.streamAll(exportCursorBatchSize);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class ImportLine {
+
+        private final long line;
+
+        private final MovieInfo movieInfo;
+
+        private final String error;
+
+        boolean isValid() {
+            return error == null;
+        }
+    }
 }
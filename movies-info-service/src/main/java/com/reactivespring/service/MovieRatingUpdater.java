@@ -0,0 +1,204 @@
+package com.reactivespring.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.reactivespring.domain.RatingDelta;
+import com.reactivespring.domain.ReviewRating;
+import com.reactivespring.util.EventReplayBuffer.EventId;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Keeps the rating summary of the movie infos up to date from the added reviews published by movies-review-service,
+ * so the movie info endpoints return ratings without asking the review service.
+ * <p>
+ * The reviews are read as server-sent events, coalesced per movie info for up to {@code window} or
+ * {@code maxBatchSize} reviews and written as one bulk of {@code $inc} updates. Only once a batch is written is its last
+ * event id saved to the {@value #CURSOR_COLLECTION} collection: a failed write, a restart or a reconnect resumes after
+ * that event, so no review still retained by the review service is skipped (a {@code resync} event is logged
+ * otherwise). Every update also moves the rating version of its movie info to the id of its last event and only
+ * applies while the movie info is still at the version the batch was built from, so the reviews written again after a
+ * failure between the bulk and the cursor save are not counted twice.
+ * <p>
+ * The review service numbers its events from 1 again when it restarts, under a new run in the event ids; whenever the
+ * run changes the versions move to a new epoch so they keep increasing. Only added reviews are on the feed:
+ * edited and deleted reviews are not reflected.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class MovieRatingUpdater {
+
+    static final String CURSOR_COLLECTION = "movieRatingCursor";
+
+    private static final String CURSOR_ID = "reviews";
+
+    private static final String RESYNC_EVENT = "resync";
+
+    // the event sequence numbers of an epoch stay well below 2^40, the rating versions keep the epoch in the bits above
+    private static final int EVENT_ID_BITS = 40;
+
+    // batches waiting behind a slow write, past that the stream fails and resumes from the last written event
+    private static final int MAX_PENDING_BATCHES = 16;
+
+    private static final ParameterizedTypeReference<ServerSentEvent<ReviewRating>> REVIEW_EVENT = new ParameterizedTypeReference<>() {};
+
+    private final WebClient webClient;
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final MovieInfoService movieInfoService;
+    private final String reviewsStreamUrl;
+    private final Duration window;
+    private final int maxBatchSize;
+
+    // the last written event, loaded from the cursor collection on the first connect
+    private volatile Cursor cursor;
+    private Disposable subscription;
+
+    public void start() {
+        subscription = Flux.defer(() -> cursor().flatMapMany(this::reviews))
+                           .concatWith(Mono.error(() -> new IllegalStateException("Review stream completed")))
+                           .bufferTimeout(maxBatchSize, window)
+                           .onBackpressureBuffer(MAX_PENDING_BATCHES)
+                           .concatMap(this::write)
+                           .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1))
+                                           .maxBackoff(Duration.ofSeconds(30))
+                                           .transientErrors(true)
+                                           .doBeforeRetry(retry -> log.warn("Rating updates failed, resuming after the last written review", retry.failure())))
+                           .subscribe(null, e -> log.error("Rating updates stopped", e));
+    }
+
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+    }
+
+    private Mono<Cursor> cursor() {
+        if (cursor != null) {
+            return Mono.just(cursor);
+        }
+        return reactiveMongoTemplate.getCollection(CURSOR_COLLECTION)
+                                    .flatMap(collection -> Mono.from(collection.find(Filters.eq("_id", CURSOR_ID)).first()))
+                                    // cursors saved before the event ids had a run hold a bare number, parsed with run 0
+                                    .map(document -> new Cursor(document.getLong("epoch"), EventId.parse(document.get("lastEventId").toString())))
+                                    .defaultIfEmpty(new Cursor(0, null))
+                                    .doOnNext(loaded -> cursor = loaded);
+    }
+
+    private Flux<ServerSentEvent<ReviewRating>> reviews(Cursor from) {
+        return webClient.get()
+                        .uri(reviewsStreamUrl)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .headers(headers -> {
+                            if (from.getLastEventId() != null) {
+                                headers.set("Last-Event-ID", from.getLastEventId().toString());
+                            }
+                        })
+                        .retrieve()
+                        .bodyToFlux(REVIEW_EVENT)
+                        .filter(event -> event.id() != null);
+    }
+
+    private Mono<Void> write(List<ServerSentEvent<ReviewRating>> events) {
+        long epoch = cursor.getEpoch();
+        EventId lastEventId = cursor.getLastEventId();
+        List<VersionedRating> ratings = new ArrayList<>();
+
+        for (ServerSentEvent<ReviewRating> event : events) {
+            EventId eventId = EventId.parse(event.id());
+            if (lastEventId != null && eventId.getRun() != lastEventId.getRun()) {
+                epoch++;
+            }
+            if (RESYNC_EVENT.equals(event.event())) {
+                log.warn("Reviews before event {} are no longer retained, their ratings are missing", eventId);
+            } else if (event.data() != null && event.data().getMovieInfoId() != null) {
+                ratings.add(new VersionedRating(String.valueOf(event.data().getMovieInfoId()), event.data().getRating(),
+                                                epoch << EVENT_ID_BITS | eventId.getSequence()));
+            }
+            lastEventId = eventId;
+        }
+
+        Cursor written = new Cursor(epoch, lastEventId);
+        return addRatings(ratings).then(saveCursor(written))
+                                  .doOnSuccess(ignored -> cursor = written);
+    }
+
+    private Mono<Void> addRatings(List<VersionedRating> ratings) {
+        if (ratings.isEmpty()) {
+            return Mono.empty();
+        }
+
+        Set<String> ids = ratings.stream()
+                                 .map(VersionedRating::getMovieInfoId)
+                                 .collect(Collectors.toSet());
+
+        return movieInfoService.getRatingVersions(ids)
+                               .map(versions -> coalesce(ratings, versions))
+                               .flatMap(deltas -> movieInfoService.addRatings(deltas)
+                                                                  .doOnNext(updated -> {
+                                                                      if (updated < deltas.size()) {
+                                                                          log.warn("{} of {} rating updates were not applied, their movie infos changed meanwhile",
+                                                                                   deltas.size() - updated, deltas.size());
+                                                                      }
+                                                                  }))
+                               .then();
+    }
+
+    private Mono<Void> saveCursor(Cursor cursor) {
+        Document document = new Document("_id", CURSOR_ID).append("epoch", cursor.getEpoch())
+                                                          .append("lastEventId", cursor.getLastEventId().toString());
+
+        return reactiveMongoTemplate.getCollection(CURSOR_COLLECTION)
+                                    .flatMap(collection -> Mono.from(collection.replaceOne(Filters.eq("_id", CURSOR_ID), document,
+                                                                                           new ReplaceOptions().upsert(true))))
+                                    .then();
+    }
+
+    // leaves out the movie infos that do not exist and the ratings their version already includes
+    private static Collection<RatingDelta> coalesce(List<VersionedRating> ratings, Map<String, Long> versions) {
+        return ratings.stream()
+                      .filter(rating -> versions.containsKey(rating.getMovieInfoId()) && rating.getVersion() > versions.get(rating.getMovieInfoId()))
+                      .map(rating -> RatingDelta.of(rating.getMovieInfoId(), rating.getRating(), versions.get(rating.getMovieInfoId()), rating.getVersion()))
+                      .collect(Collectors.toMap(RatingDelta::getMovieInfoId, Function.identity(), RatingDelta::plus))
+                      .values();
+    }
+
+    @Value
+    private static class Cursor {
+
+        long epoch;
+
+        EventId lastEventId;
+    }
+
+    @Value
+    private static class VersionedRating {
+
+        String movieInfoId;
+
+        Double rating;
+
+        long version;
+    }
+}
@@ -0,0 +1,22 @@
+package com.reactivespring.stream;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "movie-infos.stream.slow-consumer")
+public class MovieInfoStreamProperties {
+
+    /**
+     * {@code GET /v1/movieinfos/stream} as NDJSON.
+     */
+    private SlowConsumerSpec ndjson = new SlowConsumerSpec();
+
+    /**
+     * {@code GET /v1/movieinfos/stream} as server-sent events. Dropping events leaves gaps in the event ids, prefer
+     * {@link OverflowStrategy#BUFFER} or {@link OverflowStrategy#DISCONNECT}: the client resumes with
+     * {@code Last-Event-ID} once it reconnects.
+     */
+    private SlowConsumerSpec events = new SlowConsumerSpec();
+}
@@ -0,0 +1,110 @@
+package com.reactivespring.controller;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.MovieInfoImportResult;
+import com.reactivespring.repository.MovieInfoRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import reactor.core.publisher.Flux;
+
+/**
+ * Imports and exports a million movie infos and checks that the heap, sampled after a GC every
+ * {@value #SAMPLE_EVERY} movie infos, does not grow with the catalog. The search index and the suggester are left out,
+ * they grow with the catalog by design. Only runs with {@code -Dbenchmark=true}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = "movieInfos.search.enabled=false")
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class MovieInfoImportExportMemoryIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieInfoImportExportMemoryIntegrationTest.class);
+
+    private static final int MOVIE_INFO_COUNT = 1_000_000;
+
+    private static final int SAMPLE_EVERY = 100_000;
+
+    private static final long MAX_HEAP_GROWTH_BYTES = 64L * 1024 * 1024;
+
+    private static final Duration TIMEOUT = Duration.ofMinutes(15);
+
+    @LocalServerPort int port;
+
+    @Autowired MovieInfoRepository movieInfoRepository;
+
+    @AfterEach
+    void tearDown() {
+        movieInfoRepository.deleteAll()
+                           .block();
+    }
+
+    @Test
+    void importAndExport_keepHeapFlat() {
+        WebClient webClient = WebClient.create("http://localhost:" + port + "/v1/movieinfos");
+        long baseline = usedHeapAfterGc();
+        AtomicLong peak = new AtomicLong(baseline);
+
+        Flux<MovieInfo> movieInfos = Flux.range(0, MOVIE_INFO_COUNT)
+                                         .doOnNext(i -> sampleHeap(i, peak))
+                                         .map(i -> new MovieInfo(null, "Movie " + i, 1900 + i % 120, List.of("Actor " + i, "Actress " + i), LocalDate.of(2000, 1, 1)));
+
+        MovieInfoImportResult importResult = webClient.post()
+                                                      .uri("/import")
+                                                      .contentType(MediaType.APPLICATION_NDJSON)
+                                                      .body(movieInfos, MovieInfo.class)
+                                                      .retrieve()
+                                                      .bodyToMono(MovieInfoImportResult.class)
+                                                      .block(TIMEOUT);
+
+        assertNotNull(importResult);
+        assertEquals(MOVIE_INFO_COUNT, importResult.getImported());
+
+        Long exported = webClient.get()
+                                 .uri("/export")
+                                 .accept(MediaType.APPLICATION_NDJSON)
+                                 .retrieve()
+                                 .bodyToFlux(MovieInfo.class)
+                                 .index()
+                                 .doOnNext(indexed -> sampleHeap(indexed.getT1(), peak))
+                                 .count()
+                                 .block(TIMEOUT);
+
+        assertEquals(MOVIE_INFO_COUNT, exported);
+
+        long growth = peak.get() - baseline;
+        log.info("{} movie infos: heap baseline {} MB, peak {} MB", MOVIE_INFO_COUNT, baseline / (1024 * 1024), peak.get() / (1024 * 1024));
+        assertTrue(growth < MAX_HEAP_GROWTH_BYTES, "heap grew by " + growth / (1024 * 1024) + " MB");
+    }
+
+    private static void sampleHeap(long index, AtomicLong peak) {
+        if (index % SAMPLE_EVERY == 0) {
+            peak.accumulateAndGet(usedHeapAfterGc(), Math::max);
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean()
+                                .getHeapMemoryUsage()
+                                .getUsed();
+    }
+}
@@ -0,0 +1,76 @@
+package com.reactivespring.controller;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.repository.MovieInfoRepository;
+import com.reactivespring.util.EventReplayBuffer;
+
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+/**
+ * Runs against an embedded single node replica set, change streams are not available on a standalone server.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+                properties = {"spring.mongodb.embedded.version=4.0.21",
+                              "spring.mongodb.embedded.storage.repl-set-name=rs0",
+                              "movieInfos.stream.changeStream.enabled=true"})
+@ActiveProfiles("test")
+@AutoConfigureWebTestClient
+class MoviesInfoChangeStreamIntegrationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Autowired WebTestClient webTestClient;
+
+    @Autowired MovieInfoRepository movieInfoRepository;
+
+    @Autowired EventReplayBuffer<MovieInfo> movieInfoEvents;
+
+    @BeforeEach
+    void setUp() {
+        // the change stream is opened asynchronously, writes made before it is open are not seen
+        Flux.interval(Duration.ofMillis(100))
+            .concatMap(tick -> movieInfoRepository.save(new MovieInfo(null, "Warm up", 2000, List.of("Nobody"), LocalDate.parse("2000-01-01"))))
+            .takeUntil(movieInfo -> movieInfoEvents.lastEventId().getSequence() > 0)
+            .blockLast(TIMEOUT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        movieInfoRepository.deleteAll().block();
+    }
+
+    @Test
+    void getMovieInfosStream_seesWritesOfOtherInstances() {
+        MovieInfo movieInfo = new MovieInfo("changeStream1", "Batman Begins", 2005, List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15"));
+
+        Flux<MovieInfo> movieInfos = webTestClient.get()
+                                                  .uri("/v1/movieinfos/stream")
+                                                  .exchange()
+                                                  .expectStatus()
+                                                  .isOk()
+                                                  .returnResult(MovieInfo.class)
+                                                  .getResponseBody()
+                                                  .filter(movieInfo::equals);
+
+        // written straight to Mongo, the way another instance would
+        StepVerifier.create(movieInfos)
+                    .then(() -> movieInfoRepository.save(movieInfo).block())
+                    .expectNext(movieInfo)
+                    .thenCancel()
+                    .verify(TIMEOUT);
+    }
+}
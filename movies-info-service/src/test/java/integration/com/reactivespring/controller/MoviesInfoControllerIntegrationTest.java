@@ -2,7 +2,10 @@ package com.reactivespring.controller;
 
 import java.net.URI;
 import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -10,15 +13,22 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
 import org.springframework.test.web.reactive.server.FluxExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.MovieInfoImportResult;
+import com.reactivespring.domain.MovieInfoSuggestion;
 import com.reactivespring.repository.MovieInfoRepository;
+import com.reactivespring.util.CursorPage;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
@@ -80,6 +90,76 @@ class MoviesInfoControllerIntegrationTest {
                      .hasSize(3);
     }
 
+    @Test
+    void getAllMovieInfos_paginated() {
+        Set<String> seenIds = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+
+        do {
+            String currentCursor = cursor;
+            EntityExchangeResult<List<MovieInfo>> page = webTestClient.get()
+                                                                     .uri(uriBuilder -> uriBuilder.path(V1_MOVIE_INFOS_URL)
+                                                                                                  .queryParam("limit", 2)
+                                                                                                  .queryParamIfPresent("cursor", Optional.ofNullable(currentCursor))
+                                                                                                  .build())
+                                                                     .exchange()
+                                                                     .expectStatus()
+                                                                     .isOk()
+                                                                     .expectBodyList(MovieInfo.class)
+                                                                     .returnResult();
+
+            page.getResponseBody().forEach(movieInfo -> assertTrue(seenIds.add(movieInfo.getId())));
+            cursor = page.getResponseHeaders().getFirst(CursorPage.NEXT_CURSOR_HEADER);
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, seenIds.size());
+        assertEquals(2, pages);
+    }
+
+    @Test
+    void importAndExportMovieInfos() {
+        String body = String.join("\n",
+                                  "{\"name\": \"Tenet\", \"year\": 2020, \"cast\": [\"John David Washington\"], \"releaseDate\": \"2020-08-26\"}",
+                                  "{\"name\": \"\", \"year\": 2020, \"cast\": [\"Nobody\"], \"releaseDate\": \"2020-08-26\"}",
+                                  "{\"name\": \"Broken\", \"year\": ",
+                                  "{\"id\": \"abc\", \"name\": \"The Dark Knight Rises\", \"year\": 2012, \"cast\": [\"Christian Bale\"], \"releaseDate\": \"2012-07-20\"}");
+
+        webTestClient.post()
+                     .uri(V1_MOVIE_INFOS_URL + "/import")
+                     .contentType(MediaType.APPLICATION_NDJSON)
+                     .bodyValue(body)
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectBody(MovieInfoImportResult.class)
+                     .consumeWith(result -> {
+                         MovieInfoImportResult importResult = result.getResponseBody();
+
+                         assertNotNull(importResult);
+                         assertEquals(2, importResult.getImported());
+                         assertEquals(2, importResult.getRejected());
+                         assertEquals("line 2: movieInfo.name must be present", importResult.getErrors().get(0));
+                         assertTrue(importResult.getErrors().get(1).startsWith("line 3: malformed movie info"));
+                     });
+
+        List<MovieInfo> exported = webTestClient.get()
+                                                .uri(V1_MOVIE_INFOS_URL + "/export")
+                                                .accept(MediaType.APPLICATION_NDJSON)
+                                                .exchange()
+                                                .expectStatus()
+                                                .isOk()
+                                                .expectBodyList(MovieInfo.class)
+                                                .returnResult()
+                                                .getResponseBody();
+
+        assertNotNull(exported);
+        assertEquals(4, exported.size());
+        assertTrue(exported.stream().anyMatch(movieInfo -> movieInfo.getName().equals("Tenet")));
+        assertTrue(exported.stream().anyMatch(movieInfo -> movieInfo.getName().equals("The Dark Knight Rises")));
+    }
+
     @Test
     void getAllMovieInfosAsStream() {
         addMovieInfo();
@@ -98,6 +178,147 @@ class MoviesInfoControllerIntegrationTest {
                     .verify();
     }
 
+    @Test
+    void searchMovieInfos_followsWritesThroughTheService() {
+        addMovieInfo();
+
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder.path(V1_MOVIE_INFOS_URL + "/search")
+                                                  .queryParam("q", "batman cane")
+                                                  .build())
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectBody()
+                     .jsonPath("$.length()").isEqualTo(1)
+                     .jsonPath("$[0].name").isEqualTo("Batman Begins 1");
+
+        webTestClient.put()
+                     .uri(V1_MOVIE_INFOS_URL + "/{id}", "abc")
+                     .bodyValue(new MovieInfo("abc", "Batman Rises", 2012, List.of("Christian Bale"), LocalDate.parse("2012-07-20")))
+                     .exchange()
+                     .expectStatus()
+                     .isOk();
+
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder.path(V1_MOVIE_INFOS_URL + "/search")
+                                                  .queryParam("q", "batman rises")
+                                                  .build())
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectBody()
+                     .jsonPath("$.length()").isEqualTo(2)
+                     .jsonPath("$[0].id").isEqualTo("abc");
+
+        webTestClient.delete()
+                     .uri(V1_MOVIE_INFOS_URL + "/{id}", "abc")
+                     .exchange()
+                     .expectStatus()
+                     .isNoContent();
+
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder.path(V1_MOVIE_INFOS_URL + "/search")
+                                                  .queryParam("q", "rises")
+                                                  .build())
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectBodyList(MovieInfo.class)
+                     .hasSize(0);
+    }
+
+    @Test
+    void suggestMovieInfos_followsWritesThroughTheService() {
+        addMovieInfo();
+
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder.path(V1_MOVIE_INFOS_URL + "/suggest")
+                                                  .queryParam("prefix", "begins 1")
+                                                  .build())
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectBodyList(MovieInfoSuggestion.class)
+                     .value(suggestions -> {
+                         assertEquals(1, suggestions.size());
+                         assertEquals("Batman Begins 1", suggestions.get(0).getName());
+                     });
+
+        webTestClient.put()
+                     .uri(V1_MOVIE_INFOS_URL + "/{id}", "abc")
+                     .bodyValue(new MovieInfo("abc", "Batman Begins Again", 2012, List.of("Christian Bale"), LocalDate.parse("2012-07-20")))
+                     .exchange()
+                     .expectStatus()
+                     .isOk();
+
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder.path(V1_MOVIE_INFOS_URL + "/suggest")
+                                                  .queryParam("prefix", "again")
+                                                  .build())
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectBody()
+                     .jsonPath("$.length()").isEqualTo(1)
+                     .jsonPath("$[0].id").isEqualTo("abc");
+
+        webTestClient.delete()
+                     .uri(V1_MOVIE_INFOS_URL + "/{id}", "abc")
+                     .exchange()
+                     .expectStatus()
+                     .isNoContent();
+
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder.path(V1_MOVIE_INFOS_URL + "/suggest")
+                                                  .queryParam("prefix", "again")
+                                                  .build())
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectBodyList(MovieInfoSuggestion.class)
+                     .hasSize(0);
+    }
+
+    @Test
+    void suggestMovieInfos_afterImport_keepsTheStoredRatingSummary() {
+        movieInfoRepository.save(new MovieInfo("abc", "Dark Knight Rises", 2012, List.of("Christian Bale"), LocalDate.parse("2012-07-20"), 5, 4, 34.0))
+                           .block();
+
+        webTestClient.post()
+                     .uri(V1_MOVIE_INFOS_URL + "/import")
+                     .contentType(MediaType.APPLICATION_NDJSON)
+                     .bodyValue("{\"id\": \"abc\", \"name\": \"Dark Knight Returns\", \"year\": 2012, \"cast\": [\"Christian Bale\"], \"releaseDate\": \"2012-07-20\"}")
+                     .exchange()
+                     .expectStatus()
+                     .isOk();
+
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder.path(V1_MOVIE_INFOS_URL + "/suggest")
+                                                  .queryParam("prefix", "returns")
+                                                  .build())
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectBody()
+                     .jsonPath("$.length()").isEqualTo(1)
+                     .jsonPath("$[0].reviewCount").isEqualTo(5)
+                     .jsonPath("$[0].averageRating").isEqualTo(8.5);
+    }
+
+    @Test
+    void getMovieInfosByIds() {
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder.path(V1_MOVIE_INFOS_URL)
+                                                  .queryParam("ids", "abc,def")
+                                                  .build())
+                     .exchange()
+                     .expectStatus()
+                     .is2xxSuccessful()
+                     .expectBodyList(MovieInfo.class)
+                     .hasSize(1);
+    }
+
     @Test
     void getMovieInfoById() {
         String movieInfoId = "abc";
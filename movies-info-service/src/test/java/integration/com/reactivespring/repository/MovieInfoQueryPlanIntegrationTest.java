@@ -0,0 +1,85 @@
+package com.reactivespring.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.reactivespring.config.MongoIndexConfig;
+import com.reactivespring.domain.MovieInfo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Fails when a repository query is answered with a collection scan, i.e. when it is missing an index.
+ */
+@DataMongoTest
+@ActiveProfiles("test")
+@Import(MongoIndexConfig.class)
+class MovieInfoQueryPlanIntegrationTest {
+
+    @Autowired
+    MovieInfoRepository movieInfoRepository;
+
+    @Autowired
+    ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Autowired
+    QueryPlanRecorder queryPlanRecorder;
+
+    @BeforeEach
+    void setUp() {
+        var movieinfos = List.of(
+                new MovieInfo(null, "Batman Begins", 2005, List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15")),
+                new MovieInfo(null, "The Dark Knight", 2008, List.of("Christian Bale", "HeathLedger"), LocalDate.parse("2008-07-18")),
+                new MovieInfo("abc", "Dark Knight Rises", 2012, List.of("Christian Bale", "Tom Hardy"), LocalDate.parse("2012-07-20"))
+        );
+
+        movieInfoRepository.saveAll(movieinfos)
+                           .blockLast();
+        queryPlanRecorder.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        movieInfoRepository.deleteAll()
+                           .block();
+    }
+
+    @Test
+    void repositoryQueries_useIndexes() {
+        movieInfoRepository.findByYear(2005).blockLast();
+        movieInfoRepository.findFirstByName("Batman Begins").block();
+        movieInfoRepository.findByIdIn(List.of("abc", new ObjectId().toHexString())).blockLast();
+        movieInfoRepository.findPageAfter(null, 2).blockLast();
+        movieInfoRepository.findPageAfter("abc", 2).blockLast();
+        movieInfoRepository.findPageAfter(new ObjectId().toHexString(), 2).blockLast();
+
+        assertEquals(List.of(), queryPlanRecorder.collectionScans(reactiveMongoTemplate));
+    }
+
+    @TestConfiguration
+    static class QueryPlanConfig {
+
+        @Bean
+        QueryPlanRecorder queryPlanRecorder() {
+            return new QueryPlanRecorder();
+        }
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer queryPlanRecorderCustomizer(QueryPlanRecorder queryPlanRecorder) {
+            return settings -> settings.addCommandListener(queryPlanRecorder);
+        }
+    }
+}
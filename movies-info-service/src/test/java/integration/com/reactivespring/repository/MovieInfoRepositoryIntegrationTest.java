@@ -14,6 +14,7 @@ import com.reactivespring.domain.MovieInfo;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
@@ -121,6 +122,16 @@ class MovieInfoRepositoryIntegrationTest {
                     .verifyComplete();
     }
 
+    @Test
+    void findByIdIn() {
+        Flux<MovieInfo> flux = movieInfoRepository.findByIdIn(List.of("abc", "def"))
+                                                  .log();
+
+        StepVerifier.create(flux)
+                    .expectNextCount(1)
+                    .verifyComplete();
+    }
+
     @Test
     void findFirstByName() {
         Mono<MovieInfo> mono = movieInfoRepository.findFirstByName("Batman Begins")
@@ -130,4 +141,23 @@ class MovieInfoRepositoryIntegrationTest {
                     .expectNextCount(1)
                     .verifyComplete();
     }
-}
\ No newline at end of file
+
+    @Test
+    void saveAllUnordered_existingMovieInfo_replacesDetailsAndKeepsRatingSummary() {
+        movieInfoRepository.save(new MovieInfo("rated", "Dark Knight", 2008, List.of("Christian Bale"), LocalDate.parse("2008-07-18"), 3, 2, 17.0))
+                           .block();
+
+        Mono<MovieInfo> mono = movieInfoRepository.saveAllUnordered(List.of(new MovieInfo("rated", "The Dark Knight", 2008, null, null)))
+                                                  .then(movieInfoRepository.findById("rated"));
+
+        StepVerifier.create(mono)
+                    .assertNext(movieInfo -> {
+                        assertEquals("The Dark Knight", movieInfo.getName());
+                        assertNull(movieInfo.getCast());
+                        assertNull(movieInfo.getReleaseDate());
+                        assertEquals(3, movieInfo.getReviewCount());
+                        assertEquals(8.5, movieInfo.getAverageRating());
+                    })
+                    .verifyComplete();
+    }
+}
@@ -0,0 +1,166 @@
+package com.reactivespring.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.repository.MovieInfoRepository;
+import com.reactivespring.util.EventReplayBuffer.EventId;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import reactor.core.publisher.Sinks;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+                properties = {"movieInfos.ratings.enabled=true", "movieInfos.ratings.window=100ms"})
+@ActiveProfiles("test")
+@AutoConfigureWebTestClient
+class MovieRatingUpdaterIntegrationTest {
+
+    private static final String V1_MOVIE_INFOS_URL = "/v1/movieinfos";
+
+    private static final Duration WINDOW = Duration.ofMillis(100);
+
+    private static final long RUN = 1_000L;
+
+    // stands in for the review stream of movies-review-service, replays everything after the Last-Event-ID, and
+    // everything without one, to the updater once it connects
+    private static final Sinks.Many<Tuple2<Long, String>> REVIEW_EVENTS = Sinks.many().replay().all();
+
+    private static final DisposableServer REVIEW_SERVICE = HttpServer.create()
+                                                                     .port(0)
+                                                                     .route(routes -> routes.get("/v1/reviews/stream", (request, response) -> {
+                                                                         String lastEventId = request.requestHeaders().get("Last-Event-ID");
+                                                                         long after = lastEventId == null ? 0 : EventId.parse(lastEventId).getSequence();
+                                                                         return response.header("Content-Type", MediaType.TEXT_EVENT_STREAM_VALUE)
+                                                                                        .sendString(REVIEW_EVENTS.asFlux()
+                                                                                                                 .filter(event -> event.getT1() > after)
+                                                                                                                 .map(Tuple2::getT2));
+                                                                     }))
+                                                                     .bindNow();
+
+    @Autowired MovieInfoRepository movieInfoRepository;
+
+    @Autowired MovieInfoService movieInfoService;
+
+    @Autowired MovieRatingUpdater movieRatingUpdater;
+
+    @Autowired ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Autowired WebTestClient webTestClient;
+
+    @DynamicPropertySource
+    static void reviewService(DynamicPropertyRegistry registry) {
+        registry.add("movieInfos.ratings.reviewsStreamUrl", () -> "http://localhost:" + REVIEW_SERVICE.port() + "/v1/reviews/stream");
+    }
+
+    @AfterAll
+    static void stopReviewService() {
+        REVIEW_SERVICE.disposeNow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        movieInfoRepository.deleteAll()
+                           .block();
+        reactiveMongoTemplate.dropCollection(MovieRatingUpdater.CURSOR_COLLECTION)
+                             .block();
+    }
+
+    @Test
+    void ratingsFollowTheReviewStream() {
+        movieInfoRepository.save(new MovieInfo("1", "Batman Begins", 2005, List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15")))
+                           .block();
+
+        publishReview(1, "{\"reviewId\": \"a\", \"movieInfoId\": 1, \"comment\": \"Awesome Movie\", \"rating\": 9.0}");
+        publishReview(2, "{\"reviewId\": \"b\", \"movieInfoId\": 1, \"comment\": \"Good Movie\", \"rating\": 7.0}");
+        publishReview(3, "{\"reviewId\": \"c\", \"movieInfoId\": 1, \"comment\": \"No rating\"}");
+        publishReview(4, "{\"reviewId\": \"d\", \"movieInfoId\": 2, \"comment\": \"Unknown movie\", \"rating\": 1.0}");
+
+        awaitReviewCount(3);
+
+        webTestClient.get()
+                     .uri(V1_MOVIE_INFOS_URL + "/{id}", "1")
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectBody()
+                     .jsonPath("$.reviewCount").isEqualTo(3)
+                     .jsonPath("$.averageRating").isEqualTo(8.0);
+
+        // an update of the details neither resets nor takes over the rating summary
+        webTestClient.put()
+                     .uri(V1_MOVIE_INFOS_URL + "/{id}", "1")
+                     .bodyValue("{\"id\": \"1\", \"name\": \"Batman Begins 1\", \"year\": 2005, \"cast\": [\"Christian Bale\"], "
+                                + "\"releaseDate\": \"2005-06-15\", \"reviewCount\": 100}")
+                     .header("Content-Type", MediaType.APPLICATION_JSON_VALUE)
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectBody()
+                     .jsonPath("$.name").isEqualTo("Batman Begins 1")
+                     .jsonPath("$.reviewCount").isEqualTo(3)
+                     .jsonPath("$.averageRating").isEqualTo(8.0);
+
+        // a restarted updater resumes after the last written review
+        movieRatingUpdater.stop();
+        publishReview(5, "{\"reviewId\": \"e\", \"movieInfoId\": 1, \"comment\": \"Great Movie\", \"rating\": 10.0}");
+        MovieRatingUpdater restarted = newUpdater();
+        restarted.start();
+        try {
+            MovieInfo movieInfo = awaitReviewCount(4);
+            assertEquals(4, movieInfo.getReviewCount());
+            assertEquals(26.0 / 3, movieInfo.getAverageRating(), 1e-9);
+        } finally {
+            restarted.stop();
+        }
+
+        // without its cursor the updater reads the whole stream again, the written reviews are not counted twice
+        reactiveMongoTemplate.dropCollection(MovieRatingUpdater.CURSOR_COLLECTION)
+                             .block();
+        publishReview(6, "{\"reviewId\": \"f\", \"movieInfoId\": 1, \"comment\": \"Fine Movie\", \"rating\": 4.0}");
+        MovieRatingUpdater replaying = newUpdater();
+        replaying.start();
+        try {
+            MovieInfo movieInfo = awaitReviewCount(5);
+            assertEquals(5, movieInfo.getReviewCount());
+            assertEquals(7.5, movieInfo.getAverageRating(), 1e-9);
+        } finally {
+            replaying.stop();
+        }
+    }
+
+    private MovieRatingUpdater newUpdater() {
+        return new MovieRatingUpdater(WebClient.create(), reactiveMongoTemplate, movieInfoService,
+                                      "http://localhost:" + REVIEW_SERVICE.port() + "/v1/reviews/stream", WINDOW, 1000);
+    }
+
+    private MovieInfo awaitReviewCount(long reviewCount) {
+        return movieInfoRepository.findById("1")
+                                  .filter(movieInfo -> movieInfo.getReviewCount() >= reviewCount)
+                                  .repeatWhenEmpty(repeat -> repeat.delayElements(Duration.ofMillis(100)))
+                                  .block(Duration.ofSeconds(10));
+    }
+
+    private static void publishReview(long sequence, String review) {
+        REVIEW_EVENTS.tryEmitNext(Tuples.of(sequence, "id:" + new EventId(RUN, sequence) + "\ndata:" + review + "\n\n"));
+    }
+}
@@ -7,14 +7,18 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import com.reactivespring.config.SignalLoggingConfig;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import reactor.core.publisher.Flux;
 import reactor.test.StepVerifier;
 
 @WebFluxTest(controllers = FluxAndMonoController.class)
 @AutoConfigureWebTestClient
+@Import(SignalLoggingConfig.class)
 class FluxAndMonoControllerTest {
 
     @Autowired WebTestClient webTestClient;
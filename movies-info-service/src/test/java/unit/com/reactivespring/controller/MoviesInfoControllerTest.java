@@ -1,26 +1,52 @@
 package com.reactivespring.controller;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import com.reactivespring.config.CodecConfig;
+import com.reactivespring.config.SignalLoggingConfig;
+import com.reactivespring.config.StreamReplayConfig;
+import com.reactivespring.config.StreamSubscriberConfig;
 import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.MovieInfoImportResult;
+import com.reactivespring.domain.MovieInfoSuggestion;
 import com.reactivespring.service.MovieInfoService;
+import com.reactivespring.util.CursorPage;
+import com.reactivespring.util.EventReplayBuffer;
+import com.reactivespring.util.EventReplayBuffer.EventId;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
 @WebFluxTest(controllers = MoviesInfoController.class)
 @AutoConfigureWebTestClient
+@Import({CodecConfig.class, SignalLoggingConfig.class, StreamReplayConfig.class, StreamSubscriberConfig.class, SimpleMeterRegistry.class})
 class MoviesInfoControllerTest {
 
     private final String V1_MOVIE_INFOS_URL = "/v1/movieinfos";
@@ -29,23 +55,317 @@ class MoviesInfoControllerTest {
 
     @MockBean MovieInfoService movieInfoService;
 
+    @Autowired EventReplayBuffer<MovieInfo> movieInfoEvents;
+
     @Test
     void getAllMoviesInfo() {
-        when(movieInfoService.getAllMovieInfos()).thenReturn(Flux.fromIterable(List.of(
+        when(movieInfoService.getMovieInfosPage(null, 100)).thenReturn(Mono.just(CursorPage.of(List.of(
                 new MovieInfo(null, "Batman Begins", 2005, List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15")),
                 new MovieInfo(null, "The Dark Knight", 2008, List.of("Christian Bale", "HeathLedger"), LocalDate.parse("2008-07-18")),
                 new MovieInfo("abc", "Dark Knight Rises", 2012, List.of("Christian Bale", "Tom Hardy"), LocalDate.parse("2012-07-20"))
-        )));
+        ), 100, MovieInfo::getId)));
 
         webTestClient.get()
                      .uri(V1_MOVIE_INFOS_URL)
                      .exchange()
                      .expectStatus()
                      .is2xxSuccessful()
+                     .expectHeader()
+                     .doesNotExist(CursorPage.NEXT_CURSOR_HEADER)
                      .expectBodyList(MovieInfo.class)
                      .hasSize(3);
     }
 
+    @Test
+    void getAllMoviesInfo_paginated() {
+        List<MovieInfo> fetched = List.of(
+                new MovieInfo("abc", "Batman Begins", 2005, List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15")),
+                new MovieInfo("def", "The Dark Knight", 2008, List.of("Christian Bale", "HeathLedger"), LocalDate.parse("2008-07-18")),
+                new MovieInfo("ghi", "Dark Knight Rises", 2012, List.of("Christian Bale", "Tom Hardy"), LocalDate.parse("2012-07-20"))
+        );
+
+        when(movieInfoService.getMovieInfosPage("def", 2)).thenReturn(Mono.just(CursorPage.of(fetched.subList(2, 3), 2, MovieInfo::getId)));
+        when(movieInfoService.getMovieInfosPage(null, 2)).thenReturn(Mono.just(CursorPage.of(fetched, 2, MovieInfo::getId)));
+
+        String nextCursor = webTestClient.get()
+                                         .uri(uriBuilder -> uriBuilder.path(V1_MOVIE_INFOS_URL)
+                                                                      .queryParam("limit", 2)
+                                                                      .build())
+                                         .exchange()
+                                         .expectStatus()
+                                         .isOk()
+                                         .expectBodyList(MovieInfo.class)
+                                         .hasSize(2)
+                                         .returnResult()
+                                         .getResponseHeaders()
+                                         .getFirst(CursorPage.NEXT_CURSOR_HEADER);
+
+        assertEquals(CursorPage.encodeCursor("def"), nextCursor);
+
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder.path(V1_MOVIE_INFOS_URL)
+                                                  .queryParam("limit", 2)
+                                                  .queryParam("cursor", nextCursor)
+                                                  .build())
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectHeader()
+                     .doesNotExist(CursorPage.NEXT_CURSOR_HEADER)
+                     .expectBodyList(MovieInfo.class)
+                     .hasSize(1);
+    }
+
+    @Test
+    void getAllMoviesInfo_enforcesMaxPageSize() {
+        when(movieInfoService.getMovieInfosPage(null, 1000)).thenReturn(Mono.just(CursorPage.of(List.of(), 1000, MovieInfo::getId)));
+
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder.path(V1_MOVIE_INFOS_URL)
+                                                  .queryParam("limit", 1_000_000)
+                                                  .build())
+                     .exchange()
+                     .expectStatus()
+                     .isOk();
+
+        verify(movieInfoService).getMovieInfosPage(null, 1000);
+    }
+
+    @Test
+    void getAllMoviesInfo_invalidCursor() {
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder.path(V1_MOVIE_INFOS_URL)
+                                                  .queryParam("cursor", "not a cursor!")
+                                                  .build())
+                     .exchange()
+                     .expectStatus()
+                     .isBadRequest();
+    }
+
+    @Test
+    void streamAddedMovieInfos_ndjson() {
+        MovieInfo movieInfo = new MovieInfo("mockId", "Batman Begins", 2005, List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15"));
+        when(movieInfoService.addMovie(isA(MovieInfo.class))).thenReturn(Mono.just(movieInfo));
+        addMovieInfo(movieInfo);
+
+        Flux<MovieInfo> movieInfos = webTestClient.get()
+                                                  .uri(V1_MOVIE_INFOS_URL + "/stream")
+                                                  .exchange()
+                                                  .expectStatus()
+                                                  .isOk()
+                                                  .expectHeader()
+                                                  .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                                                  .returnResult(MovieInfo.class)
+                                                  .getResponseBody();
+
+        StepVerifier.create(movieInfos)
+                    .expectNext(movieInfo)
+                    .thenCancel()
+                    .verify();
+    }
+
+    @Test
+    void streamAddedMovieInfoEvents_resumesFromLastEventId() {
+        List<MovieInfo> added = List.of(
+                new MovieInfo("abc", "Batman Begins", 2005, List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15")),
+                new MovieInfo("def", "The Dark Knight", 2008, List.of("Christian Bale", "HeathLedger"), LocalDate.parse("2008-07-18")),
+                new MovieInfo("ghi", "Dark Knight Rises", 2012, List.of("Christian Bale", "Tom Hardy"), LocalDate.parse("2012-07-20"))
+        );
+        when(movieInfoService.addMovie(isA(MovieInfo.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        added.forEach(this::addMovieInfo);
+
+        EventId lastEventId = movieInfoEvents.lastEventId();
+        Flux<ServerSentEvent<MovieInfo>> events = webTestClient.get()
+                                                               .uri(V1_MOVIE_INFOS_URL + "/stream")
+                                                               .accept(MediaType.TEXT_EVENT_STREAM)
+                                                               .header("Last-Event-ID", lastEventId.minus(2).toString())
+                                                               .exchange()
+                                                               .expectStatus()
+                                                               .isOk()
+                                                               .returnResult(new ParameterizedTypeReference<ServerSentEvent<MovieInfo>>() {})
+                                                               .getResponseBody();
+
+        StepVerifier.create(events)
+                    .assertNext(event -> {
+                        assertEquals(lastEventId.minus(1).toString(), event.id());
+                        assertEquals(added.get(1), event.data());
+                    })
+                    .assertNext(event -> {
+                        assertEquals(lastEventId.toString(), event.id());
+                        assertEquals(added.get(2), event.data());
+                    })
+                    .thenCancel()
+                    .verify();
+    }
+
+    @Test
+    void streamAddedMovieInfoEvents_unknownLastEventId_resyncs() {
+        EventId lastEventId = movieInfoEvents.lastEventId();
+
+        Flux<ServerSentEvent<MovieInfo>> events = webTestClient.get()
+                                                               .uri(V1_MOVIE_INFOS_URL + "/stream")
+                                                               .accept(MediaType.TEXT_EVENT_STREAM)
+                                                               .header("Last-Event-ID", lastEventId.minus(-100).toString())
+                                                               .exchange()
+                                                               .expectStatus()
+                                                               .isOk()
+                                                               .returnResult(new ParameterizedTypeReference<ServerSentEvent<MovieInfo>>() {})
+                                                               .getResponseBody();
+
+        StepVerifier.create(events)
+                    .assertNext(event -> {
+                        assertEquals(EventReplayBuffer.RESYNC_EVENT, event.event());
+                        assertEquals(lastEventId.toString(), event.id());
+                    })
+                    .thenCancel()
+                    .verify();
+    }
+
+    private void addMovieInfo(MovieInfo movieInfo) {
+        webTestClient.post()
+                     .uri(V1_MOVIE_INFOS_URL)
+                     .bodyValue(movieInfo)
+                     .exchange()
+                     .expectStatus()
+                     .isCreated();
+    }
+
+    @Test
+    void importMovieInfos() {
+        when(movieInfoService.importMovieInfos(any()))
+                .thenAnswer(invocation -> invocation.<Flux<String>>getArgument(0)
+                                                    .count()
+                                                    .map(count -> new MovieInfoImportResult(count, 0, new ArrayList<>())));
+
+        String body = String.join("\n",
+                                  "{\"name\": \"Batman Begins\", \"year\": 2005, \"cast\": [\"Christian Bale\"], \"releaseDate\": \"2005-06-15\"}",
+                                  "{\"id\": \"abc\", \"name\": \"Dark Knight Rises\", \"year\": 2012, \"cast\": [\"Christian Bale\"], \"releaseDate\": \"2012-07-20\"}");
+
+        webTestClient.post()
+                     .uri(V1_MOVIE_INFOS_URL + "/import")
+                     .contentType(MediaType.APPLICATION_NDJSON)
+                     .bodyValue(body)
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectBody(MovieInfoImportResult.class)
+                     .isEqualTo(new MovieInfoImportResult(2, 0, List.of()));
+    }
+
+    @Test
+    void exportMovieInfos() {
+        List<MovieInfo> movieInfos = List.of(
+                new MovieInfo("abc", "Batman Begins", 2005, List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15")),
+                new MovieInfo("def", "The Dark Knight", 2008, List.of("Christian Bale", "HeathLedger"), LocalDate.parse("2008-07-18")),
+                new MovieInfo("ghi", "Dark Knight Rises", 2012, List.of("Christian Bale", "Tom Hardy"), LocalDate.parse("2012-07-20"))
+        );
+
+        when(movieInfoService.exportMovieInfos()).thenReturn(Flux.fromIterable(movieInfos));
+
+        webTestClient.get()
+                     .uri(V1_MOVIE_INFOS_URL + "/export")
+                     .accept(MediaType.APPLICATION_NDJSON)
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectHeader()
+                     .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                     .expectBodyList(MovieInfo.class)
+                     .isEqualTo(movieInfos);
+    }
+
+    @Test
+    void searchMovieInfos() {
+        when(movieInfoService.searchMovieInfos("dark knight", 20)).thenReturn(Flux.just(
+                new MovieInfo("def", "The Dark Knight", 2008, List.of("Christian Bale", "HeathLedger"), LocalDate.parse("2008-07-18")),
+                new MovieInfo("abc", "Dark Knight Rises", 2012, List.of("Christian Bale", "Tom Hardy"), LocalDate.parse("2012-07-20"))
+        ));
+
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder.path(V1_MOVIE_INFOS_URL + "/search")
+                                                  .queryParam("q", "dark knight")
+                                                  .build())
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectBody()
+                     .jsonPath("$[0].id").isEqualTo("def")
+                     .jsonPath("$[1].id").isEqualTo("abc");
+    }
+
+    @Test
+    void searchMovieInfos_capsTheLimit() {
+        when(movieInfoService.searchMovieInfos("dark", 100)).thenReturn(Flux.empty());
+
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder.path(V1_MOVIE_INFOS_URL + "/search")
+                                                  .queryParam("q", "dark")
+                                                  .queryParam("limit", 5000)
+                                                  .build())
+                     .exchange()
+                     .expectStatus()
+                     .isOk();
+
+        verify(movieInfoService).searchMovieInfos("dark", 100);
+    }
+
+    @Test
+    void suggestMovieInfos() {
+        when(movieInfoService.suggestMovieInfos("dark kn", 10)).thenReturn(Flux.just(
+                new MovieInfoSuggestion("def", "The Dark Knight", 2008, 300, 9.0),
+                new MovieInfoSuggestion("abc", "Dark Knight Rises", 2012, 200, 8.0)
+        ));
+
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder.path(V1_MOVIE_INFOS_URL + "/suggest")
+                                                  .queryParam("prefix", "dark kn")
+                                                  .queryParam("limit", 50)
+                                                  .build())
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectBodyList(MovieInfoSuggestion.class)
+                     .isEqualTo(List.of(new MovieInfoSuggestion("def", "The Dark Knight", 2008, 300, 9.0),
+                                        new MovieInfoSuggestion("abc", "Dark Knight Rises", 2012, 200, 8.0)));
+    }
+
+    @Test
+    void getMovieInfosByIds() {
+        List<String> ids = List.of("abc", "def");
+
+        when(movieInfoService.getMovieInfosByIds(ids)).thenReturn(Flux.just(
+                new MovieInfo("abc", "Dark Knight Rises", 2012, List.of("Christian Bale", "Tom Hardy"), LocalDate.parse("2012-07-20")),
+                new MovieInfo("def", "The Dark Knight", 2008, List.of("Christian Bale", "HeathLedger"), LocalDate.parse("2008-07-18"))
+        ));
+
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder.path(V1_MOVIE_INFOS_URL)
+                                                  .queryParam("ids", "abc,def")
+                                                  .build())
+                     .exchange()
+                     .expectStatus()
+                     .is2xxSuccessful()
+                     .expectBodyList(MovieInfo.class)
+                     .hasSize(2);
+    }
+
+    @Test
+    void getMovieInfosByIds_tooManyIds_badRequest() {
+        String ids = IntStream.rangeClosed(1, 101)
+                              .mapToObj(String::valueOf)
+                              .collect(Collectors.joining(","));
+
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder.path(V1_MOVIE_INFOS_URL)
+                                                  .queryParam("ids", ids)
+                                                  .build())
+                     .exchange()
+                     .expectStatus()
+                     .isBadRequest();
+
+        verifyNoInteractions(movieInfoService);
+    }
+
     @Test
     void getMovieInfoById() {
 
@@ -64,6 +384,41 @@ class MoviesInfoControllerTest {
                      .jsonPath("$.name").isEqualTo(movieInfo.getName());
     }
 
+    @Test
+    void getMovieInfoById_smile() {
+        String id = "abc";
+        MovieInfo movieInfo = new MovieInfo(id, "Dark Knight Rises", 2012, List.of("Christian Bale", "Tom Hardy"), LocalDate.parse("2012-07-20"));
+
+        when(movieInfoService.getMovieInfoById(id)).thenReturn(Mono.just(movieInfo));
+
+        webTestClient.get()
+                     .uri(V1_MOVIE_INFOS_URL + "/{id}", id)
+                     .accept(CodecConfig.APPLICATION_SMILE, MediaType.APPLICATION_JSON)
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectHeader()
+                     .contentType(CodecConfig.APPLICATION_SMILE)
+                     .expectBody(MovieInfo.class)
+                     .isEqualTo(movieInfo);
+    }
+
+    @Test
+    void getMovieInfoById_defaultsToJson() {
+        String id = "abc";
+
+        when(movieInfoService.getMovieInfoById(id)).thenReturn(Mono.just(
+                new MovieInfo(id, "Dark Knight Rises", 2012, List.of("Christian Bale", "Tom Hardy"), LocalDate.parse("2012-07-20"))));
+
+        webTestClient.get()
+                     .uri(V1_MOVIE_INFOS_URL + "/{id}", id)
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectHeader()
+                     .contentType(MediaType.APPLICATION_JSON);
+    }
+
     @Test
     void addMovieInfo() {
         MovieInfo movieInfo = new MovieInfo(null, "Batman Begins 1", 2005, List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15"));
@@ -87,6 +442,21 @@ class MoviesInfoControllerTest {
                      });
     }
 
+    @Test
+    void addMovieInfo_existingId_returnsConflict() {
+        MovieInfo movieInfo = new MovieInfo("abc", "Batman Begins 1", 2005, List.of("Christian Bale", "Michael Cane"), LocalDate.parse("2005-06-15"));
+
+        when(movieInfoService.addMovie(movieInfo))
+                .thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key error")));
+
+        webTestClient.post()
+                     .uri(V1_MOVIE_INFOS_URL)
+                     .bodyValue(movieInfo)
+                     .exchange()
+                     .expectStatus()
+                     .isEqualTo(HttpStatus.CONFLICT);
+    }
+
     @Test
     void validatesMovieInfo_onAddMovieInfo() {
         MovieInfo movieInfo = new MovieInfo(null, "", -2005, List.of(""), LocalDate.parse("2005-06-15"));
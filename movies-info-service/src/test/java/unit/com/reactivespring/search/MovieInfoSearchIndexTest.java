@@ -0,0 +1,73 @@
+package com.reactivespring.search;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.reactivespring.domain.MovieInfo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MovieInfoSearchIndexTest {
+
+    private MovieInfoSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() {
+        // only load() reads the repository
+        searchIndex = new MovieInfoSearchIndex(null, 1000, 4);
+
+        searchIndex.index(new MovieInfo("1", "Batman Begins", 2005, List.of("Christian Bale", "Michael Caine"), LocalDate.parse("2005-06-15")));
+        searchIndex.index(new MovieInfo("2", "The Dark Knight", 2008, List.of("Christian Bale", "Heath Ledger"), LocalDate.parse("2008-07-18")));
+        searchIndex.index(new MovieInfo("3", "The Dark Knight Rises", 2012, List.of("Christian Bale", "Tom Hardy"), LocalDate.parse("2012-07-20")));
+        searchIndex.index(new MovieInfo("4", "Amélie", 2001, List.of("Audrey Tautou"), LocalDate.parse("2001-04-25")));
+    }
+
+    @Test
+    void search_ranksNameAboveCastAndRareTermsAboveCommonOnes() {
+        assertEquals(List.of("1", "2", "3"), searchIndex.search("bale", 10));
+        assertEquals(List.of("3", "2"), searchIndex.search("dark rises", 10));
+        assertEquals(List.of("2", "3"), searchIndex.search("KNIGHT", 10));
+        assertEquals(List.of("2", "3", "1"), searchIndex.search("ledger knight bale", 10));
+    }
+
+    @Test
+    void search_ignoresAccentsAndPunctuation() {
+        assertEquals(List.of("4"), searchIndex.search("amelie", 10));
+        assertEquals(List.of("4"), searchIndex.search("  Tautou, Audrey!", 10));
+    }
+
+    @Test
+    void search_returnsAtMostLimitMatches() {
+        assertEquals(List.of("1", "2"), searchIndex.search("christian", 2));
+        assertEquals(List.of(), searchIndex.search("christian", 0));
+        assertEquals(List.of(), searchIndex.search("joker", 10));
+        assertEquals(List.of(), searchIndex.search(" ", 10));
+    }
+
+    @Test
+    void search_onlySearchesTheFirstMaxTermsDistinctTerms() {
+        assertEquals(List.of(), searchIndex.search("joker penguin riddler catwoman bale", 10));
+        assertEquals(List.of("1"), searchIndex.search("joker joker joker joker batman", 10));
+    }
+
+    @Test
+    void index_replacesTheTermsOfAnIndexedMovieInfo() {
+        searchIndex.index(new MovieInfo("2", "The Joker", 2019, List.of("Joaquin Phoenix"), LocalDate.parse("2019-10-04")));
+
+        assertEquals(List.of("3"), searchIndex.search("knight", 10));
+        assertEquals(List.of("1", "3"), searchIndex.search("bale", 10));
+        assertEquals(List.of("2"), searchIndex.search("joker", 10));
+    }
+
+    @Test
+    void remove_dropsTheMovieInfoFromAllTerms() {
+        searchIndex.remove("1");
+        searchIndex.remove("unknown");
+
+        assertEquals(List.of("2", "3"), searchIndex.search("bale", 10));
+        assertEquals(List.of(), searchIndex.search("batman", 10));
+    }
+}
@@ -0,0 +1,106 @@
+package com.reactivespring.search;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.reactivespring.domain.MovieInfo;
+import com.reactivespring.domain.MovieInfoSuggestion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MovieInfoSuggesterTest {
+
+    private MovieInfoSuggester suggester;
+
+    @BeforeEach
+    void setUp() {
+        // only load() reads the repository
+        suggester = new MovieInfoSuggester(null, 1000, 3);
+
+        suggester.index(movieInfo("1", "Batman Begins", 100, 80, 720.0));
+        suggester.index(movieInfo("2", "The Dark Knight", 300, 300, 2700.0));
+        suggester.index(movieInfo("3", "The Dark Knight Rises", 200, 200, 1600.0));
+        suggester.index(movieInfo("4", "Darkest Hour", 200, 200, 1500.0));
+        suggester.index(movieInfo("5", "Amélie", 0, 0, 0.0));
+    }
+
+    @Test
+    void suggest_matchesAnyWordStartByPopularity() {
+        assertEquals(List.of("2", "3", "4"), suggest("dark", 10));
+        assertEquals(List.of("2", "3"), suggest("knig", 10));
+        assertEquals(List.of("2", "3"), suggest("the dark k", 10));
+        assertEquals(List.of("3"), suggest("RIS", 10));
+        assertEquals(List.of("5"), suggest("ame", 10));
+    }
+
+    @Test
+    void suggest_ranksByReviewCountThenRating() {
+        // 3 and 4 have as many reviews, 3 is better rated
+        assertEquals(List.of("2", "3", "4"), suggest("d", 10));
+        assertEquals(List.of("2", "3"), suggest("d", 2));
+    }
+
+    @Test
+    void suggest_withTrailingSeparator_matchesWholeWordsOnly() {
+        assertEquals(List.of("2", "3"), suggest("dark ", 10));
+        assertEquals(List.of(), suggest("darkness", 10));
+        assertEquals(List.of(), suggest("  ", 10));
+    }
+
+    @Test
+    void suggest_withTrailingSeparator_matchesTheWordAtTheEndOfTheName() {
+        suggester.index(movieInfo("6", "Dark", 400, 400, 2800.0));
+        suggester.index(movieInfo("7", "Into the Dark", 250, 250, 1500.0));
+
+        assertEquals(List.of("6", "2", "7"), suggest("dark ", 10));
+        assertEquals(List.of("2", "7", "3"), suggest("the dark ", 10));
+        assertEquals(List.of("3"), suggest("the dark knight rises ", 10));
+    }
+
+    @Test
+    void suggest_returnsAtMostTopK() {
+        suggester.index(movieInfo("6", "Dark City", 10, 10, 70.0));
+
+        assertEquals(List.of("2", "3", "4"), suggest("d", 100));
+    }
+
+    @Test
+    void index_followsRenamesAndRatings() {
+        suggester.index(movieInfo("2", "The Joker", 300, 300, 2700.0));
+        assertEquals(List.of("3"), suggest("knight", 10));
+        assertEquals(List.of("2"), suggest("jok", 10));
+        assertEquals(List.of("3", "4"), suggest("dark", 10));
+
+        suggester.index(movieInfo("4", "Darkest Hour", 1000, 1000, 9000.0));
+        assertEquals(List.of("4", "3"), suggest("dark", 10));
+    }
+
+    @Test
+    void remove_dropsTheSuggestionFromAllWordStarts() {
+        suggester.remove("3");
+        suggester.remove("unknown");
+
+        assertEquals(List.of("2"), suggest("knight", 10));
+        assertEquals(List.of(), suggest("rises", 10));
+        assertEquals(List.of("2", "4"), suggest("dark", 10));
+
+        suggester.index(movieInfo("6", "Knight Rider", 50, 50, 350.0));
+        assertEquals(List.of("2", "6"), suggest("knight", 10));
+        assertEquals(List.of("6"), suggest("rid", 10));
+    }
+
+    private List<String> suggest(String prefix, int limit) {
+        return suggester.suggest(prefix, limit)
+                        .stream()
+                        .map(MovieInfoSuggestion::getId)
+                        .collect(Collectors.toList());
+    }
+
+    private static MovieInfo movieInfo(String id, String name, long reviewCount, long ratingCount, double ratingSum) {
+        return new MovieInfo(id, name, 2000, List.of(), LocalDate.parse("2000-01-01"), reviewCount, ratingCount, ratingSum);
+    }
+}
@@ -0,0 +1,33 @@
+package com.reactivespring.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import com.reactivespring.domain.Review;
+import com.reactivespring.util.ChangeStreamFeed;
+import com.reactivespring.util.EventReplayBuffer;
+
+/**
+ * With {@code reviews.stream.changeStream.enabled} the review stream is fed from the change stream of the review
+ * collection instead of this instance's own writes, so it carries the reviews added through any instance. Every
+ * instance saves its resume token under {@code reviews.stream.changeStream.instanceId}, the host name by default.
+ */
+@Configuration
+@ConditionalOnProperty(name = "reviews.stream.changeStream.enabled", havingValue = "true")
+public class ChangeStreamConfig {
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    public ChangeStreamFeed<Review> reviewChangeStreamFeed(ReactiveMongoTemplate reactiveMongoTemplate,
+                                                           EventReplayBuffer<Review> reviewEvents,
+                                                           @Value("${reviews.stream.changeStream.resumeTokenSaveInterval:1s}") Duration resumeTokenSaveInterval,
+                                                           @Value("${reviews.stream.changeStream.instanceId:${HOSTNAME:local}}") String instanceId) {
+        String collectionName = reactiveMongoTemplate.getCollectionName(Review.class);
+        return new ChangeStreamFeed<>(reactiveMongoTemplate, collectionName, collectionName + "@" + instanceId, Review.class,
+                                      reviewEvents, resumeTokenSaveInterval);
+    }
+}
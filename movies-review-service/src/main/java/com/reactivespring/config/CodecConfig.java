@@ -0,0 +1,40 @@
+package com.reactivespring.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Registers the binary Smile codec next to JSON for service to service calls. JSON stays the default, Smile is
+ * only used when a caller asks for {@link #APPLICATION_SMILE} in its Accept header.
+ */
+@Configuration
+public class CodecConfig {
+
+    public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+
+    @Bean
+    public CodecCustomizer smileCodecCustomizer(ObjectMapper objectMapper,
+                                                ObjectProvider<Jackson2ObjectMapperBuilderCustomizer> objectMapperBuilderCustomizers) {
+        Jackson2ObjectMapperBuilder smileMapperBuilder = Jackson2ObjectMapperBuilder.smile();
+        objectMapperBuilderCustomizers.orderedStream()
+                                      .forEach(customizer -> customizer.customize(smileMapperBuilder));
+        ObjectMapper smileMapper = smileMapperBuilder.build();
+
+        return configurer -> {
+            // custom writers are consulted before the default ones, JSON is registered again first to keep it the default
+            configurer.customCodecs().register(new Jackson2JsonEncoder(objectMapper));
+            configurer.customCodecs().register(new Jackson2SmileEncoder(smileMapper, APPLICATION_SMILE));
+            configurer.customCodecs().register(new Jackson2SmileDecoder(smileMapper, APPLICATION_SMILE));
+        };
+    }
+}
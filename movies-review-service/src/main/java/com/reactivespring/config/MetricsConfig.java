@@ -0,0 +1,37 @@
+package com.reactivespring.config;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsCommandListener;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Server timers ({@code http.server.requests}) come from the actuator, their percentiles, histogram and SLO buckets
+ * are configured under {@code management.metrics.distribution}. Everything is scraped from
+ * {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    @PostConstruct
+    public void enableSchedulerMetrics() {
+        // Reactor registers its executors in the global registry, which the actuator registries are added to
+        Schedulers.enableMetrics();
+    }
+
+    /**
+     * {@code mongodb.driver.commands} timers and {@code mongodb.driver.pool.*} gauges, this Spring Boot version does
+     * not register them on its own.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoMetricsCustomizer(MeterRegistry meterRegistry) {
+        return settings -> settings.addCommandListener(new MongoMetricsCommandListener(meterRegistry))
+                                   .applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(new MongoMetricsConnectionPoolListener(meterRegistry)));
+    }
+}
@@ -0,0 +1,45 @@
+package com.reactivespring.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+
+/**
+ * Creates the indexes declared on the documents ({@code @Indexed}, {@code @CompoundIndex}) once the beans are created,
+ * before the web server starts, so no request is served before the indexes exist. Spring Data no longer creates them
+ * on its own. Creating an index that already exists is a no-op.
+ * <p>
+ * The same configuration creates the indexes of movies-info-service and movies-review-service.
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class MongoIndexConfig implements SmartInitializingSingleton {
+
+    private static final Duration INDEX_CREATION_TIMEOUT = Duration.ofMinutes(1);
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+    private final MongoMappingContext mongoMappingContext;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        IndexResolver indexResolver = new MongoPersistentEntityIndexResolver(mongoMappingContext);
+
+        Flux.fromIterable(mongoMappingContext.getPersistentEntities())
+            .filter(entity -> entity.isAnnotationPresent(Document.class))
+            .concatMap(entity -> Flux.fromIterable(indexResolver.resolveIndexFor(entity.getType()))
+                                     .concatMap(reactiveMongoTemplate.indexOps(entity.getType())::ensureIndex)
+                                     .doOnNext(indexName -> log.info("Ensured index {} on {}", indexName, entity.getCollection())))
+            .blockLast(INDEX_CREATION_TIMEOUT);
+    }
+}
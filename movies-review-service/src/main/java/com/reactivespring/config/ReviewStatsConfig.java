@@ -0,0 +1,33 @@
+package com.reactivespring.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+import com.reactivespring.repository.ReviewStatsRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * With {@code reviews.stats.rebuildOnStartup} the per-movie review stats are recomputed from the reviews once the
+ * application is up, see {@link ReviewStatsRepository#rebuild()}. Meant for a single start after the stats drifted,
+ * e.g. after reviews were written or restored past the service.
+ */
+@Configuration
+@ConditionalOnProperty(name = "reviews.stats.rebuildOnStartup", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ReviewStatsConfig {
+
+    private final ReviewStatsRepository reviewStatsRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildReviewStats() {
+        reviewStatsRepository.rebuild()
+                             .subscribe(null,
+                                        e -> log.error("Failed to rebuild the review stats", e),
+                                        () -> log.info("Rebuilt the review stats from the reviews"));
+    }
+}
@@ -0,0 +1,25 @@
+package com.reactivespring.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.reactivespring.stream.ReviewStreamProperties;
+import com.reactivespring.stream.StreamSubscribers;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+@EnableConfigurationProperties(ReviewStreamProperties.class)
+public class StreamSubscriberConfig {
+
+    @Bean
+    public StreamSubscribers reviewNdjsonSubscribers(ReviewStreamProperties streamProperties, MeterRegistry meterRegistry) {
+        return new StreamSubscribers("reviews.ndjson", streamProperties.getNdjson(), meterRegistry);
+    }
+
+    @Bean
+    public StreamSubscribers reviewEventSubscribers(ReviewStreamProperties streamProperties, MeterRegistry meterRegistry) {
+        return new StreamSubscribers("reviews.events", streamProperties.getEvents(), meterRegistry);
+    }
+}
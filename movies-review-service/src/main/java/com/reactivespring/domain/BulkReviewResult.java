@@ -0,0 +1,35 @@
+package com.reactivespring.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one line of a bulk review upload, {@link #line} is the 1-based line number in the request body.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkReviewResult {
+
+    private long line;
+
+    private String reviewId;
+
+    private Status status;
+
+    private String error;
+
+    public static BulkReviewResult created(long line, String reviewId) {
+        return new BulkReviewResult(line, reviewId, Status.CREATED, null);
+    }
+
+    public static BulkReviewResult rejected(long line, String reviewId, String error) {
+        return new BulkReviewResult(line, reviewId, Status.REJECTED, error);
+    }
+
+    public enum Status {
+        CREATED,
+        REJECTED
+    }
+}
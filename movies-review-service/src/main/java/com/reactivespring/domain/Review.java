@@ -4,6 +4,7 @@ import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import lombok.AllArgsConstructor;
@@ -14,6 +15,8 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document
+// reviews of one or more movies, kept in _id order so they can be paged the same way as the full listing
+@CompoundIndex(name = "movieInfoId_id", def = "{'movieInfoId': 1, '_id': 1}")
 public class Review {
 
     @Id
@@ -0,0 +1,36 @@
+package com.reactivespring.domain;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-movie rating aggregate, kept up to date on every review write so reads never have to scan the reviews.
+ * Reviews without a rating are counted in {@link #reviewCount} but left out of the average.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Document
+public class ReviewStats {
+
+    @Id
+    private Long movieInfoId;
+
+    private long reviewCount;
+
+    private long ratingCount;
+
+    private double ratingSum;
+
+    public static ReviewStats empty(Long movieInfoId) {
+        return new ReviewStats(movieInfoId, 0, 0, 0);
+    }
+
+    public Double getAverageRating() {
+        return ratingCount == 0 ? null : ratingSum / ratingCount;
+    }
+}
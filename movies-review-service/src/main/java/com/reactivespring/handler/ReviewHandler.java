@@ -1,5 +1,8 @@
 package com.reactivespring.handler;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -7,21 +10,35 @@ import java.util.stream.Collectors;
 import javax.validation.ConstraintViolation;
 import javax.validation.Validator;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reactivespring.config.CodecConfig;
+import com.reactivespring.domain.BulkReviewResult;
 import com.reactivespring.domain.Review;
+import com.reactivespring.domain.ReviewStats;
 import com.reactivespring.exception.ReviewDataException;
+import com.reactivespring.logging.SignalLogger;
 import com.reactivespring.repository.ReviewReactiveRepository;
+import com.reactivespring.repository.ReviewStatsRepository;
+import com.reactivespring.stream.StreamSubscribers;
+import com.reactivespring.util.CursorPage;
+import com.reactivespring.util.EventReplayBuffer;
 
+import lombok.AllArgsConstructor;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.publisher.Sinks;
 
 @Component
 @RequiredArgsConstructor
@@ -30,74 +47,315 @@ public class ReviewHandler {
 
     private final Validator validator;
     private final ReviewReactiveRepository reviewReactiveRepository;
+    private final ReviewStatsRepository reviewStatsRepository;
 
-    private Sinks.Many<Review> reviewSink = Sinks.many().replay().latest();
+    private final ObjectMapper objectMapper;
+    private final EventReplayBuffer<Review> reviewEvents;
+
+    // resolved by name, one per streaming endpoint
+    private final StreamSubscribers reviewNdjsonSubscribers;
+    private final StreamSubscribers reviewEventSubscribers;
+
+    private final SignalLogger signalLogger;
+
+    @Value("${reviews.page.defaultSize:100}")
+    private int defaultPageSize;
+
+    @Value("${reviews.page.maxSize:1000}")
+    private int maxPageSize;
+
+    @Value("${reviews.movieInfoIds.maxSize:100}")
+    private int maxMovieInfoIds;
+
+    @Value("${reviews.bulk.batchSize:500}")
+    private int bulkBatchSize;
+
+    @Value("${reviews.bulk.concurrency:2}")
+    private int bulkConcurrency;
+
+    @Value("${reviews.stream.changeStream.enabled:false}")
+    private boolean changeStreamEnabled;
 
     public Mono<ServerResponse> addReview(final ServerRequest request) {
         return request.bodyToMono(Review.class)
                       .doOnNext(this::validateReview)
                       .flatMap(reviewReactiveRepository::save)
-                      .doOnNext(reviewSink::tryEmitNext)
+                      .flatMap(savedReview -> reviewStatsRepository.reviewAdded(savedReview)
+                                                                   .thenReturn(savedReview))
+                      .doOnNext(this::publishAdded)
                       .flatMap(ServerResponse.status(HttpStatus.CREATED)::bodyValue);
     }
 
+    private void publishAdded(final Review review) {
+        // the change stream feed publishes the reviews added through every instance, this one included
+        if (!changeStreamEnabled) {
+            reviewEvents.publish(review);
+        }
+    }
+
     private void validateReview(final Review review) {
+        String errorMsg = validationError(review);
+
+        if (errorMsg != null) {
+            throw new ReviewDataException(errorMsg);
+        }
+
+    }
+
+    private String validationError(final Review review) {
         Set<ConstraintViolation<Review>> constraintViolations = validator.validate(review);
         log.debug("constraintViolations: {}", constraintViolations);
 
-        if (!constraintViolations.isEmpty()) {
-            String errorMsg = constraintViolations.stream()
-                                                  .map(ConstraintViolation::getMessage)
-                                                  .sorted()
-                                                  .collect(Collectors.joining(", "));
+        return constraintViolations.isEmpty()
+               ? null
+               : constraintViolations.stream()
+                                     .map(ConstraintViolation::getMessage)
+                                     .sorted()
+                                     .collect(Collectors.joining(", "));
+    }
 
-            throw new ReviewDataException(errorMsg);
+    /**
+     * Bulk upload, one review per NDJSON line, answered with one {@link BulkReviewResult} per line in the same order.
+     * <p>
+     * Every line is parsed and validated on its own so a bad line only rejects itself. Valid reviews are written in
+     * batches of {@code reviews.bulk.batchSize} with unordered bulk inserts, at most {@code reviews.bulk.concurrency}
+     * batches at once. The request body is only read as fast as the batches are written.
+     */
+    public Mono<ServerResponse> addReviewsBulk(final ServerRequest request) {
+        Flux<BulkReviewResult> results = request.bodyToFlux(String.class)
+                                                .index()
+                                                .filter(line -> !line.getT2().isBlank())
+                                                .map(line -> parseReviewLine(line.getT1() + 1, line.getT2()))
+                                                .buffer(bulkBatchSize)
+                                                .flatMapSequential(this::insertReviews, bulkConcurrency, 1)
+                                                .concatMapIterable(batchResults -> batchResults);
+
+        return ServerResponse.ok()
+                             .contentType(MediaType.APPLICATION_NDJSON)
+                             .body(results, BulkReviewResult.class);
+    }
+
+    private ReviewLine parseReviewLine(long line, String json) {
+        Review review;
+        try {
+            review = objectMapper.readValue(json, Review.class);
+        } catch (JsonProcessingException e) {
+            return new ReviewLine(line, null, "malformed review: " + e.getOriginalMessage());
         }
 
+        return new ReviewLine(line, review, validationError(review));
     }
 
+    private Mono<List<BulkReviewResult>> insertReviews(List<ReviewLine> reviewLines) {
+        List<Review> reviews = reviewLines.stream()
+                                          .filter(ReviewLine::isValid)
+                                          .map(ReviewLine::getReview)
+                                          .collect(Collectors.toList());
+
+        return reviewReactiveRepository.insertUnordered(reviews)
+                                       .flatMap(errorsByIndex -> {
+                                           List<Review> insertedReviews = new ArrayList<>();
+                                           List<BulkReviewResult> results = new ArrayList<>();
+
+                                           int index = 0;
+                                           for (ReviewLine reviewLine : reviewLines) {
+                                               if (!reviewLine.isValid()) {
+                                                   results.add(BulkReviewResult.rejected(reviewLine.getLine(), null, reviewLine.getError()));
+                                                   continue;
+                                               }
+
+                                               Review review = reviewLine.getReview();
+                                               String insertError = errorsByIndex.get(index++);
+                                               if (insertError == null) {
+                                                   insertedReviews.add(review);
+                                                   results.add(BulkReviewResult.created(reviewLine.getLine(), review.getReviewId()));
+                                               } else {
+                                                   results.add(BulkReviewResult.rejected(reviewLine.getLine(), review.getReviewId(), insertError));
+                                               }
+                                           }
+
+                                           return reviewStatsRepository.reviewsAdded(insertedReviews)
+                                                                       .then(Mono.fromRunnable(() -> insertedReviews.forEach(this::publishAdded)))
+                                                                       .thenReturn(results);
+                                       });
+    }
+
+    /**
+     * The reviews of {@code movieInfoId}, of the comma-separated {@code movieInfoIds}, at most
+     * {@code reviews.movieInfoIds.maxSize}, or a page of all reviews. The reviews of several movie infos come in the
+     * order Mongo reads them, not grouped by movie info.
+     */
     public Mono<ServerResponse> getReviews(ServerRequest request) {
         Optional<String> movieInfoId = request.queryParam("movieInfoId");
+        Optional<String> movieInfoIds = request.queryParam("movieInfoIds");
 
-        Flux<Review> reviews = movieInfoId.isPresent()
-                               ? reviewReactiveRepository.findAllByMovieInfoId(Long.valueOf(movieInfoId.get()))
-                               : reviewReactiveRepository.findAll();
+        if (movieInfoIds.isPresent()) {
+            return parseMovieInfoIds(movieInfoIds.get())
+                    .flatMap(ids -> ok(request).body(reviewReactiveRepository.findAllByMovieInfoIdIn(ids), Review.class));
+        }
+        if (movieInfoId.isPresent()) {
+            return parseMovieInfoId(movieInfoId.get())
+                    .flatMap(id -> ok(request).body(reviewReactiveRepository.findAllByMovieInfoId(id), Review.class));
+        }
 
-        return ServerResponse.ok().body(reviews, Review.class);
+        return getReviewsPage(request);
+    }
+
+    /**
+     * Keyset pagination over all reviews, the next page is requested by passing back the {@code X-Next-Cursor}
+     * header as {@code cursor}. {@code limit} is capped at {@code reviews.page.maxSize}.
+     */
+    private Mono<ServerResponse> getReviewsPage(ServerRequest request) {
+        int pageSize;
+        String lastReviewId;
+        try {
+            pageSize = CursorPage.pageSize(request.queryParam("limit").map(Integer::valueOf).orElse(null),
+                                           defaultPageSize, maxPageSize);
+            lastReviewId = request.queryParam("cursor")
+                                  .map(CursorPage::decodeCursor)
+                                  .orElse(null);
+        } catch (IllegalArgumentException e) {
+            return Mono.error(new ReviewDataException("Invalid limit or cursor"));
+        }
+
+        return reviewReactiveRepository.findPageAfter(lastReviewId, pageSize + 1)
+                                       .collectList()
+                                       .map(reviews -> CursorPage.of(reviews, pageSize, Review::getReviewId))
+                                       .flatMap(page -> ok(request).headers(headers -> headers.addAll(page.headers()))
+                                                                   .bodyValue(page.getItems()));
+    }
+
+    /**
+     * The stats of {@code movieInfoId}, or of the comma-separated {@code movieInfoIds} in the order they are given,
+     * at most {@code reviews.movieInfoIds.maxSize}.
+     */
+    public Mono<ServerResponse> getReviewStats(ServerRequest request) {
+        Optional<String> movieInfoId = request.queryParam("movieInfoId");
+        Optional<String> movieInfoIds = request.queryParam("movieInfoIds");
+
+        if (movieInfoIds.isPresent()) {
+            return parseMovieInfoIds(movieInfoIds.get())
+                    .flatMap(ids -> {
+                        Flux<ReviewStats> reviewStats = reviewStatsRepository.findAllById(ids)
+                                                                             .collectMap(ReviewStats::getMovieInfoId)
+                                                                             .flatMapIterable(statsById -> ids.stream()
+                                                                                                              .map(id -> statsById.getOrDefault(id, ReviewStats.empty(id)))
+                                                                                                              .collect(Collectors.toList()));
+
+                        return ok(request).body(reviewStats, ReviewStats.class);
+                    });
+        }
+
+        if (movieInfoId.isEmpty()) {
+            return Mono.error(new ReviewDataException("movieInfoId or movieInfoIds is required"));
+        }
+
+        return parseMovieInfoId(movieInfoId.get())
+                .flatMap(id -> reviewStatsRepository.findById(id)
+                                                    .defaultIfEmpty(ReviewStats.empty(id)))
+                .flatMap(ok(request)::bodyValue);
+    }
+
+    /**
+     * Functional endpoints always write the first compatible format (JSON), so Smile is picked here when it is the
+     * caller's preferred media type.
+     */
+    private ServerResponse.BodyBuilder ok(ServerRequest request) {
+        List<MediaType> acceptedMediaTypes = new ArrayList<>(request.headers().accept());
+        MediaType.sortBySpecificityAndQuality(acceptedMediaTypes);
+
+        return !acceptedMediaTypes.isEmpty() && acceptedMediaTypes.get(0).equalsTypeAndSubtype(CodecConfig.APPLICATION_SMILE)
+               ? ServerResponse.ok().contentType(CodecConfig.APPLICATION_SMILE)
+               : ServerResponse.ok();
+    }
+
+    private Mono<List<Long>> parseMovieInfoIds(final String movieInfoIds) {
+        List<String> ids = Arrays.stream(movieInfoIds.split(","))
+                                 .map(String::trim)
+                                 .filter(id -> !id.isEmpty())
+                                 .distinct()
+                                 .collect(Collectors.toList());
+        if (ids.size() > maxMovieInfoIds) {
+            return Mono.error(new ReviewDataException(String.format("At most %d movieInfoIds are allowed", maxMovieInfoIds)));
+        }
+
+        return Flux.fromIterable(ids)
+                   .concatMap(this::parseMovieInfoId)
+                   .distinct()
+                   .collectList();
+    }
+
+    private Mono<Long> parseMovieInfoId(final String movieInfoId) {
+        try {
+            return Mono.just(Long.valueOf(movieInfoId.trim()));
+        } catch (NumberFormatException e) {
+            return Mono.error(new ReviewDataException("Invalid movieInfoId: " + movieInfoId));
+        }
     }
 
     public Mono<ServerResponse> updateReview(final ServerRequest request) {
         String reviewId = request.pathVariable("id");
 
-        Mono<Review> existingReview = reviewReactiveRepository.findById(reviewId);
-        // Approach 1 to return a 404 - Not Found
-        //.switchIfEmpty(Mono.error(new ReviewNotFoundException(String.format("Review with id %s not found", reviewId))));
+        // the stats get the rating this update replaced, as read and written by the same atomic findAndModify
+        return request.bodyToMono(Review.class)
+                      .flatMap(reqReview -> reviewReactiveRepository.updateCommentAndRating(reviewId, reqReview.getComment(), reqReview.getRating())
+                                                                    .flatMap(previous -> {
+                                                                        Review updated = new Review(previous.getReviewId(), previous.getMovieInfoId(),
+                                                                                                    reqReview.getComment(), reqReview.getRating());
 
-        return existingReview
-                .flatMap(review -> request.bodyToMono(Review.class)
-                                          .map(reqReview -> {
-                                              review.setComment(reqReview.getComment());
-                                              review.setRating(reqReview.getRating());
-                                              return review;
-                                          })
-                                          .flatMap(reviewReactiveRepository::save)
-                                          .flatMap(ServerResponse.ok()::bodyValue))
-                .switchIfEmpty(ServerResponse.notFound().build()); // Approach 2 to return a 404 - Not Found
+                                                                        return reviewStatsRepository.reviewUpdated(previous.getMovieInfoId(), previous.getRating(), updated.getRating())
+                                                                                                    .thenReturn(updated);
+                                                                    }))
+                      .flatMap(ServerResponse.ok()::bodyValue)
+                      .switchIfEmpty(ServerResponse.notFound().build());
 
 
     }
 
     public Mono<ServerResponse> deleteReview(final ServerRequest request) {
         String reviewId = request.pathVariable("id");
-        return reviewReactiveRepository.findById(reviewId)
-                                       .flatMap(review -> reviewReactiveRepository.deleteById(reviewId))
+        return reviewReactiveRepository.deleteByReviewId(reviewId)
+                                       .flatMap(reviewStatsRepository::reviewDeleted)
                                        .then(ServerResponse.noContent().build());
     }
 
     public Mono<ServerResponse> getReviewsStream() {
         return ServerResponse.ok()
                 .contentType(MediaType.APPLICATION_NDJSON)
-                .body(reviewSink.asFlux(), Review.class)
-                .log();
+                .body(reviewNdjsonSubscribers.subscribe(reviewEvents.values()), Review.class)
+                .transformDeferred(signalLogger.mono("reviews.stream"));
+    }
+
+    /**
+     * Added reviews as server-sent events. A client reconnecting with the {@code Last-Event-ID} header resumes right
+     * after that event, see {@link EventReplayBuffer} for when it gets a {@value EventReplayBuffer#RESYNC_EVENT} event
+     * instead.
+     */
+    public Mono<ServerResponse> getReviewEvents(final ServerRequest request) {
+        Flux<ServerSentEvent<Review>> events;
+        try {
+            events = reviewEvents.events(request.headers().firstHeader("Last-Event-ID"));
+        } catch (IllegalArgumentException e) {
+            return Mono.error(new ReviewDataException("Invalid Last-Event-ID"));
+        }
+
+        return ServerResponse.ok()
+                             .contentType(MediaType.TEXT_EVENT_STREAM)
+                             .body(BodyInserters.fromServerSentEvents(reviewEventSubscribers.subscribe(events)));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class ReviewLine {
+
+        private final long line;
+
+        private final Review review;
+
+        private final String error;
+
+        boolean isValid() {
+            return error == null;
+        }
     }
 }
@@ -0,0 +1,19 @@
+package com.reactivespring.repository;
+
+import java.util.List;
+import java.util.Map;
+
+import com.reactivespring.domain.Review;
+
+import reactor.core.publisher.Mono;
+
+public interface ReviewBulkOperations {
+
+    /**
+     * Inserts all reviews with a single unordered bulk write, a review that cannot be inserted (e.g. a duplicate id)
+     * does not stop the others. Reviews without an id get one assigned.
+     *
+     * @return the error of every review that was not inserted, by its index in {@code reviews}
+     */
+    Mono<Map<Integer, String>> insertUnordered(List<Review> reviews);
+}
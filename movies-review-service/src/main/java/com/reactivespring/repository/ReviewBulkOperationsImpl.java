@@ -0,0 +1,53 @@
+package com.reactivespring.repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.model.InsertManyOptions;
+import com.reactivespring.domain.Review;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+@RequiredArgsConstructor
+public class ReviewBulkOperationsImpl implements ReviewBulkOperations {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Mono<Map<Integer, String>> insertUnordered(List<Review> reviews) {
+        if (reviews.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+
+        List<Document> documents = reviews.stream()
+                                          .map(this::toDocument)
+                                          .collect(Collectors.toList());
+
+        return reactiveMongoTemplate.getCollection(reactiveMongoTemplate.getCollectionName(Review.class))
+                                    .flatMap(collection -> Mono.from(collection.insertMany(documents, new InsertManyOptions().ordered(false))))
+                                    .map(result -> Map.<Integer, String>of())
+                                    .onErrorResume(MongoBulkWriteException.class,
+                                                   e -> Mono.just(e.getWriteErrors()
+                                                                   .stream()
+                                                                   .collect(Collectors.toMap(BulkWriteError::getIndex, BulkWriteError::getMessage))));
+    }
+
+    private Document toDocument(Review review) {
+        // ids are assigned up front so they can be reported back without reading the documents again
+        if (review.getReviewId() == null) {
+            review.setReviewId(new ObjectId().toHexString());
+        }
+
+        Document document = new Document();
+        reactiveMongoTemplate.getConverter().write(review, document);
+        return document;
+    }
+}
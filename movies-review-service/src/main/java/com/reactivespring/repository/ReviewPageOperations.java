@@ -0,0 +1,13 @@
+package com.reactivespring.repository;
+
+import com.reactivespring.domain.Review;
+
+import reactor.core.publisher.Flux;
+
+public interface ReviewPageOperations {
+
+    /**
+     * Up to {@code limit} reviews in id order, starting right after {@code lastReviewId} or from the first one if null.
+     */
+    Flux<Review> findPageAfter(String lastReviewId, int limit);
+}
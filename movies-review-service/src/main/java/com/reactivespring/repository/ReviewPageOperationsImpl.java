@@ -0,0 +1,28 @@
+package com.reactivespring.repository;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.reactivespring.domain.Review;
+import com.reactivespring.util.CursorPage;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+
+@RequiredArgsConstructor
+public class ReviewPageOperationsImpl implements ReviewPageOperations {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Flux<Review> findPageAfter(String lastReviewId, int limit) {
+        Query query = new Query().with(Sort.by("_id"))
+                                 .limit(limit);
+        if (lastReviewId != null) {
+            query.addCriteria(CursorPage.idAfter(lastReviewId));
+        }
+
+        return reactiveMongoTemplate.find(query, Review.class);
+    }
+}
@@ -1,13 +1,25 @@
 package com.reactivespring.repository;
 
+import java.util.Collection;
+
 import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
 import org.springframework.stereotype.Repository;
 
 import com.reactivespring.domain.Review;
 
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Repository
-public interface ReviewReactiveRepository extends ReactiveMongoRepository<Review, String> {
+public interface ReviewReactiveRepository extends ReactiveMongoRepository<Review, String>, ReviewPageOperations, ReviewBulkOperations, ReviewUpdateOperations {
     Flux<Review> findAllByMovieInfoId(Long movieInfoId);
+
+    Flux<Review> findAllByMovieInfoIdIn(Collection<Long> movieInfoIds);
+
+    /**
+     * Removes the review with a single {@code findAndModify}, so of concurrent deletes only one gets it back.
+     *
+     * @return the removed review, empty if there is none with that id
+     */
+    Mono<Review> deleteByReviewId(String reviewId);
 }
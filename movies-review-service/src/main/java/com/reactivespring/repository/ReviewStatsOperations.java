@@ -0,0 +1,27 @@
+package com.reactivespring.repository;
+
+import java.util.List;
+
+import com.reactivespring.domain.Review;
+
+import reactor.core.publisher.Mono;
+
+public interface ReviewStatsOperations {
+
+    Mono<Void> reviewAdded(Review review);
+
+    /**
+     * Same as {@link #reviewAdded(Review)} for many reviews, with a single update per movie.
+     */
+    Mono<Void> reviewsAdded(List<Review> reviews);
+
+    Mono<Void> reviewUpdated(Long movieInfoId, Double previousRating, Double rating);
+
+    Mono<Void> reviewDeleted(Review review);
+
+    /**
+     * Recomputes every aggregate from the reviews with one aggregation that replaces the whole collection, for stats
+     * that drifted from the reviews. Review writes made while it runs may be missing from the result.
+     */
+    Mono<Void> rebuild();
+}
@@ -0,0 +1,96 @@
+package com.reactivespring.repository;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.reactivespring.domain.Review;
+import com.reactivespring.domain.ReviewStats;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.out;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Applies review writes to the aggregate with a single atomic {@code $inc} upsert, so concurrent writes for the
+ * same movie never lose an update and no read-modify-write round trip is needed.
+ */
+@RequiredArgsConstructor
+public class ReviewStatsOperationsImpl implements ReviewStatsOperations {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Mono<Void> reviewAdded(Review review) {
+        return increment(review.getMovieInfoId(), 1, ratingCount(review.getRating()), ratingValue(review.getRating()));
+    }
+
+    @Override
+    public Mono<Void> reviewsAdded(List<Review> reviews) {
+        Map<Long, List<Review>> reviewsByMovieInfoId = reviews.stream()
+                                                              .collect(Collectors.groupingBy(Review::getMovieInfoId));
+
+        return Flux.fromIterable(reviewsByMovieInfoId.entrySet())
+                   .concatMap(movieReviews -> increment(movieReviews.getKey(),
+                                                        movieReviews.getValue().size(),
+                                                        movieReviews.getValue().stream().mapToLong(review -> ratingCount(review.getRating())).sum(),
+                                                        movieReviews.getValue().stream().mapToDouble(review -> ratingValue(review.getRating())).sum()))
+                   .then();
+    }
+
+    @Override
+    public Mono<Void> reviewUpdated(Long movieInfoId, Double previousRating, Double rating) {
+        return increment(movieInfoId, 0,
+                         ratingCount(rating) - ratingCount(previousRating),
+                         ratingValue(rating) - ratingValue(previousRating));
+    }
+
+    @Override
+    public Mono<Void> reviewDeleted(Review review) {
+        return increment(review.getMovieInfoId(), -1, -ratingCount(review.getRating()), -ratingValue(review.getRating()));
+    }
+
+    @Override
+    public Mono<Void> rebuild() {
+        // {$gt: [rating, null]} is false for a missing rating as well as for a null one
+        Aggregation aggregation = newAggregation(group("movieInfoId").count().as("reviewCount")
+                                                                     .sum(ConditionalOperators.when(context -> new Document("$gt", Arrays.asList("$rating", null)))
+                                                                                              .then(1)
+                                                                                              .otherwise(0)).as("ratingCount")
+                                                                     .sum("rating").as("ratingSum"),
+                                                 out(reactiveMongoTemplate.getCollectionName(ReviewStats.class)));
+
+        return reactiveMongoTemplate.aggregate(aggregation, Review.class, ReviewStats.class)
+                                    .then();
+    }
+
+    private Mono<Void> increment(Long movieInfoId, long reviewCount, long ratingCount, double ratingSum) {
+        Update update = new Update().inc("reviewCount", reviewCount)
+                                    .inc("ratingCount", ratingCount)
+                                    .inc("ratingSum", ratingSum);
+
+        return reactiveMongoTemplate.upsert(query(where("_id").is(movieInfoId)), update, ReviewStats.class)
+                                    .then();
+    }
+
+    private static long ratingCount(Double rating) {
+        return rating == null ? 0 : 1;
+    }
+
+    private static double ratingValue(Double rating) {
+        return rating == null ? 0 : rating;
+    }
+}
@@ -0,0 +1,10 @@
+package com.reactivespring.repository;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.reactivespring.domain.ReviewStats;
+
+@Repository
+public interface ReviewStatsRepository extends ReactiveMongoRepository<ReviewStats, Long>, ReviewStatsOperations {
+}
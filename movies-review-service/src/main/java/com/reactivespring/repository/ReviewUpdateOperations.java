@@ -0,0 +1,16 @@
+package com.reactivespring.repository;
+
+import com.reactivespring.domain.Review;
+
+import reactor.core.publisher.Mono;
+
+public interface ReviewUpdateOperations {
+
+    /**
+     * Sets the comment and rating of the review with a single {@code findAndModify}, so of concurrent updates each
+     * gets back the rating it replaced, and a review deleted in the meantime is not written again.
+     *
+     * @return the review as it was before the update, empty if there is none with that id
+     */
+    Mono<Review> updateCommentAndRating(String reviewId, String comment, Double rating);
+}
@@ -0,0 +1,27 @@
+package com.reactivespring.repository;
+
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.reactivespring.domain.Review;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@RequiredArgsConstructor
+public class ReviewUpdateOperationsImpl implements ReviewUpdateOperations {
+
+    private final ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Mono<Review> updateCommentAndRating(String reviewId, String comment, Double rating) {
+        // findAndModify returns the document as it was before the update by default
+        return reactiveMongoTemplate.findAndModify(query(where("reviewId").is(reviewId)),
+                                                   new Update().set("comment", comment)
+                                                               .set("rating", rating),
+                                                   Review.class);
+    }
+}
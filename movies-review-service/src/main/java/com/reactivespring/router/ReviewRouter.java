@@ -2,24 +2,35 @@ package com.reactivespring.router;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RequestPredicate;
 import org.springframework.web.reactive.function.server.RouterFunction;
 import org.springframework.web.reactive.function.server.ServerResponse;
 
 import com.reactivespring.handler.ReviewHandler;
 
+import static org.springframework.web.reactive.function.server.RequestPredicates.headers;
 import static org.springframework.web.reactive.function.server.RequestPredicates.path;
 import static org.springframework.web.reactive.function.server.RouterFunctions.route;
 
 @Configuration
 public class ReviewRouter {
 
+    // explicitly asked for, accept(TEXT_EVENT_STREAM) would also match */* and take over the NDJSON stream
+    private static final RequestPredicate ACCEPTS_EVENT_STREAM = headers(headers -> headers.accept()
+                                                                                          .stream()
+                                                                                          .anyMatch(MediaType.TEXT_EVENT_STREAM::equalsTypeAndSubtype));
+
     @Bean
     public RouterFunction<ServerResponse> reviewsRoute(ReviewHandler reviewHandler) {
         return route()
                 .nest(path("/v1/reviews"), builder -> builder.GET("", reviewHandler::getReviews)
+                                                             .GET("/stats", reviewHandler::getReviewStats)
                                                              .POST("", reviewHandler::addReview)
+                                                             .POST("/bulk", reviewHandler::addReviewsBulk)
                                                              .PUT("/{id}", reviewHandler::updateReview)
                                                              .DELETE("/{id}", reviewHandler::deleteReview))
+                .GET("/v1/reviews/stream", ACCEPTS_EVENT_STREAM, reviewHandler::getReviewEvents)
                                                             .GET("/v1/reviews/stream", request -> reviewHandler.getReviewsStream())
                 .GET("/v1/helloworld", request -> ServerResponse.ok().bodyValue("Hello world"))
                 .build();
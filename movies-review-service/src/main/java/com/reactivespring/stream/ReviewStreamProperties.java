@@ -0,0 +1,22 @@
+package com.reactivespring.stream;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "reviews.stream.slow-consumer")
+public class ReviewStreamProperties {
+
+    /**
+     * {@code GET /v1/reviews/stream} as NDJSON.
+     */
+    private SlowConsumerSpec ndjson = new SlowConsumerSpec();
+
+    /**
+     * {@code GET /v1/reviews/stream} as server-sent events. Dropping events leaves gaps in the event ids, prefer
+     * {@link OverflowStrategy#BUFFER} or {@link OverflowStrategy#DISCONNECT}: the client resumes with
+     * {@code Last-Event-ID} once it reconnects.
+     */
+    private SlowConsumerSpec events = new SlowConsumerSpec();
+}
@@ -0,0 +1,76 @@
+package com.reactivespring.tracing;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.sleuth.Span;
+import org.springframework.cloud.sleuth.Tracer;
+import org.springframework.cloud.sleuth.instrument.web.WebFluxSleuthOperators;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+/**
+ * Wraps every {@link Mono} and {@link Flux} a repository returns in a span named after the repository method, e.g.
+ * {@code ReviewReactiveRepository.findById}, opened on subscription and ended on termination or cancellation.
+ * <p>
+ * The parent is taken from the subscriber's Reactor Context. Repository calls made outside of a traced request
+ * (index creation, change streams) do not start traces of their own.
+ * <p>
+ * movies-info-service has the same class, only the repository in the example differs.
+ */
+@RequiredArgsConstructor
+public class RepositorySpans implements MethodInterceptor {
+
+    private final String repositoryName;
+    private final ObjectProvider<Tracer> tracer;
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        String spanName = repositoryName + "." + invocation.getMethod().getName();
+
+        if (result instanceof Mono) {
+            return traced(spanName, (Mono<?>) result);
+        }
+        if (result instanceof Flux) {
+            return traced(spanName, (Flux<?>) result);
+        }
+        return result;
+    }
+
+    private <T> Mono<T> traced(String spanName, Mono<T> mono) {
+        return Mono.deferContextual(context -> {
+            Span span = nextSpan(spanName, context);
+
+            return span == null
+                   ? mono
+                   : mono.doOnError(span::error)
+                         .doFinally(signalType -> span.end());
+        });
+    }
+
+    private <T> Flux<T> traced(String spanName, Flux<T> flux) {
+        return Flux.deferContextual(context -> {
+            Span span = nextSpan(spanName, context);
+
+            return span == null
+                   ? flux
+                   : flux.doOnError(span::error)
+                         .doFinally(signalType -> span.end());
+        });
+    }
+
+    private Span nextSpan(String spanName, ContextView context) {
+        Tracer tracer = this.tracer.getObject();
+
+        return WebFluxSleuthOperators.withSpanInScope(context, () -> tracer.currentSpan() == null
+                                                                    ? null
+                                                                    : tracer.nextSpan()
+                                                                            .name(spanName)
+                                                                            .tag("db.system", "mongodb")
+                                                                            .start());
+    }
+}
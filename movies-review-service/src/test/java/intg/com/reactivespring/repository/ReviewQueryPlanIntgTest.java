@@ -0,0 +1,84 @@
+package com.reactivespring.repository;
+
+import java.util.List;
+
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.reactivespring.config.MongoIndexConfig;
+import com.reactivespring.domain.Review;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Fails when a repository query is answered with a collection scan, i.e. when it is missing an index.
+ */
+@DataMongoTest
+@ActiveProfiles("test")
+@Import(MongoIndexConfig.class)
+class ReviewQueryPlanIntgTest {
+
+    @Autowired ReviewReactiveRepository reviewReactiveRepository;
+
+    @Autowired ReviewStatsRepository reviewStatsRepository;
+
+    @Autowired ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Autowired QueryPlanRecorder queryPlanRecorder;
+
+    @BeforeEach
+    void setUp() {
+        List<Review> reviews = List.of(
+                new Review(null, 1L, "Awesome Movie", 9.0),
+                new Review(null, 1L, "Awesome Movie 1", 9.0),
+                new Review("3", 2L, "Excellent Movie", 8.0)
+        );
+
+        reviewReactiveRepository.saveAll(reviews)
+                                .flatMap(reviewStatsRepository::reviewAdded)
+                                .blockLast();
+        queryPlanRecorder.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reviewReactiveRepository.deleteAll().block();
+        reviewStatsRepository.deleteAll().block();
+    }
+
+    @Test
+    void repositoryQueries_useIndexes() {
+        reviewReactiveRepository.findAllByMovieInfoId(1L).blockLast();
+        reviewReactiveRepository.findAllByMovieInfoIdIn(List.of(1L, 2L)).blockLast();
+        reviewReactiveRepository.findPageAfter(null, 2).blockLast();
+        reviewReactiveRepository.findPageAfter("3", 2).blockLast();
+        reviewReactiveRepository.findPageAfter(new ObjectId().toHexString(), 2).blockLast();
+        reviewStatsRepository.findAllById(List.of(1L, 2L)).blockLast();
+
+        assertEquals(List.of(), queryPlanRecorder.collectionScans(reactiveMongoTemplate));
+    }
+
+    @TestConfiguration
+    static class QueryPlanConfig {
+
+        @Bean
+        QueryPlanRecorder queryPlanRecorder() {
+            return new QueryPlanRecorder();
+        }
+
+        @Bean
+        MongoClientSettingsBuilderCustomizer queryPlanRecorderCustomizer(QueryPlanRecorder queryPlanRecorder) {
+            return settings -> settings.addCommandListener(queryPlanRecorder);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.reactivespring.routes;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.reactivespring.domain.BulkReviewResult;
+import com.reactivespring.domain.Review;
+import com.reactivespring.repository.ReviewReactiveRepository;
+import com.reactivespring.repository.ReviewStatsRepository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import reactor.core.publisher.Flux;
+
+/**
+ * Compares the throughput of {@code POST /v1/reviews/bulk} with one {@code POST /v1/reviews} per review, the bulk
+ * endpoint has to be at least {@value #MIN_BULK_SPEED_UP} times faster. Only runs with {@code -Dbenchmark=true}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ReviewsBulkThroughputIntgTest {
+
+    private static final int REVIEW_COUNT = 20_000;
+
+    private static final int SINGLE_INSERT_CONCURRENCY = 64;
+
+    private static final double MIN_BULK_SPEED_UP = 2.0;
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewsBulkThroughputIntgTest.class);
+
+    @LocalServerPort int port;
+
+    @Autowired ReviewReactiveRepository reviewReactiveRepository;
+
+    @Autowired ReviewStatsRepository reviewStatsRepository;
+
+    private WebClient webClient;
+
+    @BeforeEach
+    void setUp() {
+        webClient = WebClient.create("http://localhost:" + port + "/v1/reviews");
+    }
+
+    @AfterEach
+    void tearDown() {
+        reviewReactiveRepository.deleteAll().block();
+        reviewStatsRepository.deleteAll().block();
+    }
+
+    @Test
+    void bulkVersusSingleInserts() {
+        // warm up both paths first so the JIT and the connection pool do not count against the first one measured
+        singleInserts(reviews(1_000));
+        bulkInsert(reviews(1_000));
+        tearDown();
+
+        double singleReviewsPerSecond = reviewsPerSecond(() -> singleInserts(reviews(REVIEW_COUNT)));
+        assertEquals(REVIEW_COUNT, reviewReactiveRepository.count().block());
+        tearDown();
+
+        double bulkReviewsPerSecond = reviewsPerSecond(() -> bulkInsert(reviews(REVIEW_COUNT)));
+        assertEquals(REVIEW_COUNT, reviewReactiveRepository.count().block());
+
+        double speedUp = bulkReviewsPerSecond / singleReviewsPerSecond;
+        log.info("{} reviews: single inserts {} reviews/s, bulk {} reviews/s (x{})", REVIEW_COUNT, Math.round(singleReviewsPerSecond),
+                 Math.round(bulkReviewsPerSecond), String.format("%.1f", speedUp));
+        assertTrue(speedUp >= MIN_BULK_SPEED_UP, String.format("bulk inserts are only x%.1f faster", speedUp));
+    }
+
+    private Long singleInserts(List<Review> reviews) {
+        return Flux.fromIterable(reviews)
+                   .flatMap(review -> webClient.post()
+                                               .bodyValue(review)
+                                               .retrieve()
+                                               .toBodilessEntity(), SINGLE_INSERT_CONCURRENCY)
+                   .count()
+                   .block();
+    }
+
+    private Long bulkInsert(List<Review> reviews) {
+        return webClient.post()
+                        .uri("/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .body(Flux.fromIterable(reviews), Review.class)
+                        .retrieve()
+                        .bodyToFlux(BulkReviewResult.class)
+                        .filter(result -> result.getStatus() == BulkReviewResult.Status.CREATED)
+                        .count()
+                        .block();
+    }
+
+    private static double reviewsPerSecond(Supplier<Long> insert) {
+        long start = System.nanoTime();
+        long inserted = insert.get();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        return inserted * 1_000_000_000.0 / elapsed.toNanos();
+    }
+
+    private static List<Review> reviews(int count) {
+        return LongStream.range(0, count)
+                         .mapToObj(i -> new Review(null, i % 100, "Review " + i, (double) (i % 10)))
+                         .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,116 @@
+package com.reactivespring.routes;
+
+import java.time.Duration;
+
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.reactivespring.domain.Review;
+import com.reactivespring.repository.ReviewReactiveRepository;
+import com.reactivespring.util.ChangeStreamFeed;
+import com.reactivespring.util.EventReplayBuffer;
+import com.reactivespring.util.EventReplayBuffer.EventId;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * Runs against an embedded single node replica set, change streams are not available on a standalone server.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+                properties = {"spring.mongodb.embedded.version=4.0.21",
+                              "spring.mongodb.embedded.storage.repl-set-name=rs0",
+                              "reviews.stream.changeStream.enabled=true",
+                              "reviews.stream.changeStream.resumeTokenSaveInterval=10ms"})
+@ActiveProfiles("test")
+@AutoConfigureWebTestClient
+class ReviewsChangeStreamIntgTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Autowired WebTestClient webTestClient;
+
+    @Autowired ReviewReactiveRepository reviewReactiveRepository;
+
+    @Autowired EventReplayBuffer<Review> reviewEvents;
+
+    @Autowired ChangeStreamFeed<Review> reviewChangeStreamFeed;
+
+    @BeforeEach
+    void setUp() {
+        // the change stream is opened asynchronously, writes made before it is open are not seen
+        Flux.interval(Duration.ofMillis(100))
+            .concatMap(tick -> reviewReactiveRepository.save(new Review(null, 0L, "warm up", 1.0)))
+            .takeUntil(review -> reviewEvents.lastEventId().getSequence() > 0)
+            .blockLast(TIMEOUT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        reviewReactiveRepository.deleteAll().block();
+    }
+
+    @Test
+    void getReviewsStream_seesWritesOfOtherInstances() {
+        Review review = new Review("changeStream1", 1L, "Awesome Movie", 9.0);
+
+        Flux<Review> reviews = webTestClient.get()
+                                            .uri("/v1/reviews/stream")
+                                            .exchange()
+                                            .expectStatus()
+                                            .isOk()
+                                            .returnResult(Review.class)
+                                            .getResponseBody()
+                                            .filter(review::equals);
+
+        // written straight to Mongo, the way another instance would
+        StepVerifier.create(reviews)
+                    .then(() -> reviewReactiveRepository.save(review).block())
+                    .expectNext(review)
+                    .thenCancel()
+                    .verify(TIMEOUT);
+    }
+
+    @Test
+    void changeStreamFeed_resumesFromSavedToken() {
+        BsonDocument previousToken = reviewChangeStreamFeed.resumeToken().block();
+        reviewReactiveRepository.save(new Review("changeStream2", 1L, "Awesome Movie", 9.0)).block();
+        Mono.defer(() -> reviewChangeStreamFeed.resumeToken().filter(token -> !token.equals(previousToken)))
+            .repeatWhenEmpty(attempts -> attempts.delayElements(Duration.ofMillis(50)))
+            .block(TIMEOUT);
+
+        reviewChangeStreamFeed.stop();
+        EventId lastEventId = reviewEvents.lastEventId();
+        Review missed = new Review("changeStream3", 2L, "Written while stopped", 8.0);
+        reviewReactiveRepository.save(missed).block();
+        reviewChangeStreamFeed.start();
+
+        Flux<Review> resumed = webTestClient.get()
+                                            .uri("/v1/reviews/stream")
+                                            .accept(MediaType.TEXT_EVENT_STREAM)
+                                            .header("Last-Event-ID", lastEventId.toString())
+                                            .exchange()
+                                            .expectStatus()
+                                            .isOk()
+                                            .returnResult(new ParameterizedTypeReference<ServerSentEvent<Review>>() {})
+                                            .getResponseBody()
+                                            .map(ServerSentEvent::data)
+                                            .filter(missed::equals);
+
+        StepVerifier.create(resumed)
+                    .expectNext(missed)
+                    .thenCancel()
+                    .verify(TIMEOUT);
+    }
+}
@@ -1,6 +1,10 @@
 package com.reactivespring.routes;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,14 +12,21 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import com.reactivespring.domain.BulkReviewResult;
 import com.reactivespring.domain.Review;
+import com.reactivespring.domain.ReviewStats;
 import com.reactivespring.repository.ReviewReactiveRepository;
+import com.reactivespring.repository.ReviewStatsRepository;
+import com.reactivespring.util.CursorPage;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @ActiveProfiles("test")
@@ -28,6 +39,8 @@ class ReviewsIntgTest {
 
     @Autowired ReviewReactiveRepository reviewReactiveRepository;
 
+    @Autowired ReviewStatsRepository reviewStatsRepository;
+
     @BeforeEach
     void setUp() {
         List<Review> reviews = List.of(
@@ -43,6 +56,7 @@ class ReviewsIntgTest {
     @AfterEach
     void tearDown() {
         reviewReactiveRepository.deleteAll().block();
+        reviewStatsRepository.deleteAll().block();
     }
 
     @Test
@@ -75,6 +89,34 @@ class ReviewsIntgTest {
                      .hasSize(3);
     }
 
+    @Test
+    void getReviews_paginated() {
+        Set<String> seenIds = new HashSet<>();
+        String cursor = null;
+        int pages = 0;
+
+        do {
+            String currentCursor = cursor;
+            EntityExchangeResult<List<Review>> page = webTestClient.get()
+                                                                  .uri(uriBuilder -> uriBuilder.path(V1_MOVIE_REVIEWS_URL)
+                                                                                               .queryParam("limit", 2)
+                                                                                               .queryParamIfPresent("cursor", Optional.ofNullable(currentCursor))
+                                                                                               .build())
+                                                                  .exchange()
+                                                                  .expectStatus()
+                                                                  .isOk()
+                                                                  .expectBodyList(Review.class)
+                                                                  .returnResult();
+
+            page.getResponseBody().forEach(review -> assertTrue(seenIds.add(review.getReviewId())));
+            cursor = page.getResponseHeaders().getFirst(CursorPage.NEXT_CURSOR_HEADER);
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(3, seenIds.size());
+        assertEquals(2, pages);
+    }
+
     @Test
     void updateReview() {
         Review review = new Review("3", 2L, "Excellent Movie 2", 8.0);
@@ -117,4 +159,114 @@ class ReviewsIntgTest {
                      .expectBodyList(Review.class)
                      .hasSize(2);
     }
+
+    @Test
+    void getReviewsForMovieInfos() {
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder
+                             .path(V1_MOVIE_REVIEWS_URL)
+                             .queryParam("movieInfoIds", "1,2")
+                             .build())
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectBodyList(Review.class)
+                     .hasSize(3);
+    }
+
+    @Test
+    void getReviewStats_followsReviewWrites() {
+        Review first = postReview(new Review(null, 5L, "Awesome Movie", 9.0));
+        Review second = postReview(new Review(null, 5L, "Good Movie", 7.0));
+
+        assertReviewStats(5L, 2, 8.0);
+
+        webTestClient.put()
+                     .uri(V1_MOVIE_REVIEWS_URL + "/{id}", first.getReviewId())
+                     .bodyValue(new Review(first.getReviewId(), 5L, "Average Movie", 5.0))
+                     .exchange()
+                     .expectStatus()
+                     .isOk();
+
+        assertReviewStats(5L, 2, 6.0);
+
+        webTestClient.delete()
+                     .uri(V1_MOVIE_REVIEWS_URL + "/{id}", second.getReviewId())
+                     .exchange()
+                     .expectStatus()
+                     .isNoContent();
+
+        assertReviewStats(5L, 1, 5.0);
+    }
+
+    @Test
+    void rebuildReviewStats_recomputesTheStatsFromTheReviews() {
+        // written past the handler, so the stats know nothing of them yet
+        reviewReactiveRepository.save(new Review(null, 1L, "No rating", null))
+                                .block();
+
+        reviewStatsRepository.rebuild()
+                             .block();
+
+        assertReviewStats(1L, 3, 9.0);
+        assertReviewStats(2L, 1, 8.0);
+    }
+
+    @Test
+    void addReviewsBulk() {
+        String body = String.join("\n",
+                                  "{\"movieInfoId\": 5, \"comment\": \"Awesome Movie\", \"rating\": 9.0}",
+                                  "{\"reviewId\": \"3\", \"movieInfoId\": 5, \"comment\": \"Duplicate\", \"rating\": 1.0}",
+                                  "{\"movieInfoId\": 5, \"comment\": \"Negative\", \"rating\": -1.0}",
+                                  "{\"movieInfoId\": 5, \"comment\": \"Good Movie\", \"rating\": 7.0}");
+
+        List<BulkReviewResult> results = webTestClient.post()
+                                                      .uri(V1_MOVIE_REVIEWS_URL + "/bulk")
+                                                      .contentType(MediaType.APPLICATION_NDJSON)
+                                                      .bodyValue(body)
+                                                      .exchange()
+                                                      .expectStatus()
+                                                      .isOk()
+                                                      .expectBodyList(BulkReviewResult.class)
+                                                      .returnResult()
+                                                      .getResponseBody();
+
+        assertNotNull(results);
+        assertEquals(List.of(BulkReviewResult.Status.CREATED, BulkReviewResult.Status.REJECTED,
+                             BulkReviewResult.Status.REJECTED, BulkReviewResult.Status.CREATED),
+                     results.stream().map(BulkReviewResult::getStatus).collect(Collectors.toList()));
+        assertEquals(2L, reviewReactiveRepository.findAllByMovieInfoId(5L).count().block());
+        assertReviewStats(5L, 2, 8.0);
+    }
+
+    private Review postReview(Review review) {
+        return webTestClient.post()
+                            .uri(V1_MOVIE_REVIEWS_URL)
+                            .bodyValue(review)
+                            .exchange()
+                            .expectStatus()
+                            .isCreated()
+                            .expectBody(Review.class)
+                            .returnResult()
+                            .getResponseBody();
+    }
+
+    private void assertReviewStats(Long movieInfoId, long reviewCount, double averageRating) {
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder
+                             .path(V1_MOVIE_REVIEWS_URL + "/stats")
+                             .queryParam("movieInfoId", movieInfoId)
+                             .build())
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectBody(ReviewStats.class)
+                     .consumeWith(reviewStatsEntityExchangeResult -> {
+                         ReviewStats reviewStats = reviewStatsEntityExchangeResult.getResponseBody();
+
+                         assertNotNull(reviewStats);
+                         assertEquals(reviewCount, reviewStats.getReviewCount());
+                         assertEquals(averageRating, reviewStats.getAverageRating());
+                     });
+    }
 }
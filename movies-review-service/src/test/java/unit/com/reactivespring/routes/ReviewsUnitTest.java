@@ -1,35 +1,67 @@
 package com.reactivespring.routes;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
+import com.reactivespring.config.CodecConfig;
+import com.reactivespring.config.SignalLoggingConfig;
+import com.reactivespring.config.StreamReplayConfig;
+import com.reactivespring.config.StreamSubscriberConfig;
+import com.reactivespring.domain.BulkReviewResult;
 import com.reactivespring.domain.Review;
+import com.reactivespring.domain.ReviewStats;
 import com.reactivespring.exceptionhandler.GlobalErrorHandler;
 import com.reactivespring.handler.ReviewHandler;
 import com.reactivespring.repository.ReviewReactiveRepository;
+import com.reactivespring.repository.ReviewStatsRepository;
 import com.reactivespring.router.ReviewRouter;
+import com.reactivespring.util.CursorPage;
+import com.reactivespring.util.EventReplayBuffer;
+import com.reactivespring.util.EventReplayBuffer.EventId;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
 
-@WebFluxTest
+@WebFluxTest(properties = {"reviews.stream.replay.maxEvents=2", "reviews.movieInfoIds.maxSize=3"})
 @AutoConfigureWebTestClient
-@ContextConfiguration(classes = {ReviewRouter.class, ReviewHandler.class, GlobalErrorHandler.class})
+@ContextConfiguration(classes = {ReviewRouter.class, ReviewHandler.class, GlobalErrorHandler.class, CodecConfig.class, StreamReplayConfig.class,
+                                 StreamSubscriberConfig.class, SignalLoggingConfig.class, SimpleMeterRegistry.class})
 class ReviewsUnitTest {
 
     private final static String V1_MOVIE_REVIEWS_URL = "/v1/reviews";
 
     @MockBean ReviewReactiveRepository reviewReactiveRepository;
 
+    @MockBean ReviewStatsRepository reviewStatsRepository;
+
     @Autowired WebTestClient webTestClient;
 
+    @Autowired EventReplayBuffer<Review> reviewEvents;
+
     private final Review review1 = new Review("1", 1L, "Awesome Movie", 9.0);
     private final Review review2 = new Review("2", 2L, "Awesome Movie 2", 9.0);
 
@@ -40,6 +72,9 @@ class ReviewsUnitTest {
         when(reviewReactiveRepository.save(review))
                 .thenReturn(Mono.just(review1));
 
+        when(reviewStatsRepository.reviewAdded(review1))
+                .thenReturn(Mono.empty());
+
         webTestClient.post()
                      .uri(V1_MOVIE_REVIEWS_URL)
                      .bodyValue(review)
@@ -48,6 +83,8 @@ class ReviewsUnitTest {
                      .isCreated()
                      .expectBody(Review.class)
                      .isEqualTo(review1);
+
+        verify(reviewStatsRepository).reviewAdded(review1);
     }
 
     @Test
@@ -65,29 +102,232 @@ class ReviewsUnitTest {
     }
 
 
+    @Test
+    void addReviewsBulk() {
+        String body = String.join("\n",
+                                  "{\"reviewId\": \"1\", \"movieInfoId\": 1, \"comment\": \"Awesome Movie\", \"rating\": 9.0}",
+                                  "{\"movieInfoId\": 1, \"comment\": \"Negative\", \"rating\": -1.0}",
+                                  "",
+                                  "{\"movieInfoId\": ",
+                                  "{\"reviewId\": \"2\", \"movieInfoId\": 2, \"comment\": \"Awesome Movie 2\", \"rating\": 9.0}");
+
+        when(reviewReactiveRepository.insertUnordered(List.of(review1, review2)))
+                .thenReturn(Mono.just(Map.of(1, "E11000 duplicate key error")));
+        when(reviewStatsRepository.reviewsAdded(List.of(review1)))
+                .thenReturn(Mono.empty());
+
+        webTestClient.post()
+                     .uri(V1_MOVIE_REVIEWS_URL + "/bulk")
+                     .contentType(MediaType.APPLICATION_NDJSON)
+                     .bodyValue(body)
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectBodyList(BulkReviewResult.class)
+                     .consumeWith(result -> {
+                         List<BulkReviewResult> results = result.getResponseBody();
+
+                         assertNotNull(results);
+                         assertEquals(List.of(1L, 2L, 4L, 5L), results.stream().map(BulkReviewResult::getLine).collect(Collectors.toList()));
+                         assertEquals(BulkReviewResult.created(1, "1"), results.get(0));
+                         assertEquals(BulkReviewResult.rejected(2, null, "rating.negative : please pass a non-negative value"), results.get(1));
+                         assertEquals(BulkReviewResult.Status.REJECTED, results.get(2).getStatus());
+                         assertEquals(BulkReviewResult.rejected(5, "2", "E11000 duplicate key error"), results.get(3));
+                     });
+
+        verify(reviewStatsRepository).reviewsAdded(List.of(review1));
+    }
+
     @Test
     void getReviews() {
-        when(reviewReactiveRepository.findAll())
+        when(reviewReactiveRepository.findPageAfter(null, 101))
+                .thenReturn(Flux.just(review1, review2));
+
+        webTestClient.get()
+                     .uri(V1_MOVIE_REVIEWS_URL)
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectBodyList(Review.class)
+                     .hasSize(2);
+    }
+
+    @Test
+    void getReviews_smile() {
+        when(reviewReactiveRepository.findPageAfter(null, 101))
                 .thenReturn(Flux.just(review1, review2));
 
         webTestClient.get()
                      .uri(V1_MOVIE_REVIEWS_URL)
+                     .accept(CodecConfig.APPLICATION_SMILE, MediaType.APPLICATION_JSON)
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectHeader()
+                     .contentType(CodecConfig.APPLICATION_SMILE)
+                     .expectBodyList(Review.class)
+                     .isEqualTo(List.of(review1, review2));
+    }
+
+    @Test
+    void getReviews_paginated() {
+        Review review3 = new Review("3", 3L, "Awesome Movie 3", 7.0);
+
+        when(reviewReactiveRepository.findPageAfter(null, 3))
+                .thenReturn(Flux.just(review1, review2, review3));
+        when(reviewReactiveRepository.findPageAfter("2", 3))
+                .thenReturn(Flux.just(review3));
+
+        String nextCursor = webTestClient.get()
+                                         .uri(uriBuilder -> uriBuilder.path(V1_MOVIE_REVIEWS_URL)
+                                                                      .queryParam("limit", 2)
+                                                                      .build())
+                                         .exchange()
+                                         .expectStatus()
+                                         .isOk()
+                                         .expectBodyList(Review.class)
+                                         .isEqualTo(List.of(review1, review2))
+                                         .returnResult()
+                                         .getResponseHeaders()
+                                         .getFirst(CursorPage.NEXT_CURSOR_HEADER);
+
+        assertEquals(CursorPage.encodeCursor("2"), nextCursor);
+
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder.path(V1_MOVIE_REVIEWS_URL)
+                                                  .queryParam("limit", 2)
+                                                  .queryParam("cursor", nextCursor)
+                                                  .build())
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectHeader()
+                     .doesNotExist(CursorPage.NEXT_CURSOR_HEADER)
+                     .expectBodyList(Review.class)
+                     .isEqualTo(List.of(review3));
+    }
+
+    @Test
+    void getReviews_enforcesMaxPageSize() {
+        when(reviewReactiveRepository.findPageAfter(null, 1001))
+                .thenReturn(Flux.just(review1, review2));
+
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder.path(V1_MOVIE_REVIEWS_URL)
+                                                  .queryParam("limit", 100000)
+                                                  .build())
                      .exchange()
                      .expectStatus()
                      .isOk()
                      .expectBodyList(Review.class)
                      .hasSize(2);
+
+        verify(reviewReactiveRepository).findPageAfter(null, 1001);
+    }
+
+    @Test
+    void getReviews_invalidCursor() {
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder.path(V1_MOVIE_REVIEWS_URL)
+                                                  .queryParam("cursor", "not a cursor!")
+                                                  .build())
+                     .exchange()
+                     .expectStatus()
+                     .isBadRequest();
+    }
+
+    @Test
+    void getReviewEvents_resumesFromLastEventId() {
+        List<Review> added = addReviews(3);
+        EventId lastEventId = reviewEvents.lastEventId();
+
+        StepVerifier.create(getReviewEvents(lastEventId.minus(1)))
+                    .assertNext(event -> {
+                        assertEquals(lastEventId.toString(), event.id());
+                        assertEquals(added.get(2), event.data());
+                    })
+                    .thenCancel()
+                    .verify();
+    }
+
+    @Test
+    void getReviewEvents_eventsNoLongerRetained_resyncs() {
+        List<Review> added = addReviews(4);
+        EventId lastEventId = reviewEvents.lastEventId();
+
+        // only the last two events are retained
+        StepVerifier.create(getReviewEvents(lastEventId.minus(3)))
+                    .assertNext(event -> {
+                        assertEquals(EventReplayBuffer.RESYNC_EVENT, event.event());
+                        assertEquals(lastEventId.minus(2).toString(), event.id());
+                    })
+                    .assertNext(event -> assertEquals(added.get(2), event.data()))
+                    .assertNext(event -> assertEquals(added.get(3), event.data()))
+                    .thenCancel()
+                    .verify();
+    }
+
+    @Test
+    void getReviewsStream_ndjson() {
+        List<Review> added = addReviews(1);
+
+        Flux<Review> reviews = webTestClient.get()
+                                            .uri(V1_MOVIE_REVIEWS_URL + "/stream")
+                                            .exchange()
+                                            .expectStatus()
+                                            .isOk()
+                                            .expectHeader()
+                                            .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                                            .returnResult(Review.class)
+                                            .getResponseBody();
+
+        StepVerifier.create(reviews)
+                    .expectNext(added.get(0))
+                    .thenCancel()
+                    .verify();
+    }
+
+    private List<Review> addReviews(int count) {
+        when(reviewReactiveRepository.save(isA(Review.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(reviewStatsRepository.reviewAdded(isA(Review.class)))
+                .thenReturn(Mono.empty());
+
+        List<Review> reviews = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Review review = new Review(String.valueOf(i), 1L, "Awesome Movie " + i, 9.0);
+            webTestClient.post()
+                         .uri(V1_MOVIE_REVIEWS_URL)
+                         .bodyValue(review)
+                         .exchange()
+                         .expectStatus()
+                         .isCreated();
+            reviews.add(review);
+        }
+        return reviews;
+    }
+
+    private Flux<ServerSentEvent<Review>> getReviewEvents(EventId lastEventId) {
+        return webTestClient.get()
+                            .uri(V1_MOVIE_REVIEWS_URL + "/stream")
+                            .accept(MediaType.TEXT_EVENT_STREAM)
+                            .header("Last-Event-ID", lastEventId.toString())
+                            .exchange()
+                            .expectStatus()
+                            .isOk()
+                            .returnResult(new ParameterizedTypeReference<ServerSentEvent<Review>>() {})
+                            .getResponseBody();
     }
 
     @Test
     void updateReview() {
         Review review = new Review(review2.getReviewId(), review2.getMovieInfoId(), "Excellent Movie 2", 8.0);
 
-        when(reviewReactiveRepository.findById(review.getReviewId()))
+        when(reviewReactiveRepository.updateCommentAndRating(review.getReviewId(), "Excellent Movie 2", 8.0))
                 .thenReturn(Mono.just(review2));
 
-        when(reviewReactiveRepository.save(isA(Review.class)))
-                .thenReturn(Mono.just(review));
+        when(reviewStatsRepository.reviewUpdated(review.getMovieInfoId(), 9.0, 8.0))
+                .thenReturn(Mono.empty());
 
         webTestClient.put()
                      .uri(V1_MOVIE_REVIEWS_URL + "/{id}", review.getReviewId())
@@ -97,14 +337,33 @@ class ReviewsUnitTest {
                      .isOk()
                      .expectBody(Review.class)
                      .isEqualTo(review);
+
+        verify(reviewStatsRepository).reviewUpdated(review.getMovieInfoId(), 9.0, 8.0);
+    }
+
+    @Test
+    void updateReview_deletedReview_notFound() {
+        Review review = new Review(review2.getReviewId(), review2.getMovieInfoId(), "Excellent Movie 2", 8.0);
+
+        when(reviewReactiveRepository.updateCommentAndRating(review.getReviewId(), "Excellent Movie 2", 8.0))
+                .thenReturn(Mono.empty());
+
+        webTestClient.put()
+                     .uri(V1_MOVIE_REVIEWS_URL + "/{id}", review.getReviewId())
+                     .bodyValue(review)
+                     .exchange()
+                     .expectStatus()
+                     .isNotFound();
+
+        verifyNoInteractions(reviewStatsRepository);
     }
 
     @Test
     void deleteReview() {
-        when(reviewReactiveRepository.findById(review1.getReviewId()))
+        when(reviewReactiveRepository.deleteByReviewId(review1.getReviewId()))
                 .thenReturn(Mono.just(review1));
 
-        when(reviewReactiveRepository.deleteById(review1.getReviewId()))
+        when(reviewStatsRepository.reviewDeleted(review1))
                 .thenReturn(Mono.empty());
 
         webTestClient.delete()
@@ -112,6 +371,22 @@ class ReviewsUnitTest {
                      .exchange()
                      .expectStatus()
                      .isNoContent();
+
+        verify(reviewStatsRepository).reviewDeleted(review1);
+    }
+
+    @Test
+    void deleteReview_alreadyDeleted_leavesTheStatsAlone() {
+        when(reviewReactiveRepository.deleteByReviewId(review1.getReviewId()))
+                .thenReturn(Mono.empty());
+
+        webTestClient.delete()
+                     .uri(V1_MOVIE_REVIEWS_URL + "/{id}", review1.getReviewId())
+                     .exchange()
+                     .expectStatus()
+                     .isNoContent();
+
+        verify(reviewStatsRepository, never()).reviewDeleted(any());
     }
 
     @Test
@@ -130,4 +405,127 @@ class ReviewsUnitTest {
                      .expectBodyList(Review.class)
                      .hasSize(1);
     }
+
+    @Test
+    void getReviewsForMovieInfos() {
+        when(reviewReactiveRepository.findAllByMovieInfoIdIn(List.of(1L, 2L)))
+                .thenReturn(Flux.just(review1, review2));
+
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder
+                             .path(V1_MOVIE_REVIEWS_URL)
+                             .queryParam("movieInfoIds", "1,2")
+                             .build())
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectBodyList(Review.class)
+                     .hasSize(2);
+    }
+
+    @Test
+    void getReviewsForMovieInfos_invalidId_returnsBadRequest() {
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder
+                             .path(V1_MOVIE_REVIEWS_URL)
+                             .queryParam("movieInfoIds", "1,abc")
+                             .build())
+                     .exchange()
+                     .expectStatus()
+                     .isBadRequest()
+                     .expectBody(String.class)
+                     .isEqualTo("Invalid movieInfoId: abc");
+    }
+
+    @Test
+    void getReviewsForMovieInfos_tooManyIds_returnsBadRequest() {
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder
+                             .path(V1_MOVIE_REVIEWS_URL)
+                             .queryParam("movieInfoIds", "1,2,3,4")
+                             .build())
+                     .exchange()
+                     .expectStatus()
+                     .isBadRequest()
+                     .expectBody(String.class)
+                     .isEqualTo("At most 3 movieInfoIds are allowed");
+
+        verify(reviewReactiveRepository, never()).findAllByMovieInfoIdIn(any());
+    }
+
+    @Test
+    void getReviewStats() {
+        when(reviewStatsRepository.findById(1L))
+                .thenReturn(Mono.just(new ReviewStats(1L, 2, 2, 17.0)));
+
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder
+                             .path(V1_MOVIE_REVIEWS_URL + "/stats")
+                             .queryParam("movieInfoId", 1L)
+                             .build())
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectBody()
+                     .jsonPath("$.reviewCount").isEqualTo(2)
+                     .jsonPath("$.averageRating").isEqualTo(8.5);
+    }
+
+    @Test
+    void getReviewStats_noReviews() {
+        when(reviewStatsRepository.findById(1L))
+                .thenReturn(Mono.empty());
+
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder
+                             .path(V1_MOVIE_REVIEWS_URL + "/stats")
+                             .queryParam("movieInfoId", 1L)
+                             .build())
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectBody()
+                     .jsonPath("$.reviewCount").isEqualTo(0)
+                     .jsonPath("$.averageRating").doesNotExist();
+    }
+
+    @Test
+    void getReviewStatsForMovieInfos() {
+        when(reviewStatsRepository.findAllById(List.of(1L, 2L)))
+                .thenReturn(Flux.just(new ReviewStats(2L, 1, 1, 7.0)));
+
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder
+                             .path(V1_MOVIE_REVIEWS_URL + "/stats")
+                             .queryParam("movieInfoIds", "1,2")
+                             .build())
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectBodyList(ReviewStats.class)
+                     .isEqualTo(List.of(ReviewStats.empty(1L), new ReviewStats(2L, 1, 1, 7.0)));
+    }
+
+    @Test
+    void getReviewStats_invalidId_returnsBadRequest() {
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder
+                             .path(V1_MOVIE_REVIEWS_URL + "/stats")
+                             .queryParam("movieInfoId", "abc")
+                             .build())
+                     .exchange()
+                     .expectStatus()
+                     .isBadRequest()
+                     .expectBody(String.class)
+                     .isEqualTo("Invalid movieInfoId: abc");
+    }
+
+    @Test
+    void getReviewStats_requiresMovieInfoId() {
+        webTestClient.get()
+                     .uri(V1_MOVIE_REVIEWS_URL + "/stats")
+                     .exchange()
+                     .expectStatus()
+                     .isBadRequest();
+    }
 }
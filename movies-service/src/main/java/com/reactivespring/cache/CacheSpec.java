@@ -0,0 +1,21 @@
+package com.reactivespring.cache;
+
+import java.time.Duration;
+
+import lombok.Data;
+
+@Data
+public class CacheSpec {
+
+    private boolean enabled = true;
+
+    private long maximumSize = 10_000;
+
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /**
+     * Age after which a cached value is refreshed in the background while still being served.
+     * Leave unset to disable stale-while-revalidate.
+     */
+    private Duration refreshAfter;
+}
@@ -0,0 +1,57 @@
+package com.reactivespring.cache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import reactor.core.publisher.Mono;
+
+/**
+ * Bounded, non-blocking cache in front of a reactive loader, backed by a Caffeine {@link AsyncLoadingCache}
+ * (W-TinyLFU eviction).
+ * <p>
+ * Entries expire after {@code ttl}. When {@code refreshAfter} is set the cache works in stale-while-revalidate
+ * mode: once an entry is older than {@code refreshAfter} the cached value is still served while a reload runs in
+ * the background. Empty results and errors are never cached. Hit, miss, load and eviction counters are
+ * published as {@code cache.*} meters tagged with the cache name.
+ */
+public class ReactiveCache<K, V> {
+
+    private final AsyncLoadingCache<K, V> cache;
+    private final Function<K, Mono<V>> loader;
+
+    public ReactiveCache(String name, CacheSpec spec, Function<K, Mono<V>> loader, MeterRegistry meterRegistry) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                                                   .maximumSize(spec.getMaximumSize())
+                                                   .expireAfterWrite(spec.getTtl())
+                                                   .recordStats();
+
+        if (spec.getRefreshAfter() != null) {
+            builder.refreshAfterWrite(spec.getRefreshAfter());
+        }
+
+        this.loader = loader;
+        this.cache = builder.buildAsync((key, executor) -> loader.apply(key).toFuture());
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+    }
+
+    public Mono<V> get(K key) {
+        // copy() so a cancelled caller never cancels the future shared with the other callers
+        return Mono.deferContextual(context -> {
+            // a miss loads with the context of the caller that triggered it, e.g. to trace the load as part of its request
+            CompletableFuture<V> future = cache.get(key, (missingKey, executor) -> loader.apply(missingKey)
+                                                                                       .contextWrite(context)
+                                                                                       .toFuture());
+            return Mono.fromFuture(future.copy());
+        });
+    }
+
+    public void invalidate(K key) {
+        cache.synchronous().invalidate(key);
+    }
+}
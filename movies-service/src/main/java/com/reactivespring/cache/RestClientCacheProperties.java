@@ -0,0 +1,14 @@
+package com.reactivespring.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "rest-client.cache")
+public class RestClientCacheProperties {
+
+    private CacheSpec moviesInfo = new CacheSpec();
+
+    private CacheSpec reviews = new CacheSpec();
+}
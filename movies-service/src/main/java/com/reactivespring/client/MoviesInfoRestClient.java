@@ -1,19 +1,31 @@
 package com.reactivespring.client;
 
 import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
 
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import com.reactivespring.cache.ReactiveCache;
+import com.reactivespring.cache.RestClientCacheProperties;
 import com.reactivespring.domain.Movie;
 import com.reactivespring.domain.MovieInfo;
 import com.reactivespring.exception.MoviesInfoClientException;
 import com.reactivespring.exception.MoviesInfoServerException;
-import com.reactivespring.util.RetryUtil;
+import com.reactivespring.hedging.Hedger;
+import com.reactivespring.hedging.RestClientHedgingProperties;
+import com.reactivespring.logging.SignalLogger;
+import com.reactivespring.resilience.DownstreamResilience;
+import com.reactivespring.resilience.RestClientResilienceProperties;
+import com.reactivespring.util.SingleFlight;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
 import reactor.core.Exceptions;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -21,15 +33,52 @@ import reactor.util.retry.Retry;
 import reactor.util.retry.RetryBackoffSpec;
 
 @Component
-@RequiredArgsConstructor
 public class MoviesInfoRestClient {
 
     @Value("${restClient.moviesInfoUrl}") private String moviesInfoUrl;
 
+    // movies-info-service answers at most movieInfos.ids.maxSize ids per request
+    @Value("${restClient.moviesInfoMaxIds:100}") private int moviesInfoMaxIds;
+
     private final WebClient webClient;
+    private final SingleFlight<String, MovieInfo> movieInfoSingleFlight;
+    private final ReactiveCache<String, MovieInfo> movieInfoCache;
+    private final Hedger movieInfoHedger;
+    private final DownstreamResilience moviesInfoResilience;
+    private final SignalLogger signalLogger;
+
+    public MoviesInfoRestClient(@Qualifier("moviesInfoWebClient") WebClient webClient,
+                                RestClientCacheProperties cacheProperties,
+                                RestClientHedgingProperties hedgingProperties,
+                                RestClientResilienceProperties resilienceProperties,
+                                MeterRegistry meterRegistry,
+                                SignalLogger signalLogger) {
+        this.webClient = webClient;
+        this.signalLogger = signalLogger;
+        this.movieInfoSingleFlight = new SingleFlight<>("moviesInfo", meterRegistry);
+        this.movieInfoHedger = new Hedger("moviesInfo", hedgingProperties.getMoviesInfo(), meterRegistry);
+        this.moviesInfoResilience = new DownstreamResilience("moviesInfo", resilienceProperties.getMoviesInfo(), meterRegistry);
+        this.movieInfoCache = cacheProperties.getMoviesInfo().isEnabled()
+                              ? new ReactiveCache<>("moviesInfo", cacheProperties.getMoviesInfo(), this::loadMovieInfo, meterRegistry)
+                              : null;
+    }
 
     public Mono<MovieInfo> getMovieInfo(String movieId) {
+        return movieInfoCache != null
+               ? movieInfoCache.get(movieId)
+               : loadMovieInfo(movieId);
+    }
+
+    private Mono<MovieInfo> loadMovieInfo(String movieId) {
+        return movieInfoSingleFlight.execute(movieId, this::fetchMovieInfo);
+    }
+
+    private Mono<MovieInfo> fetchMovieInfo(String movieId) {
+        return moviesInfoResilience.decorate(movieInfoHedger, () -> requestMovieInfo(movieId))
+                                   .transformDeferred(signalLogger.mono("moviesInfo.getMovieInfo"));
+    }
 
+    private Mono<MovieInfo> requestMovieInfo(String movieId) {
         return webClient.get()
                         .uri(moviesInfoUrl + "/{id}", movieId)
                         .retrieve()
@@ -43,14 +92,46 @@ public class MoviesInfoRestClient {
                         })
                         .onStatus(HttpStatus::is5xxServerError, clientResponse -> clientResponse.bodyToMono(String.class)
                                                                                                 .flatMap(errorMsg -> Mono.error(new MoviesInfoServerException(errorMsg))))
-                        .bodyToMono(MovieInfo.class)
-                        .retryWhen(RetryUtil.retrySpec())
-                        .log();
+                        .bodyToMono(MovieInfo.class);
+    }
+
+    /**
+     * The movie infos of all the ids, asked for in requests of at most {@code restClient.moviesInfoMaxIds} ids, one
+     * after the other.
+     */
+    public Flux<MovieInfo> getMovieInfos(Collection<String> movieIds) {
+        return Flux.fromIterable(movieIds)
+                   .buffer(moviesInfoMaxIds)
+                   .concatMap(this::requestMovieInfos);
+    }
+
+    private Flux<MovieInfo> requestMovieInfos(List<String> movieIds) {
+        String movieInfosUri = UriComponentsBuilder.fromHttpUrl(moviesInfoUrl)
+                                                   .queryParam("ids", String.join(",", movieIds))
+                                                   .buildAndExpand()
+                                                   .toUriString();
+
+        Flux<MovieInfo> movieInfos = webClient.get()
+                                              .uri(movieInfosUri)
+                                              .retrieve()
+                                              .onStatus(HttpStatus::is4xxClientError, clientResponse -> {
+                                                  HttpStatus httpStatus = clientResponse.statusCode();
+
+                                                  return clientResponse.bodyToMono(String.class)
+                                                                       .flatMap(errorMsg -> Mono.error(new MoviesInfoClientException(errorMsg, httpStatus.value())));
+                                              })
+                                              .onStatus(HttpStatus::is5xxServerError, clientResponse -> clientResponse.bodyToMono(String.class)
+                                                                                                                      .flatMap(errorMsg -> Mono.error(new MoviesInfoServerException(errorMsg))))
+                                              .bodyToFlux(MovieInfo.class);
+
+        return moviesInfoResilience.decorate(movieInfos)
+                                   .transformDeferred(signalLogger.flux("moviesInfo.getMovieInfos"));
     }
 
     public Flux<MovieInfo> getMovieInfoStream() {
         return webClient.get()
                         .uri(moviesInfoUrl + "/stream")
+                        .accept(MediaType.APPLICATION_NDJSON)
                         .retrieve()
                         .onStatus(HttpStatus::is4xxClientError, clientResponse -> {
                             HttpStatus httpStatus = clientResponse.statusCode();
@@ -1,52 +1,120 @@
 package com.reactivespring.client;
 
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import com.reactivespring.cache.ReactiveCache;
+import com.reactivespring.cache.RestClientCacheProperties;
 import com.reactivespring.domain.Review;
 import com.reactivespring.exception.ReviewsClientException;
 import com.reactivespring.exception.ReviewsServerException;
-import com.reactivespring.util.RetryUtil;
+import com.reactivespring.hedging.Hedger;
+import com.reactivespring.hedging.RestClientHedgingProperties;
+import com.reactivespring.logging.SignalLogger;
+import com.reactivespring.resilience.DownstreamResilience;
+import com.reactivespring.resilience.RestClientResilienceProperties;
+import com.reactivespring.util.SingleFlight;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class ReviewsRestClient {
 
     @Value("${restClient.reviewsUrl}")
     private String reviewsUrl;
 
+    // the reviews service answers at most reviews.movieInfoIds.maxSize ids per request
+    @Value("${restClient.reviewsMaxIds:100}")
+    private int reviewsMaxIds;
+
     private final WebClient webClient;
+    private final SingleFlight<String, List<Review>> reviewsSingleFlight;
+    private final ReactiveCache<String, List<Review>> reviewsCache;
+    private final Hedger reviewsHedger;
+    private final DownstreamResilience reviewsResilience;
+    private final SignalLogger signalLogger;
+
+    public ReviewsRestClient(@Qualifier("reviewsWebClient") WebClient webClient,
+                             RestClientCacheProperties cacheProperties,
+                             RestClientHedgingProperties hedgingProperties,
+                             RestClientResilienceProperties resilienceProperties,
+                             MeterRegistry meterRegistry,
+                             SignalLogger signalLogger) {
+        this.webClient = webClient;
+        this.signalLogger = signalLogger;
+        this.reviewsSingleFlight = new SingleFlight<>("reviews", meterRegistry);
+        this.reviewsHedger = new Hedger("reviews", hedgingProperties.getReviews(), meterRegistry);
+        this.reviewsResilience = new DownstreamResilience("reviews", resilienceProperties.getReviews(), meterRegistry);
+        this.reviewsCache = cacheProperties.getReviews().isEnabled()
+                            ? new ReactiveCache<>("reviews", cacheProperties.getReviews(), this::loadReviews, meterRegistry)
+                            : null;
+    }
 
     public Flux<Review> getReviews(String movieId) {
+        Mono<List<Review>> reviews = reviewsCache != null
+                                     ? reviewsCache.get(movieId)
+                                     : loadReviews(movieId);
+
+        return reviews.flatMapIterable(reviewList -> reviewList);
+    }
+
+    private Mono<List<Review>> loadReviews(String movieId) {
+        return reviewsSingleFlight.execute(movieId, this::fetchReviews);
+    }
+
+    /**
+     * The reviews of all the movies, asked for in requests of at most {@code restClient.reviewsMaxIds} ids, one after
+     * the other.
+     */
+    public Flux<Review> getReviews(Collection<String> movieIds) {
+        return Flux.fromIterable(movieIds)
+                   .buffer(reviewsMaxIds)
+                   .concatMap(this::requestReviews);
+    }
+
+    private Flux<Review> requestReviews(List<String> movieIds) {
+        String reviewsUri = UriComponentsBuilder.fromHttpUrl(reviewsUrl)
+                                                .queryParam("movieInfoIds", String.join(",", movieIds))
+                                                .buildAndExpand()
+                                                .toUriString();
+
+        return reviewsResilience.decorate(retrieveReviews(reviewsUri))
+                                .transformDeferred(signalLogger.flux("reviews.getReviews"));
+    }
+
+    private Mono<List<Review>> fetchReviews(String movieId) {
         String reviewsUri = UriComponentsBuilder.fromHttpUrl(reviewsUrl)
                                                 .queryParam("movieInfoId", movieId)
                                                 .buildAndExpand()
                                                 .toUriString();
 
+        return reviewsResilience.decorate(reviewsHedger, () -> retrieveReviews(reviewsUri).collectList())
+                                .transformDeferred(signalLogger.mono("reviews.getReviewsForMovie"));
+    }
+
+    private Flux<Review> retrieveReviews(String reviewsUri) {
         return webClient.get()
                         .uri(reviewsUri)
                         .retrieve()
-                        .onStatus(HttpStatus::is4xxClientError, clientResponse -> {
-                            HttpStatus httpStatus = clientResponse.statusCode();
-
-                            return httpStatus.equals(HttpStatus.NOT_FOUND)
-                                   ? Mono.empty()
-                                   : clientResponse.bodyToMono(String.class)
-                                                   .flatMap(errorMsg -> Mono.error(new ReviewsClientException(errorMsg)));
-                        })
+                        .onStatus(httpStatus -> httpStatus.is4xxClientError() && httpStatus != HttpStatus.NOT_FOUND,
+                                  clientResponse -> clientResponse.bodyToMono(String.class)
+                                                                  .flatMap(errorMsg -> Mono.error(new ReviewsClientException(errorMsg))))
                         .onStatus(HttpStatus::is5xxServerError, clientResponse -> clientResponse.bodyToMono(String.class)
                                                                                                 .flatMap(errorMsg -> Mono.error(new ReviewsServerException(errorMsg))))
                         .bodyToFlux(Review.class)
-                        .retryWhen(RetryUtil.retrySpec())
-                        .log();
+                        // no reviews for the movie yet
+                        .onErrorResume(WebClientResponseException.NotFound.class, notFound -> Flux.empty());
     }
 }
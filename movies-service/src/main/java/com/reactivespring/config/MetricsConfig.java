@@ -0,0 +1,53 @@
+package com.reactivespring.config;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.boot.actuate.metrics.web.reactive.client.WebClientExchangeTags;
+import org.springframework.boot.actuate.metrics.web.reactive.client.WebClientExchangeTagsProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Server and client timers come from the actuator ({@code http.server.requests}, {@code http.client.requests}),
+ * their percentiles, histogram and SLO buckets are configured under {@code management.metrics.distribution}.
+ * Everything is scraped from {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Request attribute naming the downstream a WebClient talks to, see {@link WebClientConfig}.
+     */
+    public static final String DOWNSTREAM_ATTRIBUTE = MetricsConfig.class.getName() + ".downstream";
+
+    @PostConstruct
+    public void enableSchedulerMetrics() {
+        // Reactor registers its executors in the global registry, which the actuator registries are added to
+        Schedulers.enableMetrics();
+    }
+
+    /**
+     * The default tags plus the downstream. The query string is dropped from the uri tag, the clients build their
+     * query strings from ids and every id would otherwise become a time series of its own.
+     */
+    @Bean
+    public WebClientExchangeTagsProvider webClientExchangeTagsProvider() {
+        return (request, response, throwable) -> {
+            String uri = WebClientExchangeTags.uri(request).getValue();
+            int queryStart = uri.indexOf('?');
+
+            return Tags.of(WebClientExchangeTags.method(request),
+                           Tag.of("uri", queryStart < 0 ? uri : uri.substring(0, queryStart)),
+                           WebClientExchangeTags.clientName(request),
+                           WebClientExchangeTags.status(response, throwable),
+                           WebClientExchangeTags.outcome(response),
+                           Tag.of("downstream", request.attribute(DOWNSTREAM_ATTRIBUTE)
+                                                       .map(Object::toString)
+                                                       .orElse("none")));
+        };
+    }
+}
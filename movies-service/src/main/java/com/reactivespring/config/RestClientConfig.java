@@ -0,0 +1,19 @@
+package com.reactivespring.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import com.reactivespring.cache.RestClientCacheProperties;
+import com.reactivespring.connection.RestClientConnectionProperties;
+import com.reactivespring.hedging.RestClientHedgingProperties;
+import com.reactivespring.resilience.RestClientResilienceProperties;
+
+@Configuration
+@EnableConfigurationProperties({
+        RestClientCacheProperties.class,
+        RestClientConnectionProperties.class,
+        RestClientHedgingProperties.class,
+        RestClientResilienceProperties.class
+})
+public class RestClientConfig {
+}
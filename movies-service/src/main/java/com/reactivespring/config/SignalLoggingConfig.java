@@ -0,0 +1,18 @@
+package com.reactivespring.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.reactivespring.logging.SignalLogger;
+import com.reactivespring.logging.SignalLoggingProperties;
+
+@Configuration
+@EnableConfigurationProperties(SignalLoggingProperties.class)
+public class SignalLoggingConfig {
+
+    @Bean
+    public SignalLogger signalLogger(SignalLoggingProperties signalLoggingProperties) {
+        return new SignalLogger(signalLoggingProperties);
+    }
+}
@@ -0,0 +1,23 @@
+package com.reactivespring.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.reactivespring.tracing.FileSpanHandler;
+
+import brave.handler.SpanHandler;
+
+/**
+ * Spans come from Spring Cloud Sleuth: a server span per request and a client span per WebClient call, propagated
+ * downstream as a W3C {@code traceparent} header. Sleuth is set up in {@code application.yml} to keep the current span
+ * in the Reactor Context only, the sampling decision is made once at the root of the trace
+ * ({@code spring.sleuth.sampler.probability}) and travels with it.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    public SpanHandler fileSpanHandler() {
+        return new FileSpanHandler();
+    }
+}
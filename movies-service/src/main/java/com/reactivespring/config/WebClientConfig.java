@@ -1,14 +1,112 @@
 package com.reactivespring.config;
 
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import com.reactivespring.connection.ConnectionSpec;
+import com.reactivespring.connection.RestClientConnectionProperties;
+
+import io.netty.channel.ChannelOption;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.socket.nio.NioChannelOption;
+import jdk.net.ExtendedSocketOptions;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * One WebClient per downstream, each with its own connection pool so a slow downstream cannot starve the other.
+ * <p>
+ * Pools export their active, idle and pending gauges as {@code reactor.netty.connection.provider.*} tagged with
+ * the downstream name, client timers carry it as the {@code downstream} tag (see {@link MetricsConfig}). Unless
+ * {@code restClient.smile.enabled} is off, responses are requested as Smile (see {@link CodecConfig}) with JSON as
+ * fallback.
+ */
 @Configuration
 public class WebClientConfig {
 
+    @Value("${restClient.smile.enabled:true}")
+    private boolean smileEnabled;
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider moviesInfoConnectionProvider(RestClientConnectionProperties connectionProperties) {
+        return connectionProvider("moviesInfo", connectionProperties.getMoviesInfo());
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider reviewsConnectionProvider(RestClientConnectionProperties connectionProperties) {
+        return connectionProvider("reviews", connectionProperties.getReviews());
+    }
+
+    @Bean
+    public WebClient moviesInfoWebClient(WebClient.Builder webClientBuilder,
+                                         @Qualifier("moviesInfoConnectionProvider") ConnectionProvider connectionProvider,
+                                         RestClientConnectionProperties connectionProperties) {
+        return webClient("moviesInfo", webClientBuilder, httpClient(connectionProvider, connectionProperties.getMoviesInfo()));
+    }
+
     @Bean
-    public WebClient webClient(WebClient.Builder webClientBuilder){
+    public WebClient reviewsWebClient(WebClient.Builder webClientBuilder,
+                                      @Qualifier("reviewsConnectionProvider") ConnectionProvider connectionProvider,
+                                      RestClientConnectionProperties connectionProperties) {
+        return webClient("reviews", webClientBuilder, httpClient(connectionProvider, connectionProperties.getReviews()));
+    }
+
+    private WebClient webClient(String downstream, WebClient.Builder webClientBuilder, HttpClient httpClient) {
+        webClientBuilder.clientConnector(new ReactorClientHttpConnector(httpClient))
+                        .defaultRequest(request -> request.attribute(MetricsConfig.DOWNSTREAM_ATTRIBUTE, downstream));
+
+        if (smileEnabled) {
+            webClientBuilder.defaultHeaders(headers -> headers.setAccept(List.of(CodecConfig.APPLICATION_SMILE, MediaType.APPLICATION_JSON)));
+        }
+
         return webClientBuilder.build();
     }
+
+    private static ConnectionProvider connectionProvider(String name, ConnectionSpec spec) {
+        return ConnectionProvider.builder(name)
+                                 .maxConnections(spec.getMaxConnections())
+                                 .pendingAcquireMaxCount(spec.getPendingAcquireMaxCount())
+                                 .pendingAcquireTimeout(spec.getPendingAcquireTimeout())
+                                 .maxIdleTime(spec.getMaxIdleTime())
+                                 .maxLifeTime(spec.getMaxLifeTime())
+                                 .evictInBackground(spec.getEvictInBackground())
+                                 .metrics(true)
+                                 .build();
+    }
+
+    private static HttpClient httpClient(ConnectionProvider connectionProvider, ConnectionSpec spec) {
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                                          .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) spec.getConnectTimeout().toMillis())
+                                          .responseTimeout(spec.getResponseTimeout())
+                                          .protocol(spec.isH2c()
+                                                    ? new HttpProtocol[]{HttpProtocol.H2C, HttpProtocol.HTTP11}
+                                                    : new HttpProtocol[]{HttpProtocol.HTTP11});
+
+        ConnectionSpec.KeepAliveSpec keepAlive = spec.getKeepAlive();
+        if (!keepAlive.isEnabled()) {
+            return httpClient;
+        }
+
+        int idleSeconds = (int) keepAlive.getIdle().getSeconds();
+        int intervalSeconds = (int) keepAlive.getInterval().getSeconds();
+        httpClient = httpClient.option(ChannelOption.SO_KEEPALIVE, true);
+
+        // the probe timings are transport specific, Reactor Netty picks epoll whenever it is available
+        return Epoll.isAvailable()
+               ? httpClient.option(EpollChannelOption.TCP_KEEPIDLE, idleSeconds)
+                           .option(EpollChannelOption.TCP_KEEPINTVL, intervalSeconds)
+                           .option(EpollChannelOption.TCP_KEEPCNT, keepAlive.getCount())
+               : httpClient.option(NioChannelOption.of(ExtendedSocketOptions.TCP_KEEPIDLE), idleSeconds)
+                           .option(NioChannelOption.of(ExtendedSocketOptions.TCP_KEEPINTERVAL), intervalSeconds)
+                           .option(NioChannelOption.of(ExtendedSocketOptions.TCP_KEEPCOUNT), keepAlive.getCount());
+    }
 }
@@ -0,0 +1,59 @@
+package com.reactivespring.connection;
+
+import java.time.Duration;
+
+import lombok.Data;
+
+@Data
+public class ConnectionSpec {
+
+    private int maxConnections = 500;
+
+    /**
+     * Requests allowed to wait for a connection once every pooled connection is in use, -1 for no limit.
+     */
+    private int pendingAcquireMaxCount = 1000;
+
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Connections idle for longer than this are closed, should stay below the downstream's own idle timeout.
+     */
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    private Duration maxLifeTime = Duration.ofMinutes(5);
+
+    /**
+     * Interval of the background task evicting idle and expired connections, {@code 0} only evicts on acquire.
+     */
+    private Duration evictInBackground = Duration.ofSeconds(30);
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    private Duration responseTimeout = Duration.ofSeconds(3);
+
+    /**
+     * Negotiate HTTP/2 over cleartext (h2c upgrade) with the downstream, falling back to HTTP/1.1.
+     */
+    private boolean h2c = false;
+
+    private KeepAliveSpec keepAlive = new KeepAliveSpec();
+
+    @Data
+    public static class KeepAliveSpec {
+
+        private boolean enabled = true;
+
+        /**
+         * Time a connection has to be idle before the first probe is sent.
+         */
+        private Duration idle = Duration.ofSeconds(60);
+
+        private Duration interval = Duration.ofSeconds(10);
+
+        /**
+         * Unanswered probes after which the connection is dropped.
+         */
+        private int count = 3;
+    }
+}
@@ -0,0 +1,14 @@
+package com.reactivespring.connection;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "rest-client.connection")
+public class RestClientConnectionProperties {
+
+    private ConnectionSpec moviesInfo = new ConnectionSpec();
+
+    private ConnectionSpec reviews = new ConnectionSpec();
+}
@@ -1,11 +1,17 @@
 package com.reactivespring.controller;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.reactivespring.client.MoviesInfoRestClient;
@@ -14,30 +20,118 @@ import com.reactivespring.domain.Movie;
 import com.reactivespring.domain.MovieInfo;
 import com.reactivespring.domain.Review;
 
-import lombok.RequiredArgsConstructor;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 @RestController
 @RequestMapping("/v1/movies")
-@RequiredArgsConstructor
 public class MoviesController {
 
     private final MoviesInfoRestClient moviesInfoRestClient;
     private final ReviewsRestClient reviewsRestClient;
 
+    private final Duration deadline;
+    private final boolean degradedReviewsEnabled;
+    private final Duration reviewsDeadline;
+
+    private final int streamBatchSize;
+    private final Duration streamBatchWindow;
+    private final int streamConcurrency;
+    private final int streamMaxPendingBatches;
+
+    public MoviesController(MoviesInfoRestClient moviesInfoRestClient,
+                            ReviewsRestClient reviewsRestClient,
+                            @Value("${movies.deadline:5s}") Duration deadline,
+                            @Value("${movies.degradedReviews.enabled:false}") boolean degradedReviewsEnabled,
+                            @Value("${movies.degradedReviews.deadline:1s}") Duration reviewsDeadline,
+                            @Value("${movies.stream.batchSize:50}") int streamBatchSize,
+                            @Value("${movies.stream.batchWindow:100ms}") Duration streamBatchWindow,
+                            @Value("${movies.stream.concurrency:4}") int streamConcurrency,
+                            @Value("${movies.stream.maxPendingBatches:32}") int streamMaxPendingBatches) {
+        this.moviesInfoRestClient = moviesInfoRestClient;
+        this.reviewsRestClient = reviewsRestClient;
+        this.deadline = deadline;
+        this.degradedReviewsEnabled = degradedReviewsEnabled;
+        this.reviewsDeadline = reviewsDeadline;
+        this.streamBatchSize = streamBatchSize;
+        this.streamBatchWindow = streamBatchWindow;
+        this.streamConcurrency = streamConcurrency;
+        this.streamMaxPendingBatches = streamMaxPendingBatches;
+    }
+
     @GetMapping("/{movieId}")
     public Mono<Movie> getMovieById(@PathVariable("movieId") String movieId) {
-        return moviesInfoRestClient.getMovieInfo(movieId)
-                                   .flatMap(movieInfo -> {
-                                       Mono<List<Review>> reviewsMono = reviewsRestClient.getReviews(movieId).collectList();
+        return Mono.defer(() -> {
+                       AtomicBoolean reviewsDegraded = new AtomicBoolean();
+
+                       Mono<MovieInfo> movieInfoMono = moviesInfoRestClient.getMovieInfo(movieId);
+                       Mono<List<Review>> reviewsMono = degradedReviewsEnabled
+                                                        ? reviewsRestClient.getReviews(movieId)
+                                                                           .takeUntilOther(Mono.delay(reviewsDeadline)
+                                                                                               .doOnNext(tick -> reviewsDegraded.set(true)))
+                                                                           .collectList()
+                                                        : reviewsRestClient.getReviews(movieId).collectList();
+
+                       // both calls run concurrently, an error on either side (e.g. a 404 movie info) cancels the other
+                       return Mono.zip(movieInfoMono, reviewsMono,
+                                       (movieInfo, reviews) -> new Movie(movieInfo, reviews, reviewsDegraded.get()));
+                   })
+                   .timeout(deadline);
+    }
+
+    @GetMapping(params = "ids")
+    public Flux<Movie> getMoviesByIds(@RequestParam("ids") List<String> movieIds) {
+        List<String> distinctMovieIds = movieIds.stream()
+                                                .distinct()
+                                                .collect(Collectors.toList());
+
+        Mono<List<MovieInfo>> movieInfosMono = moviesInfoRestClient.getMovieInfos(distinctMovieIds).collectList();
+        Mono<Map<String, List<Review>>> reviewsByMovieIdMono = getReviewsByMovieId(distinctMovieIds);
 
-                                       return reviewsMono.map(reviews -> new Movie(movieInfo, reviews));
-                                   });
+        return Mono.zip(movieInfosMono, reviewsByMovieIdMono, this::toMovies)
+                   .flatMapIterable(movies -> movies);
+    }
+
+    private Mono<Map<String, List<Review>>> getReviewsByMovieId(List<String> movieIds) {
+        return reviewsRestClient.getReviews(movieIds)
+                                .collect(Collectors.groupingBy(review -> String.valueOf(review.getMovieInfoId())));
+    }
+
+    private List<Movie> toMovies(List<MovieInfo> movieInfos, Map<String, List<Review>> reviewsByMovieId) {
+        return movieInfos.stream()
+                         .map(movieInfo -> new Movie(movieInfo, reviewsByMovieId.getOrDefault(movieInfo.getMovieInfoId(), List.of())))
+                         .collect(Collectors.toList());
     }
 
     @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
     public Flux<MovieInfo> getMovieInfosStream() {
         return moviesInfoRestClient.getMovieInfoStream();
     }
+
+    /**
+     * Same stream as {@link #getMovieInfosStream()}, but every movie info comes with its reviews.
+     * <p>
+     * Movie infos are grouped into micro-batches (up to {@code movies.stream.batchSize} items or
+     * {@code movies.stream.batchWindow}, whichever comes first) and each batch is enriched with a single bulk reviews
+     * call. At most {@code movies.stream.concurrency} batches are enriched at once and the original order is kept.
+     * A subscriber falling behind by more than {@code movies.stream.maxPendingBatches} batches gets an overflow error
+     * instead of growing the buffer without bounds.
+     */
+    @GetMapping(value = "/stream", params = "enrich=true", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Movie> getMoviesStream() {
+        return moviesInfoRestClient.getMovieInfoStream()
+                                   .bufferTimeout(streamBatchSize, streamBatchWindow)
+                                   .onBackpressureBuffer(streamMaxPendingBatches)
+                                   .flatMapSequential(this::enrich, streamConcurrency, 1)
+                                   .concatMapIterable(movies -> movies);
+    }
+
+    private Mono<List<Movie>> enrich(List<MovieInfo> movieInfos) {
+        List<String> movieIds = movieInfos.stream()
+                                          .map(MovieInfo::getMovieInfoId)
+                                          .distinct()
+                                          .collect(Collectors.toList());
+
+        return getReviewsByMovieId(movieIds).map(reviewsByMovieId -> toMovies(movieInfos, reviewsByMovieId));
+    }
 }
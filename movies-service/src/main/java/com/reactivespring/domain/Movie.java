@@ -14,4 +14,13 @@ public class Movie {
 
     private MovieInfo movieInfo;
     private List<Review> reviewList;
+
+    /**
+     * Set when the reviews did not arrive within their deadline and {@link #reviewList} is empty or partial.
+     */
+    private boolean reviewsDegraded;
+
+    public Movie(MovieInfo movieInfo, List<Review> reviewList) {
+        this(movieInfo, reviewList, false);
+    }
 }
@@ -1,11 +1,16 @@
 package com.reactivespring.globalerrorhandler;
 
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import com.reactivespring.exception.MoviesInfoClientException;
 
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import lombok.extern.slf4j.Slf4j;
 
 @ControllerAdvice
@@ -20,6 +25,22 @@ public class GlobalErrorHandler {
         return ResponseEntity.status(exception.getStatusCode()).body(exceptionMessage);
     }
 
+    @ExceptionHandler(TimeoutException.class)
+    public ResponseEntity<String> handleTimeoutExceptions(TimeoutException exception) {
+        String exceptionMessage = exception.getMessage();
+
+        log.error("TimeoutException caught: {}", exceptionMessage);
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(exceptionMessage);
+    }
+
+    @ExceptionHandler({CallNotPermittedException.class, BulkheadFullException.class})
+    public ResponseEntity<String> handleDownstreamRejections(RuntimeException exception) {
+        String exceptionMessage = exception.getMessage();
+
+        log.error("Downstream call rejected: {}", exceptionMessage);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(exceptionMessage);
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<String> handleRuntimeExceptions(RuntimeException exception) {
         String exceptionMessage = exception.getMessage();
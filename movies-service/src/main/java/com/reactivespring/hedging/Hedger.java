@@ -0,0 +1,134 @@
+package com.reactivespring.hedging;
+
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import com.reactivespring.util.RequestBudget;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Sends a duplicate (hedge) of a slow call and keeps whichever value arrives first, cancelling the other. A failed
+ * call does not win: the other one goes on, and the error of the primary call is only signalled when neither produced
+ * a value. A primary call failing before the hedge went out fails right away.
+ * <p>
+ * The hedge goes out once the call has been running for longer than the configured delay or, when a percentile
+ * is configured, longer than that percentile of the recent latencies of the primary calls. Hedges are only sent while
+ * the {@link RequestBudget} allows it. Fired, won and budget-denied hedges are counted in the {@code hedging.requests}
+ * meter.
+ */
+public class Hedger {
+
+    private static final long PERCENTILE_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final HedgingSpec spec;
+    private final RequestBudget budget;
+    private final Timer latency;
+    private final Timer primaryLatency;
+
+    private final Counter hedgesFired;
+    private final Counter hedgesWon;
+    private final Counter hedgesDenied;
+
+    private volatile Duration hedgeDelay;
+    private volatile long hedgeDelayComputedAt = System.nanoTime();
+
+    public Hedger(String name, HedgingSpec spec, MeterRegistry meterRegistry) {
+        this.spec = spec;
+        this.budget = new RequestBudget(spec.getBudgetPercent(), spec.getBudgetMaxTokens());
+        this.hedgeDelay = spec.getDelay();
+
+        this.latency = Timer.builder("hedging.latency")
+                            .description("Latency of hedged calls, first value wins")
+                            .tag("name", name)
+                            .register(meterRegistry);
+
+        // the hedge delay is a percentile of these, not of the hedged latencies that it shortens itself
+        Timer.Builder primaryLatencyBuilder = Timer.builder("hedging.primary.latency")
+                                                   .description("Latency of the primary calls, until cancelled for those a hedge won")
+                                                   .tag("name", name);
+        if (spec.getPercentile() != null) {
+            primaryLatencyBuilder.publishPercentiles(spec.getPercentile());
+        }
+        this.primaryLatency = primaryLatencyBuilder.register(meterRegistry);
+
+        this.hedgesFired = hedgeCounter(name, "fired", meterRegistry);
+        this.hedgesWon = hedgeCounter(name, "won", meterRegistry);
+        this.hedgesDenied = hedgeCounter(name, "denied", meterRegistry);
+    }
+
+    public <T> Mono<T> hedge(Supplier<Mono<T>> call) {
+        if (!spec.isEnabled()) {
+            return Mono.defer(call);
+        }
+
+        return Mono.defer(() -> {
+            budget.deposit();
+            long start = System.nanoTime();
+
+            AtomicReference<Throwable> primaryError = new AtomicReference<>();
+            Sinks.Empty<Void> primaryFailed = Sinks.empty();
+
+            // a cancelled primary call took at least as long as the hedge delay, which keeps the percentile from drifting
+            Mono<T> primary = call.get()
+                                  .doOnError(error -> {
+                                      primaryError.set(error);
+                                      primaryFailed.tryEmitEmpty();
+                                  })
+                                  .doFinally(signal -> primaryLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+            Mono<T> hedge = Mono.delay(currentHedgeDelay())
+                                .takeUntilOther(primaryFailed.asMono())
+                                .flatMap(tick -> {
+                                    if (!budget.tryWithdraw()) {
+                                        hedgesDenied.increment();
+                                        return Mono.empty();
+                                    }
+
+                                    hedgesFired.increment();
+                                    return call.get()
+                                               .doOnNext(value -> hedgesWon.increment());
+                                });
+
+            // the first value wins, the losing call is cancelled
+            return Mono.firstWithValue(primary, hedge)
+                       .onErrorResume(NoSuchElementException.class, noValue -> primaryError.get() != null
+                                                                                ? Mono.error(primaryError.get())
+                                                                                : Mono.empty())
+                       .doOnSuccess(value -> latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    private Duration currentHedgeDelay() {
+        if (spec.getPercentile() == null) {
+            return spec.getDelay();
+        }
+
+        long now = System.nanoTime();
+        if (now - hedgeDelayComputedAt > PERCENTILE_REFRESH_NANOS) {
+            hedgeDelayComputedAt = now;
+
+            for (ValueAtPercentile valueAtPercentile : primaryLatency.takeSnapshot().percentileValues()) {
+                Duration percentileLatency = Duration.ofNanos((long) valueAtPercentile.value(TimeUnit.NANOSECONDS));
+                hedgeDelay = percentileLatency.compareTo(spec.getDelay()) > 0 ? percentileLatency : spec.getDelay();
+            }
+        }
+
+        return hedgeDelay;
+    }
+
+    private static Counter hedgeCounter(String name, String result, MeterRegistry meterRegistry) {
+        return Counter.builder("hedging.requests")
+                      .description("Hedged requests by outcome")
+                      .tag("name", name)
+                      .tag("result", result)
+                      .register(meterRegistry);
+    }
+}
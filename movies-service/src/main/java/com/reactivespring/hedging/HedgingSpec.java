@@ -0,0 +1,29 @@
+package com.reactivespring.hedging;
+
+import java.time.Duration;
+
+import lombok.Data;
+
+@Data
+public class HedgingSpec {
+
+    private boolean enabled = false;
+
+    /**
+     * Fixed delay before the hedge is sent, also the lower bound when {@link #percentile} is set.
+     */
+    private Duration delay = Duration.ofMillis(100);
+
+    /**
+     * Live percentile (e.g. 0.95) of the primary call latency after which the hedge is sent. Leave unset to always use
+     * {@link #delay}.
+     */
+    private Double percentile;
+
+    /**
+     * Maximum share of the traffic, in percent, that may be duplicated by hedges.
+     */
+    private double budgetPercent = 5;
+
+    private int budgetMaxTokens = 10;
+}
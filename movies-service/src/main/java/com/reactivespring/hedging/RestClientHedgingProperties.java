@@ -0,0 +1,14 @@
+package com.reactivespring.hedging;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "rest-client.hedging")
+public class RestClientHedgingProperties {
+
+    private HedgingSpec moviesInfo = new HedgingSpec();
+
+    private HedgingSpec reviews = new HedgingSpec();
+}
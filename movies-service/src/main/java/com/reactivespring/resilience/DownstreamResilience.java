@@ -0,0 +1,156 @@
+package com.reactivespring.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+
+import com.reactivespring.exception.MoviesInfoServerException;
+import com.reactivespring.exception.ReviewsServerException;
+import com.reactivespring.hedging.Hedger;
+import com.reactivespring.util.RequestBudget;
+import com.reactivespring.util.RetryUtil;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+/**
+ * Resilience policies shared by every call to one downstream service.
+ * <p>
+ * Each attempt first has to get past a circuit breaker, which fails fast with {@code CallNotPermittedException}
+ * while the downstream is unhealthy, and then a semaphore bulkhead capping concurrent calls, which rejects with
+ * {@code BulkheadFullException} instead of queueing. Failed attempts are retried with exponential backoff and full
+ * jitter, as long as the downstream's retry budget allows it. Only server errors, I/O errors and timeouts count as
+ * failures; 4xx responses are never retried and never open the circuit.
+ * <p>
+ * The bulkhead caps requests in flight, not calls: a hedged call holds a permit for its primary request and another
+ * one for its hedge while both are out, see {@link #decorate(Hedger, Supplier)}.
+ * <p>
+ * Circuit breaker state and calls, bulkhead usage, state transitions and retry budget are published as meters
+ * tagged with the downstream name.
+ */
+public class DownstreamResilience {
+
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final RequestBudget retryBudget;
+    private final Retry retry;
+
+    public DownstreamResilience(String name, ResilienceSpec spec, MeterRegistry meterRegistry) {
+        ResilienceSpec.CircuitBreakerSpec circuitBreakerSpec = spec.getCircuitBreaker();
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                                                                                          .failureRateThreshold(circuitBreakerSpec.getFailureRateThreshold())
+                                                                                          .slidingWindowSize(circuitBreakerSpec.getSlidingWindowSize())
+                                                                                          .minimumNumberOfCalls(circuitBreakerSpec.getMinimumNumberOfCalls())
+                                                                                          .waitDurationInOpenState(circuitBreakerSpec.getWaitDurationInOpenState())
+                                                                                          .permittedNumberOfCallsInHalfOpenState(circuitBreakerSpec.getPermittedNumberOfCallsInHalfOpenState())
+                                                                                          .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                                                                                          .recordException(DownstreamResilience::isDownstreamFailure)
+                                                                                          .build());
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(name);
+
+        BulkheadRegistry bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                                                                              .maxConcurrentCalls(spec.getBulkhead().getMaxConcurrentCalls())
+                                                                              .maxWaitDuration(Duration.ZERO)
+                                                                              .build());
+        this.bulkhead = bulkheadRegistry.bulkhead(name);
+
+        ResilienceSpec.RetrySpec retrySpec = spec.getRetry();
+        this.retryBudget = new RequestBudget(retrySpec.getBudgetPercent(), retrySpec.getBudgetMaxTokens());
+
+        Counter retries = Counter.builder("resilience.retries")
+                                 .description("Retries sent to the downstream")
+                                 .tag("name", name)
+                                 .register(meterRegistry);
+        Counter budgetExhausted = Counter.builder("resilience.retries.budget.exhausted")
+                                         .description("Retries skipped because the retry budget was exhausted")
+                                         .tag("name", name)
+                                         .register(meterRegistry);
+        this.retry = RetryUtil.retrySpec(retrySpec, retryBudget, DownstreamResilience::isDownstreamFailure, retries, budgetExhausted);
+
+        Gauge.builder("resilience.retries.budget", retryBudget, RequestBudget::availableTokens)
+             .description("Retry tokens currently available")
+             .tag("name", name)
+             .register(meterRegistry);
+
+        circuitBreaker.getEventPublisher()
+                      .onStateTransition(event -> Counter.builder("resilience.circuitbreaker.transitions")
+                                                         .description("Circuit breaker state transitions")
+                                                         .tag("name", name)
+                                                         .tag("from", event.getStateTransition().getFromState().name())
+                                                         .tag("to", event.getStateTransition().getToState().name())
+                                                         .register(meterRegistry)
+                                                         .increment());
+
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(meterRegistry);
+    }
+
+    public <T> Mono<T> decorate(Mono<T> attempt) {
+        Mono<T> attempts = attempt.transform(BulkheadOperator.of(bulkhead))
+                                    .transform(CircuitBreakerOperator.of(circuitBreaker))
+                                    .retryWhen(retry);
+
+        // one deposit per call, outside of what retryWhen resubscribes, or retries would refill their own budget
+        return Mono.defer(() -> {
+            retryBudget.deposit();
+            return attempts;
+        });
+    }
+
+    /**
+     * Like {@link #decorate(Mono)} for a hedged call: the bulkhead is around each request the hedger sends, the circuit
+     * breaker and the retries around the hedged call as a whole. A hedge the bulkhead rejects leaves the primary
+     * request to answer on its own.
+     */
+    public <T> Mono<T> decorate(Hedger hedger, Supplier<Mono<T>> request) {
+        Mono<T> attempts = hedger.hedge(() -> request.get()
+                                                     .transform(BulkheadOperator.of(bulkhead)))
+                                 .transform(CircuitBreakerOperator.of(circuitBreaker))
+                                 .retryWhen(retry);
+
+        // one deposit per call, outside of what retryWhen resubscribes, or retries would refill their own budget
+        return Mono.defer(() -> {
+            retryBudget.deposit();
+            return attempts;
+        });
+    }
+
+    public <T> Flux<T> decorate(Flux<T> attempt) {
+        Flux<T> attempts = attempt.transform(BulkheadOperator.of(bulkhead))
+                                    .transform(CircuitBreakerOperator.of(circuitBreaker))
+                                    .retryWhen(retry);
+
+        // one deposit per call, outside of what retryWhen resubscribes, or retries would refill their own budget
+        return Flux.defer(() -> {
+            retryBudget.deposit();
+            return attempts;
+        });
+    }
+
+    public CircuitBreaker.State circuitBreakerState() {
+        return circuitBreaker.getState();
+    }
+
+    private static boolean isDownstreamFailure(Throwable throwable) {
+        return throwable instanceof MoviesInfoServerException
+               || throwable instanceof ReviewsServerException
+               || throwable instanceof WebClientRequestException
+               || throwable instanceof TimeoutException;
+    }
+}
@@ -0,0 +1,59 @@
+package com.reactivespring.resilience;
+
+import java.time.Duration;
+
+import lombok.Data;
+
+@Data
+public class ResilienceSpec {
+
+    private RetrySpec retry = new RetrySpec();
+
+    private CircuitBreakerSpec circuitBreaker = new CircuitBreakerSpec();
+
+    private BulkheadSpec bulkhead = new BulkheadSpec();
+
+    @Data
+    public static class RetrySpec {
+
+        private int maxRetries = 3;
+
+        /**
+         * Base of the exponential backoff, the n-th retry waits a random time between zero and
+         * {@code min(maxBackoff, minBackoff * 2^n)} (full jitter).
+         */
+        private Duration minBackoff = Duration.ofMillis(100);
+
+        private Duration maxBackoff = Duration.ofSeconds(2);
+
+        /**
+         * Maximum share of the traffic, in percent, that may be sent again as retries.
+         */
+        private double budgetPercent = 10;
+
+        private int budgetMaxTokens = 10;
+    }
+
+    @Data
+    public static class CircuitBreakerSpec {
+
+        private float failureRateThreshold = 50;
+
+        private int slidingWindowSize = 50;
+
+        private int minimumNumberOfCalls = 20;
+
+        private Duration waitDurationInOpenState = Duration.ofSeconds(10);
+
+        private int permittedNumberOfCallsInHalfOpenState = 5;
+    }
+
+    @Data
+    public static class BulkheadSpec {
+
+        /**
+         * Requests in flight to the downstream, the primary request and the hedge of a hedged call count as two.
+         */
+        private int maxConcurrentCalls = 200;
+    }
+}
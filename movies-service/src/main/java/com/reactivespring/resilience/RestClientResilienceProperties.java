@@ -0,0 +1,14 @@
+package com.reactivespring.resilience;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+@Data
+@ConfigurationProperties(prefix = "rest-client.resilience")
+public class RestClientResilienceProperties {
+
+    private ResilienceSpec moviesInfo = new ResilienceSpec();
+
+    private ResilienceSpec reviews = new ResilienceSpec();
+}
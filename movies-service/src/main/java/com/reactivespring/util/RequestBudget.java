@@ -0,0 +1,45 @@
+package com.reactivespring.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket that caps extra requests (hedges, retries) at a percentage of the regular traffic.
+ * <p>
+ * Every regular request deposits {@code percent / 100} of a token, every extra request withdraws a whole token.
+ * The balance is capped at {@code maxTokens}, which is also the initial balance, so short bursts are allowed
+ * even when traffic is low. Lock-free, safe to call from the event loop.
+ */
+public class RequestBudget {
+
+    private static final long TOKEN = 1_000;
+
+    private final long depositPerRequest;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    public RequestBudget(double percent, int maxTokens) {
+        this.depositPerRequest = Math.round(percent * TOKEN / 100);
+        this.maxBalance = maxTokens * TOKEN;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    public void deposit() {
+        balance.accumulateAndGet(depositPerRequest, (current, deposit) -> Math.min(maxBalance, current + deposit));
+    }
+
+    public boolean tryWithdraw() {
+        while (true) {
+            long current = balance.get();
+            if (current < TOKEN) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+        }
+    }
+
+    public double availableTokens() {
+        return (double) balance.get() / TOKEN;
+    }
+}
@@ -1,19 +1,48 @@
 package com.reactivespring.util;
 
 import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
 
-import com.reactivespring.exception.MoviesInfoServerException;
-import com.reactivespring.exception.ReviewsServerException;
+import com.reactivespring.resilience.ResilienceSpec;
 
-import reactor.core.Exceptions;
+import io.micrometer.core.instrument.Counter;
+import reactor.core.publisher.Mono;
 import reactor.util.retry.Retry;
 
 public class RetryUtil {
 
-    public static Retry retrySpec() {
-        return Retry.fixedDelay(3, Duration.ofSeconds(1))
-                    .filter(throwable -> throwable instanceof MoviesInfoServerException
-                                         || throwable instanceof ReviewsServerException)
-                    .onRetryExhaustedThrow((retryBackoffSpec, retrySignal) -> Exceptions.propagate(retrySignal.failure()));
+    /**
+     * Exponential backoff with full jitter: the n-th retry (starting at 0) waits a random time in
+     * {@code [0, min(maxBackoff, minBackoff * 2^n)]}. A retry is only sent while the budget has a token left,
+     * otherwise the last failure is propagated as is.
+     */
+    public static Retry retrySpec(ResilienceSpec.RetrySpec spec,
+                                  RequestBudget budget,
+                                  Predicate<Throwable> retryable,
+                                  Counter retries,
+                                  Counter budgetExhausted) {
+        return Retry.from(retrySignals -> retrySignals.concatMap(retrySignal -> {
+            Throwable failure = retrySignal.failure();
+
+            if (!retryable.test(failure) || retrySignal.totalRetries() >= spec.getMaxRetries()) {
+                return Mono.error(failure);
+            }
+
+            if (!budget.tryWithdraw()) {
+                budgetExhausted.increment();
+                return Mono.error(failure);
+            }
+
+            retries.increment();
+            return Mono.delay(fullJitterBackoff(spec, retrySignal.totalRetries()));
+        }));
+    }
+
+    static Duration fullJitterBackoff(ResilienceSpec.RetrySpec spec, long retry) {
+        long maxBackoffMillis = spec.getMaxBackoff().toMillis();
+        long cappedBackoffMillis = Math.min(maxBackoffMillis, spec.getMinBackoff().toMillis() << Math.min(retry, 30));
+
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(cappedBackoffMillis + 1));
     }
 }
@@ -0,0 +1,74 @@
+package com.reactivespring.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Coalesces concurrent lookups for the same key into a single in-flight upstream call.
+ * <p>
+ * The first caller for a key triggers the loader, every caller arriving while that call is still running
+ * subscribes to the same shared {@link Mono}. The entry is dropped as soon as the call terminates or every
+ * waiter cancels, in which case the upstream call is cancelled too. Completed results are never served from here.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Call> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter leaderCalls;
+    private final Counter coalescedCalls;
+
+    public SingleFlight(String name, MeterRegistry meterRegistry) {
+        this.leaderCalls = Counter.builder("singleflight.calls")
+                                  .description("Lookups that issued an upstream call")
+                                  .tag("name", name)
+                                  .tag("result", "leader")
+                                  .register(meterRegistry);
+        this.coalescedCalls = Counter.builder("singleflight.calls")
+                                     .description("Lookups that joined an already in-flight upstream call")
+                                     .tag("name", name)
+                                     .tag("result", "coalesced")
+                                     .register(meterRegistry);
+    }
+
+    public Mono<V> execute(K key, Function<K, Mono<V>> loader) {
+        return Mono.defer(() -> {
+            Call existing = inFlight.get(key);
+            if (existing == null) {
+                Call call = new Call(key, loader);
+                existing = inFlight.putIfAbsent(key, call);
+
+                if (existing == null) {
+                    leaderCalls.increment();
+                    return call.result;
+                }
+            }
+
+            coalescedCalls.increment();
+            return existing.result;
+        });
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private final class Call {
+
+        private final Mono<V> result;
+
+        private Call(K key, Function<K, Mono<V>> loader) {
+            // refCount() cancels the upstream call once the last waiter cancels
+            this.result = Mono.defer(() -> loader.apply(key))
+                              .doFinally(signalType -> inFlight.remove(key, this))
+                              .flux()
+                              .replay(1)
+                              .refCount()
+                              .singleOrEmpty();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.reactivespring.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.reactivespring.domain.Movie;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.cloud.contract.spec.internal.HttpStatus.NOT_FOUND;
+import static org.springframework.cloud.contract.spec.internal.MediaTypes.APPLICATION_JSON;
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+@AutoConfigureWebTestClient
+@AutoConfigureWireMock(port = 0)
+@TestPropertySource(properties = {
+        "restClient.moviesInfoUrl=http://localhost:${wiremock.server.port}/v1/movieinfos",
+        "restClient.reviewsUrl=http://localhost:${wiremock.server.port}/v1/reviews",
+        "restClient.cache.moviesInfo.enabled=false",
+        "restClient.cache.reviews.enabled=false",
+        "movies.deadline=1500ms",
+        "movies.degradedReviews.enabled=true",
+        "movies.degradedReviews.deadline=300ms"
+})
+class MoviesControllerDeadlineIntgTest {
+
+    static final String MOVIES_URL = "/v1/movies";
+    static final String MOVIE_INFOS_URL = "/v1/movieinfos";
+    static final String MOVIE_REVIEWS_URL = "/v1/reviews";
+
+    @Autowired WebTestClient webTestClient;
+
+    @Test
+    void getMovieById_slowReviews_returnsDegradedMovie() {
+        String movieId = "movieId";
+
+        stubFor(get(urlEqualTo(MOVIE_INFOS_URL + "/" + movieId))
+                        .willReturn(aResponse()
+                                            .withHeader(CONTENT_TYPE, APPLICATION_JSON)
+                                            .withBodyFile("movieinfo.json")));
+
+        stubFor(get(urlPathEqualTo(MOVIE_REVIEWS_URL))
+                        .willReturn(aResponse()
+                                            .withHeader(CONTENT_TYPE, APPLICATION_JSON)
+                                            .withBodyFile("reviews.json")
+                                            .withFixedDelay(1000)));
+
+        webTestClient.get()
+                     .uri(MOVIES_URL + "/{id}", movieId)
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectBody(Movie.class)
+                     .consumeWith(movieEntityExchangeResult -> {
+                         Movie movie = movieEntityExchangeResult.getResponseBody();
+
+                         assertEquals("Batman Begins", movie.getMovieInfo().getName());
+                         assertEquals(0, movie.getReviewList().size());
+                         assertTrue(movie.isReviewsDegraded());
+                     });
+    }
+
+    @Test
+    void getMovieById_slowMovieInfo_exceedsDeadline() {
+        String movieId = "movieId";
+
+        stubFor(get(urlEqualTo(MOVIE_INFOS_URL + "/" + movieId))
+                        .willReturn(aResponse()
+                                            .withHeader(CONTENT_TYPE, APPLICATION_JSON)
+                                            .withBodyFile("movieinfo.json")
+                                            .withFixedDelay(3000)));
+
+        stubFor(get(urlPathEqualTo(MOVIE_REVIEWS_URL))
+                        .willReturn(aResponse()
+                                            .withHeader(CONTENT_TYPE, APPLICATION_JSON)
+                                            .withBodyFile("reviews.json")));
+
+        webTestClient.get()
+                     .uri(MOVIES_URL + "/{id}", movieId)
+                     .exchange()
+                     .expectStatus()
+                     .isEqualTo(HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    @Test
+    void getMovieById_movieInfo_404_doesNotWaitForReviews() {
+        String movieId = "movieId";
+
+        stubFor(get(urlEqualTo(MOVIE_INFOS_URL + "/" + movieId))
+                        .willReturn(aResponse().withStatus(NOT_FOUND)));
+
+        stubFor(get(urlPathEqualTo(MOVIE_REVIEWS_URL))
+                        .willReturn(aResponse()
+                                            .withHeader(CONTENT_TYPE, APPLICATION_JSON)
+                                            .withBodyFile("reviews.json")
+                                            .withFixedDelay(3000)));
+
+        long start = System.currentTimeMillis();
+
+        webTestClient.get()
+                     .uri(MOVIES_URL + "/{id}", movieId)
+                     .exchange()
+                     .expectStatus()
+                     .isNotFound();
+
+        assertTrue(System.currentTimeMillis() - start < 1000);
+    }
+}
@@ -1,10 +1,16 @@
 package com.reactivespring.controller;
 
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.cloud.contract.wiremock.AutoConfigureWireMock;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -12,28 +18,45 @@ import org.springframework.test.web.reactive.server.WebTestClient;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.matching.UrlPathPattern;
 import com.github.tomakehurst.wiremock.matching.UrlPattern;
+import com.reactivespring.config.CodecConfig;
 import com.reactivespring.domain.Movie;
 import com.reactivespring.domain.MovieInfo;
 
+import io.micrometer.core.instrument.Metrics;
+
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
 import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.matching;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.cloud.contract.spec.internal.HttpStatus.INTERNAL_SERVER_ERROR;
 import static org.springframework.cloud.contract.spec.internal.HttpStatus.NOT_FOUND;
 import static org.springframework.cloud.contract.spec.internal.MediaTypes.APPLICATION_JSON;
+import static org.springframework.http.HttpHeaders.ACCEPT;
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @ActiveProfiles("test")
 @AutoConfigureWebTestClient
 @AutoConfigureWireMock(port = 8084)
+@AutoConfigureMetrics
 @TestPropertySource(properties = {
         "restClient.moviesInfoUrl=http://localhost:8084/v1/movieinfos",
-        "restClient.reviewsUrl=http://localhost:8084/v1/reviews"
+        "restClient.reviewsUrl=http://localhost:8084/v1/reviews",
+        "restClient.cache.moviesInfo.enabled=false",
+        "restClient.cache.reviews.enabled=false",
+        "restClient.moviesInfoMaxIds=2",
+        "restClient.reviewsMaxIds=2"
 })
 class MoviesControllerIntgTest {
 
@@ -43,6 +66,11 @@ class MoviesControllerIntgTest {
 
     @Autowired WebTestClient webTestClient;
 
+    @BeforeEach
+    void setUp() {
+        WireMock.resetAllRequests();
+    }
+
     @Test
     void getMovieById() {
         String movieId = "movieId";
@@ -71,6 +99,226 @@ class MoviesControllerIntgTest {
                      });
     }
 
+    @Test
+    void getMovieById_propagatesTraceContext() {
+        String movieId = "movieId";
+        String traceId = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+        stubFor(get(urlEqualTo(MOVIE_INFOS_URL + "/" + movieId))
+                        .willReturn(aResponse()
+                                            .withHeader(CONTENT_TYPE, APPLICATION_JSON)
+                                            .withBodyFile("movieinfo.json")));
+
+        stubFor(get(urlPathEqualTo(MOVIE_REVIEWS_URL))
+                        .willReturn(aResponse()
+                                            .withHeader(CONTENT_TYPE, APPLICATION_JSON)
+                                            .withBodyFile("reviews.json")));
+
+        webTestClient.get()
+                     .uri(MOVIES_URL + "/{id}", movieId)
+                     .header("traceparent", "00-" + traceId + "-00f067aa0ba902b7-01")
+                     .exchange()
+                     .expectStatus()
+                     .isOk();
+
+        // same trace and sampling decision, each downstream call in a client span of its own
+        WireMock.verify(getRequestedFor(urlEqualTo(MOVIE_INFOS_URL + "/" + movieId))
+                                .withHeader("traceparent", matching("00-" + traceId + "-[0-9a-f]{16}-01")));
+        WireMock.verify(getRequestedFor(urlPathEqualTo(MOVIE_REVIEWS_URL))
+                                .withHeader("traceparent", matching("00-" + traceId + "-[0-9a-f]{16}-01")));
+    }
+
+    @Test
+    void prometheusEndpoint_exposesServerAndClientTimers() {
+        getMovieById();
+
+        String scrape = webTestClient.get()
+                                     .uri("/actuator/prometheus")
+                                     .exchange()
+                                     .expectStatus()
+                                     .isOk()
+                                     .expectBody(String.class)
+                                     .returnResult()
+                                     .getResponseBody();
+
+        assertNotNull(scrape);
+        assertTrue(scrape.contains("http_server_requests_seconds_bucket{application=\"movies-service\",exception=\"None\",method=\"GET\",outcome=\"SUCCESS\",status=\"200\",uri=\"/v1/movies/{movieId}\",le=\"0.05\""));
+        assertTrue(scrape.contains("downstream=\"moviesInfo\""));
+        assertTrue(scrape.contains("downstream=\"reviews\""));
+        // the query string (?movieInfoId=...) is not part of the uri tag
+        assertTrue(scrape.contains("uri=\"/v1/reviews\""));
+        assertFalse(scrape.contains("movieInfoId="));
+    }
+
+    @Test
+    void getMovieById_smile() throws Exception {
+        String movieId = "movieId";
+        MovieInfo movieInfo = new MovieInfo(movieId, "Batman Begins", 2005, List.of("Christian Bale", "Michael Cane"), null);
+
+        stubFor(get(urlEqualTo(MOVIE_INFOS_URL + "/" + movieId))
+                        .willReturn(aResponse()
+                                            .withHeader(CONTENT_TYPE, CodecConfig.APPLICATION_SMILE.toString())
+                                            .withBody(Jackson2ObjectMapperBuilder.smile().build().writeValueAsBytes(movieInfo))));
+
+        stubFor(get(urlPathEqualTo(MOVIE_REVIEWS_URL))
+                        .willReturn(aResponse()
+                                            .withHeader(CONTENT_TYPE, APPLICATION_JSON)
+                                            .withBodyFile("reviews.json")));
+
+        webTestClient.get()
+                     .uri(MOVIES_URL + "/{id}", movieId)
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectBody(Movie.class)
+                     .consumeWith(movieEntityExchangeResult -> {
+                         Movie movie = movieEntityExchangeResult.getResponseBody();
+
+                         assertEquals(2, movie.getReviewList().size());
+                         assertEquals("Batman Begins", movie.getMovieInfo().getName());
+                     });
+
+        WireMock.verify(getRequestedFor(urlEqualTo(MOVIE_INFOS_URL + "/" + movieId))
+                                .withHeader(ACCEPT, containing(CodecConfig.APPLICATION_SMILE.toString())));
+    }
+
+    @Test
+    void getMovieById_exportsConnectionPoolGauges() {
+        String movieId = "movieId";
+
+        stubFor(get(urlEqualTo(MOVIE_INFOS_URL + "/" + movieId))
+                        .willReturn(aResponse()
+                                            .withHeader(CONTENT_TYPE, APPLICATION_JSON)
+                                            .withBodyFile("movieinfo.json")));
+
+        stubFor(get(urlPathEqualTo(MOVIE_REVIEWS_URL))
+                        .willReturn(aResponse()
+                                            .withHeader(CONTENT_TYPE, APPLICATION_JSON)
+                                            .withBodyFile("reviews.json")));
+
+        webTestClient.get()
+                     .uri(MOVIES_URL + "/{id}", movieId)
+                     .exchange()
+                     .expectStatus()
+                     .isOk();
+
+        for (String pool : List.of("moviesInfo", "reviews")) {
+            for (String gauge : List.of("active.connections", "idle.connections", "pending.connections")) {
+                assertNotNull(Metrics.globalRegistry.find("reactor.netty.connection.provider." + gauge)
+                                                    .tag("name", pool)
+                                                    .gauge());
+            }
+        }
+    }
+
+    @Test
+    void getMoviesByIds() {
+        stubFor(get(urlPathEqualTo(MOVIE_INFOS_URL))
+                        .withQueryParam("ids", equalTo("1,2"))
+                        .willReturn(aResponse()
+                                            .withHeader(CONTENT_TYPE, APPLICATION_JSON)
+                                            .withBodyFile("movieinfos.json")));
+
+        stubFor(get(urlPathEqualTo(MOVIE_REVIEWS_URL))
+                        .withQueryParam("movieInfoIds", equalTo("1,2"))
+                        .willReturn(aResponse()
+                                            .withHeader(CONTENT_TYPE, APPLICATION_JSON)
+                                            .withBodyFile("reviews.json")));
+
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder.path(MOVIES_URL)
+                                                  .queryParam("ids", "1,2")
+                                                  .build())
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectBodyList(Movie.class)
+                     .hasSize(2)
+                     .consumeWith(movieListEntityExchangeResult -> {
+                         List<Movie> movies = movieListEntityExchangeResult.getResponseBody();
+
+                         assertEquals("Batman Begins", movies.get(0).getMovieInfo().getName());
+                         assertEquals(2, movies.get(0).getReviewList().size());
+                         assertEquals("The Dark Knight", movies.get(1).getMovieInfo().getName());
+                         assertEquals(0, movies.get(1).getReviewList().size());
+                     });
+    }
+
+    @Test
+    void getMoviesByIds_moreIdsThanPerRequest_requestsThemInChunks() {
+        stubFor(get(urlPathEqualTo(MOVIE_INFOS_URL))
+                        .withQueryParam("ids", equalTo("1,2"))
+                        .willReturn(aResponse()
+                                            .withHeader(CONTENT_TYPE, APPLICATION_JSON)
+                                            .withBodyFile("movieinfos.json")));
+        stubFor(get(urlPathEqualTo(MOVIE_INFOS_URL))
+                        .withQueryParam("ids", equalTo("3"))
+                        .willReturn(aResponse()
+                                            .withHeader(CONTENT_TYPE, APPLICATION_JSON)
+                                            .withBody("[]")));
+
+        stubFor(get(urlPathEqualTo(MOVIE_REVIEWS_URL))
+                        .withQueryParam("movieInfoIds", equalTo("1,2"))
+                        .willReturn(aResponse()
+                                            .withHeader(CONTENT_TYPE, APPLICATION_JSON)
+                                            .withBodyFile("reviews.json")));
+        stubFor(get(urlPathEqualTo(MOVIE_REVIEWS_URL))
+                        .withQueryParam("movieInfoIds", equalTo("3"))
+                        .willReturn(aResponse()
+                                            .withHeader(CONTENT_TYPE, APPLICATION_JSON)
+                                            .withBody("[]")));
+
+        webTestClient.get()
+                     .uri(uriBuilder -> uriBuilder.path(MOVIES_URL)
+                                                  .queryParam("ids", "1,2,3")
+                                                  .build())
+                     .exchange()
+                     .expectStatus()
+                     .isOk()
+                     .expectBodyList(Movie.class)
+                     .hasSize(2);
+
+        WireMock.verify(2, getRequestedFor(urlPathEqualTo(MOVIE_INFOS_URL)));
+        WireMock.verify(2, getRequestedFor(urlPathEqualTo(MOVIE_REVIEWS_URL)));
+    }
+
+    @Test
+    void getMoviesStream_enrichesMovieInfosWithReviews() {
+        stubFor(get(urlEqualTo(MOVIE_INFOS_URL + "/stream"))
+                        .willReturn(aResponse()
+                                            .withHeader(CONTENT_TYPE, MediaType.APPLICATION_NDJSON_VALUE)
+                                            .withBody("{\"movieInfoId\":\"1\",\"name\":\"Batman Begins\",\"year\":2005}\n"
+                                                      + "{\"movieInfoId\":\"2\",\"name\":\"The Dark Knight\",\"year\":2008}\n")));
+
+        stubFor(get(urlPathEqualTo(MOVIE_REVIEWS_URL))
+                        .withQueryParam("movieInfoIds", equalTo("1,2"))
+                        .willReturn(aResponse()
+                                            .withHeader(CONTENT_TYPE, APPLICATION_JSON)
+                                            .withBodyFile("reviews.json")));
+
+        Flux<Movie> movies = webTestClient.get()
+                                          .uri(MOVIES_URL + "/stream?enrich=true")
+                                          .accept(MediaType.APPLICATION_NDJSON)
+                                          .exchange()
+                                          .expectStatus()
+                                          .isOk()
+                                          .returnResult(Movie.class)
+                                          .getResponseBody();
+
+        StepVerifier.create(movies)
+                    .assertNext(movie -> {
+                        assertEquals("Batman Begins", movie.getMovieInfo().getName());
+                        assertEquals(2, movie.getReviewList().size());
+                    })
+                    .assertNext(movie -> {
+                        assertEquals("The Dark Knight", movie.getMovieInfo().getName());
+                        assertEquals(0, movie.getReviewList().size());
+                    })
+                    .verifyComplete();
+
+        WireMock.verify(1, getRequestedFor(urlPathEqualTo(MOVIE_REVIEWS_URL)));
+    }
+
     @Test
     void getMovieById_movieInfo_404() {
         String movieId = "movieId";
@@ -0,0 +1,81 @@
+package com.reactivespring.cache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class ReactiveCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private SimpleMeterRegistry meterRegistry;
+    private CacheSpec cacheSpec;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cacheSpec = new CacheSpec();
+    }
+
+    @Test
+    void get_loadsOnceAndServesHits() {
+        ReactiveCache<String, String> cache = new ReactiveCache<>("test", cacheSpec,
+                                                                  key -> Mono.fromCallable(() -> key + "-" + loads.incrementAndGet()),
+                                                                  meterRegistry);
+
+        StepVerifier.create(cache.get("movie")).expectNext("movie-1").verifyComplete();
+        StepVerifier.create(cache.get("movie")).expectNext("movie-1").verifyComplete();
+
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void get_doesNotCacheEmptyResultsOrErrors() {
+        ReactiveCache<String, String> emptyCache = new ReactiveCache<>("empty", cacheSpec,
+                                                                       key -> Mono.fromRunnable(loads::incrementAndGet),
+                                                                       meterRegistry);
+
+        StepVerifier.create(emptyCache.get("movie")).verifyComplete();
+        StepVerifier.create(emptyCache.get("movie")).verifyComplete();
+
+        ReactiveCache<String, String> failingCache = new ReactiveCache<>("failing", cacheSpec,
+                                                                         key -> Mono.defer(() -> {
+                                                                             loads.incrementAndGet();
+                                                                             return Mono.error(new IllegalStateException("boom"));
+                                                                         }),
+                                                                         meterRegistry);
+
+        StepVerifier.create(failingCache.get("movie")).expectErrorMessage("boom").verify();
+        StepVerifier.create(failingCache.get("movie")).expectErrorMessage("boom").verify();
+
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void get_servesStaleValueWhileRevalidating() throws InterruptedException {
+        cacheSpec.setRefreshAfter(Duration.ofMillis(50));
+
+        ReactiveCache<String, String> cache = new ReactiveCache<>("test", cacheSpec,
+                                                                  key -> Mono.fromCallable(() -> key + "-" + loads.incrementAndGet()),
+                                                                  meterRegistry);
+
+        StepVerifier.create(cache.get("movie")).expectNext("movie-1").verifyComplete();
+
+        Thread.sleep(100);
+
+        StepVerifier.create(cache.get("movie")).expectNext("movie-1").verifyComplete();
+        StepVerifier.create(cache.get("movie").delaySubscription(Duration.ofMillis(50)))
+                    .expectNext("movie-2")
+                    .verifyComplete();
+    }
+}
@@ -0,0 +1,70 @@
+package com.reactivespring.config;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.AbstractJackson2Encoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.reactivespring.domain.MovieInfo;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+class SmileCodecTest {
+
+    private static final ResolvableType MOVIE_INFO_TYPE = ResolvableType.forClass(MovieInfo.class);
+
+    private final List<MovieInfo> movieInfos = IntStream.range(0, 100)
+                                                        .mapToObj(i -> new MovieInfo("movieInfo-" + i, "The Dark Knight " + i, 2008,
+                                                                                     List.of("Christian Bale", "HeathLedger"),
+                                                                                     LocalDate.parse("2008-07-18")))
+                                                        .collect(Collectors.toList());
+
+    @Test
+    void smile_isSmallerThanJson() {
+        int jsonSize = encodedSize(new Jackson2JsonEncoder(Jackson2ObjectMapperBuilder.json().build()), MediaType.APPLICATION_JSON);
+        int smileSize = encodedSize(smileEncoder(), CodecConfig.APPLICATION_SMILE);
+
+        assertTrue(smileSize < jsonSize, "smile " + smileSize + " bytes, json " + jsonSize + " bytes");
+    }
+
+    @Test
+    void smile_roundTrips() {
+        Flux<DataBuffer> encoded = smileEncoder().encode(Flux.fromIterable(movieInfos), DefaultDataBufferFactory.sharedInstance,
+                                                         MOVIE_INFO_TYPE, CodecConfig.APPLICATION_SMILE, null);
+
+        Jackson2SmileDecoder decoder = new Jackson2SmileDecoder(Jackson2ObjectMapperBuilder.smile().build());
+        StepVerifier.create(decoder.decode(encoded, MOVIE_INFO_TYPE, CodecConfig.APPLICATION_SMILE, null))
+                    .expectNextSequence(movieInfos)
+                    .verifyComplete();
+    }
+
+    private Jackson2SmileEncoder smileEncoder() {
+        return new Jackson2SmileEncoder(Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build());
+    }
+
+    private int encodedSize(AbstractJackson2Encoder encoder, MediaType mediaType) {
+        return encoder.encode(Flux.fromIterable(movieInfos), DefaultDataBufferFactory.sharedInstance, MOVIE_INFO_TYPE, mediaType, null)
+                      .map(dataBuffer -> {
+                          int size = dataBuffer.readableByteCount();
+                          DataBufferUtils.release(dataBuffer);
+                          return size;
+                      })
+                      .reduce(0, Integer::sum)
+                      .block();
+    }
+}
@@ -0,0 +1,157 @@
+package com.reactivespring.hedging;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class HedgerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private HedgingSpec hedgingSpec;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+
+        hedgingSpec = new HedgingSpec();
+        hedgingSpec.setEnabled(true);
+        hedgingSpec.setDelay(Duration.ofMillis(50));
+    }
+
+    @Test
+    void hedge_fastCall_doesNotFireHedge() {
+        Hedger hedger = new Hedger("test", hedgingSpec, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+
+        StepVerifier.create(hedger.hedge(() -> Mono.fromCallable(() -> "response-" + calls.incrementAndGet())))
+                    .expectNext("response-1")
+                    .verifyComplete();
+
+        assertEquals(1, calls.get());
+        assertEquals(0.0, hedgeCount("fired"));
+    }
+
+    @Test
+    void hedge_slowCall_hedgeWinsAndPrimaryIsCancelled() {
+        Hedger hedger = new Hedger("test", hedgingSpec, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+        AtomicBoolean primaryCancelled = new AtomicBoolean();
+
+        StepVerifier.create(hedger.hedge(() -> calls.incrementAndGet() == 1
+                                               ? Mono.<String>never().doOnCancel(() -> primaryCancelled.set(true))
+                                               : Mono.just("hedge")))
+                    .expectNext("hedge")
+                    .verifyComplete();
+
+        assertEquals(2, calls.get());
+        assertTrue(primaryCancelled.get());
+        assertEquals(1.0, hedgeCount("fired"));
+        assertEquals(1.0, hedgeCount("won"));
+    }
+
+    @Test
+    void hedge_primaryFailsAfterHedgeFired_hedgeWins() {
+        Hedger hedger = new Hedger("test", hedgingSpec, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+
+        StepVerifier.create(hedger.hedge(() -> calls.incrementAndGet() == 1
+                                               ? Mono.<String>error(new IllegalStateException("primary")).delaySubscription(Duration.ofMillis(100))
+                                               : Mono.just("hedge").delayElement(Duration.ofMillis(100))))
+                    .expectNext("hedge")
+                    .verifyComplete();
+
+        assertEquals(2, calls.get());
+        assertEquals(1.0, hedgeCount("won"));
+    }
+
+    @Test
+    void hedge_primaryFailsBeforeHedgeDelay_failsWithoutHedging() {
+        Hedger hedger = new Hedger("test", hedgingSpec, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+
+        StepVerifier.create(hedger.hedge(() -> Mono.<String>error(new IllegalStateException("primary-" + calls.incrementAndGet()))))
+                    .expectErrorMessage("primary-1")
+                    .verify(Duration.ofMillis(40));
+
+        assertEquals(1, calls.get());
+        assertEquals(0.0, hedgeCount("fired"));
+    }
+
+    @Test
+    void hedge_bothCallsFail_signalsThePrimaryError() {
+        Hedger hedger = new Hedger("test", hedgingSpec, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+
+        StepVerifier.create(hedger.hedge(() -> calls.incrementAndGet() == 1
+                                               ? Mono.<String>error(new IllegalStateException("primary")).delaySubscription(Duration.ofMillis(100))
+                                               : Mono.error(new IllegalStateException("hedge"))))
+                    .expectErrorMessage("primary")
+                    .verify();
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void hedge_recordsThePrimaryLatencyUntilCancelled() {
+        Hedger hedger = new Hedger("test", hedgingSpec, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+
+        StepVerifier.create(hedger.hedge(() -> calls.incrementAndGet() == 1 ? Mono.<String>never() : Mono.just("hedge")))
+                    .expectNext("hedge")
+                    .verifyComplete();
+
+        Timer primaryLatency = meterRegistry.get("hedging.primary.latency")
+                                            .timer();
+        assertEquals(1, primaryLatency.count());
+        assertTrue(primaryLatency.totalTime(TimeUnit.MILLISECONDS) >= 50);
+    }
+
+    @Test
+    void hedge_budgetExhausted_waitsForPrimary() {
+        hedgingSpec.setBudgetPercent(0);
+        hedgingSpec.setBudgetMaxTokens(0);
+        Hedger hedger = new Hedger("test", hedgingSpec, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+
+        StepVerifier.create(hedger.hedge(() -> Mono.just("response-" + calls.incrementAndGet())
+                                                    .delayElement(Duration.ofMillis(150))))
+                    .expectNext("response-1")
+                    .verifyComplete();
+
+        assertEquals(1, calls.get());
+        assertEquals(1.0, hedgeCount("denied"));
+    }
+
+    @Test
+    void hedge_disabled_callsOnce() {
+        hedgingSpec.setEnabled(false);
+        Hedger hedger = new Hedger("test", hedgingSpec, meterRegistry);
+        AtomicInteger calls = new AtomicInteger();
+
+        StepVerifier.create(hedger.hedge(() -> Mono.just("response-" + calls.incrementAndGet())
+                                                    .delayElement(Duration.ofMillis(150))))
+                    .expectNext("response-1")
+                    .verifyComplete();
+
+        assertEquals(1, calls.get());
+    }
+
+    private double hedgeCount(String result) {
+        return meterRegistry.get("hedging.requests")
+                            .tag("result", result)
+                            .counter()
+                            .count();
+    }
+}
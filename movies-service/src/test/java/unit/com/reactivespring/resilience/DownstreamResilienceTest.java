@@ -0,0 +1,172 @@
+package com.reactivespring.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.reactivespring.exception.MoviesInfoClientException;
+import com.reactivespring.exception.MoviesInfoServerException;
+import com.reactivespring.hedging.Hedger;
+import com.reactivespring.hedging.HedgingSpec;
+
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+class DownstreamResilienceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ResilienceSpec resilienceSpec;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+
+        resilienceSpec = new ResilienceSpec();
+        resilienceSpec.getRetry().setMinBackoff(Duration.ofMillis(1));
+        resilienceSpec.getRetry().setMaxBackoff(Duration.ofMillis(5));
+    }
+
+    @Test
+    void decorate_serverError_isRetriedUpToMaxRetries() {
+        DownstreamResilience resilience = new DownstreamResilience("test", resilienceSpec, meterRegistry);
+        AtomicInteger attempts = new AtomicInteger();
+
+        StepVerifier.create(resilience.decorate(Mono.defer(() -> {
+                        attempts.incrementAndGet();
+                        return Mono.error(new MoviesInfoServerException("boom"));
+                    })))
+                    .expectError(MoviesInfoServerException.class)
+                    .verify();
+
+        assertEquals(4, attempts.get());
+        assertEquals(3.0, meterRegistry.get("resilience.retries").counter().count());
+    }
+
+    @Test
+    void decorate_clientError_isNotRetried() {
+        DownstreamResilience resilience = new DownstreamResilience("test", resilienceSpec, meterRegistry);
+        AtomicInteger attempts = new AtomicInteger();
+
+        StepVerifier.create(resilience.decorate(Mono.defer(() -> {
+                        attempts.incrementAndGet();
+                        return Mono.error(new MoviesInfoClientException("not found", 404));
+                    })))
+                    .expectError(MoviesInfoClientException.class)
+                    .verify();
+
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void decorate_exhaustedRetryBudget_stopsRetrying() {
+        resilienceSpec.getRetry().setBudgetMaxTokens(2);
+        DownstreamResilience resilience = new DownstreamResilience("test", resilienceSpec, meterRegistry);
+        AtomicInteger attempts = new AtomicInteger();
+
+        StepVerifier.create(resilience.decorate(Mono.defer(() -> {
+                        attempts.incrementAndGet();
+                        return Mono.error(new MoviesInfoServerException("boom"));
+                    })))
+                    .expectError(MoviesInfoServerException.class)
+                    .verify();
+
+        assertEquals(3, attempts.get());
+        assertEquals(1.0, meterRegistry.get("resilience.retries.budget.exhausted").counter().count());
+    }
+
+    @Test
+    void decorate_failingCalls_retryAtMostTheBudgetPercent() {
+        int calls = 100;
+        resilienceSpec.getRetry().setBudgetPercent(50);
+        resilienceSpec.getRetry().setBudgetMaxTokens(1);
+        // never opens, every call gets to ask for its retries
+        resilienceSpec.getCircuitBreaker().setSlidingWindowSize(1000);
+        resilienceSpec.getCircuitBreaker().setMinimumNumberOfCalls(1000);
+        DownstreamResilience resilience = new DownstreamResilience("test", resilienceSpec, meterRegistry);
+
+        for (int i = 0; i < calls; i++) {
+            StepVerifier.create(resilience.decorate(Mono.error(new MoviesInfoServerException("boom"))))
+                        .expectError(MoviesInfoServerException.class)
+                        .verify();
+        }
+
+        double retries = meterRegistry.get("resilience.retries").counter().count();
+        assertTrue(retries <= 1 + calls * 0.5, "retries: " + retries);
+    }
+
+    @Test
+    void decorate_repeatedServerErrors_openTheCircuit() {
+        resilienceSpec.getRetry().setMaxRetries(0);
+        resilienceSpec.getCircuitBreaker().setSlidingWindowSize(4);
+        resilienceSpec.getCircuitBreaker().setMinimumNumberOfCalls(4);
+        DownstreamResilience resilience = new DownstreamResilience("test", resilienceSpec, meterRegistry);
+
+        for (int i = 0; i < 4; i++) {
+            StepVerifier.create(resilience.decorate(Mono.error(new MoviesInfoServerException("boom"))))
+                        .expectError(MoviesInfoServerException.class)
+                        .verify();
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, resilience.circuitBreakerState());
+        StepVerifier.create(resilience.decorate(Mono.just("value")))
+                    .expectError(CallNotPermittedException.class)
+                    .verify();
+    }
+
+    @Test
+    void decorate_fullBulkhead_rejectsInsteadOfQueueing() {
+        resilienceSpec.getBulkhead().setMaxConcurrentCalls(1);
+        DownstreamResilience resilience = new DownstreamResilience("test", resilienceSpec, meterRegistry);
+
+        Disposable inFlight = resilience.decorate(Mono.never())
+                                        .subscribe();
+
+        StepVerifier.create(resilience.decorate(Mono.just("value")))
+                    .expectError(BulkheadFullException.class)
+                    .verify();
+
+        inFlight.dispose();
+        StepVerifier.create(resilience.decorate(Mono.just("value")))
+                    .expectNext("value")
+                    .verifyComplete();
+    }
+
+    @Test
+    void decorate_hedgedCall_holdsAPermitPerRequestInFlight() throws InterruptedException {
+        resilienceSpec.getBulkhead().setMaxConcurrentCalls(2);
+        DownstreamResilience resilience = new DownstreamResilience("test", resilienceSpec, meterRegistry);
+        HedgingSpec hedgingSpec = new HedgingSpec();
+        hedgingSpec.setEnabled(true);
+        hedgingSpec.setDelay(Duration.ofMillis(10));
+        Hedger hedger = new Hedger("test", hedgingSpec, meterRegistry);
+
+        Disposable inFlight = resilience.decorate(hedger, Mono::never)
+                                        .subscribe();
+
+        // the primary request and its hedge, fired after 10 ms
+        Thread.sleep(100);
+        assertEquals(0.0, availableConcurrentCalls());
+        StepVerifier.create(resilience.decorate(Mono.just("value")))
+                    .expectError(BulkheadFullException.class)
+                    .verify();
+
+        inFlight.dispose();
+        assertEquals(2.0, availableConcurrentCalls());
+    }
+
+    private double availableConcurrentCalls() {
+        return meterRegistry.get("resilience4j.bulkhead.available.concurrent.calls")
+                            .gauge()
+                            .value();
+    }
+}
@@ -0,0 +1,91 @@
+package com.reactivespring.util;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+class SingleFlightTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight<String, String> singleFlight;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight<>("test", meterRegistry);
+    }
+
+    @Test
+    void concurrentLookups_shareOneUpstreamCall() {
+        AtomicInteger upstreamCalls = new AtomicInteger();
+        Sinks.One<String> upstream = Sinks.one();
+
+        Mono<String> first = singleFlight.execute("key", key -> {
+            upstreamCalls.incrementAndGet();
+            return upstream.asMono();
+        });
+        Mono<String> second = singleFlight.execute("key", key -> {
+            upstreamCalls.incrementAndGet();
+            return Mono.just("other");
+        });
+
+        StepVerifier.create(Mono.zip(first, second))
+                    .then(() -> upstream.tryEmitValue("value"))
+                    .assertNext(tuple -> {
+                        assertEquals("value", tuple.getT1());
+                        assertEquals("value", tuple.getT2());
+                    })
+                    .verifyComplete();
+
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(1.0, meterRegistry.get("singleflight.calls").tag("result", "leader").counter().count());
+        assertEquals(1.0, meterRegistry.get("singleflight.calls").tag("result", "coalesced").counter().count());
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void sequentialLookups_issueSeparateUpstreamCalls() {
+        AtomicInteger upstreamCalls = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            StepVerifier.create(singleFlight.execute("key", key -> Mono.fromCallable(() -> "value-" + upstreamCalls.incrementAndGet())))
+                        .expectNext("value-" + (i + 1))
+                        .verifyComplete();
+        }
+
+        assertEquals(2, upstreamCalls.get());
+    }
+
+    @Test
+    void errors_arePropagatedToAllWaitersAndNotRetained() {
+        Mono<String> failing = singleFlight.execute("key", key -> Mono.delay(Duration.ofMillis(50))
+                                                                       .then(Mono.error(new IllegalStateException("boom"))));
+
+        StepVerifier.create(Mono.zip(failing, failing))
+                    .expectErrorMessage("boom")
+                    .verify();
+
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+
+    @Test
+    void cancellingAllWaiters_releasesTheKey() {
+        Disposable waiter = singleFlight.execute("key", key -> Mono.never())
+                                        .subscribe();
+        assertEquals(1, singleFlight.inFlightCount());
+
+        waiter.dispose();
+
+        assertEquals(0, singleFlight.inFlightCount());
+    }
+}